@@ -16,10 +16,12 @@ import no.nav.data.common.auditing.domain.AuditVersion;
 import no.nav.data.common.auditing.domain.AuditVersionRepository;
 import no.nav.data.common.auditing.domain.Auditable;
 import no.nav.data.common.storage.domain.GenericStorage;
+import no.nav.data.common.storage.domain.StorageEvent;
 import no.nav.data.common.utils.HibernateUtils;
 import no.nav.data.common.utils.JsonUtils;
 import no.nav.data.common.utils.MdcUtils;
 import org.hibernate.proxy.HibernateProxy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.util.Assert;
 
 import java.util.Optional;
@@ -35,6 +37,7 @@ import static no.nav.data.common.storage.domain.TypeRegistration.isAudited;
 public class AuditVersionListener {
 
     private static AuditVersionRepository repository;
+    private static ApplicationEventPublisher publisher;
 
     private static final ObjectWriter wr;
 
@@ -50,6 +53,10 @@ public class AuditVersionListener {
         AuditVersionListener.repository = repository;
     }
 
+    public static void setPublisher(ApplicationEventPublisher publisher) {
+        AuditVersionListener.publisher = publisher;
+    }
+
     @PrePersist
     public void prePersist(Object entity) {
         audit(entity, Action.CREATE);
@@ -74,6 +81,9 @@ public class AuditVersionListener {
         if (auditVersion != null) {
             repository.save(auditVersion);
         }
+        if (entity instanceof GenericStorage gs && publisher != null) {
+            publisher.publishEvent(new StorageEvent(action, gs));
+        }
     }
 
     public static AuditVersion convertAuditVersion(Object entity, Action action) {
@@ -0,0 +1,114 @@
+package no.nav.data.common.export;
+
+import no.nav.data.common.exceptions.TechnicalException;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Comma separated values as of RFC 4180, UTF-8 with CRLF line endings. Cells with a separator, quote or line break are quoted.
+ * The header names the columns by field.
+ * <p>
+ * Text cells starting with a character a spreadsheet reads as the start of a formula are prefixed with an apostrophe,
+ * so a value entered in the catalog is never evaluated when the file is opened.
+ */
+public class CsvWriter implements TableWriter {
+
+    private static final String LINE_END = "\r\n";
+    private static final String FORMULA_START = "=+-@\t\r";
+
+    private final Writer writer;
+    private CsvRow row;
+
+    public CsvWriter(OutputStream out) {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void addHeader(List<Column> columns) {
+        var header = addRow();
+        columns.forEach(column -> header.addCell(column.field()));
+    }
+
+    @Override
+    public CsvRow addRow() {
+        endRow();
+        row = new CsvRow();
+        return row;
+    }
+
+    @Override
+    public void finish() {
+        endRow();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new TechnicalException("csv error", e);
+        }
+    }
+
+    public class CsvRow implements Row {
+
+        private boolean first = true;
+
+        @Override
+        public CsvRow addCell(String content) {
+            separator();
+            if (content != null) {
+                var text = neutralize(content);
+                write(needsQuotes(text) ? '"' + text.replace("\"", "\"\"") + '"' : text);
+            }
+            return this;
+        }
+
+        @Override
+        public CsvRow addCell(Number number) {
+            separator();
+            if (number != null) {
+                write(number.toString());
+            }
+            return this;
+        }
+
+        private void separator() {
+            if (!first) {
+                write(",");
+            }
+            first = false;
+        }
+    }
+
+    private static String neutralize(String content) {
+        return !content.isEmpty() && FORMULA_START.indexOf(content.charAt(0)) >= 0 ? "'" + content : content;
+    }
+
+    private static boolean needsQuotes(String content) {
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void endRow() {
+        if (row != null) {
+            write(LINE_END);
+            row = null;
+        }
+    }
+
+    private void write(String s) {
+        try {
+            writer.write(s);
+        } catch (IOException e) {
+            throw new TechnicalException("csv error", e);
+        }
+    }
+}
@@ -1,84 +1,264 @@
 package no.nav.data.common.export;
 
 import no.nav.data.common.exceptions.TechnicalException;
-import org.docx4j.openpackaging.packages.SpreadsheetMLPackage;
-import org.docx4j.openpackaging.parts.PartName;
-import org.docx4j.openpackaging.parts.SpreadsheetML.WorksheetPart;
-import org.xlsx4j.jaxb.Context;
-import org.xlsx4j.sml.CTRst;
-import org.xlsx4j.sml.CTXstringWhitespace;
-import org.xlsx4j.sml.ObjectFactory;
-import org.xlsx4j.sml.STCellType;
 
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
-public class ExcelBuilder {
+/**
+ * Writes a single sheet SpreadsheetML workbook, rows are written to the zipped sheet as they are added.
+ * <p>
+ * Strings are kept in the shared strings table, written after the sheet, so repeated values such as names of areas and teams are stored once.
+ * The table is bounded, strings that are long or arrive once the table is full are written inline in the cell,
+ * so memory does not grow with the number of rows.
+ */
+public class ExcelBuilder implements TableWriter {
 
     public static final String SPREADSHEETML_SHEET_MIME = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
-    private static final ObjectFactory fac = Context.getsmlObjectFactory();
 
-    private final SpreadsheetMLPackage pack;
-    private final WorksheetPart sheet;
+    private static final int MAX_SHARED_STRINGS = 1 << 16;
+    private static final int MAX_SHARED_STRING_LENGTH = 256;
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
+
+    private static final String XML_HEADER = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+    private static final String NS_MAIN = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+    private static final String NS_RELATIONSHIPS = "http://schemas.openxmlformats.org/package/2006/relationships";
+    private static final String NS_DOC_RELATIONSHIPS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final ByteArrayOutputStream buffer;
+    private final ZipOutputStream zip;
+    private final Writer writer;
+    private final Map<String, Integer> sharedStrings = new HashMap<>();
+    private final List<String> sharedStringOrder = new ArrayList<>();
+    private long sharedStringCount = 0;
+    private ExcelRow row;
+    private boolean finished;
 
     long rowN = 0;
 
+    /**
+     * Workbook built in memory, get it with {@link #build()}
+     */
     public ExcelBuilder(String sheetName) {
+        this(sheetName, new ByteArrayOutputStream());
+    }
+
+    /**
+     * Workbook written to the stream as rows are added, end it with {@link #finish()}. The stream is not closed.
+     */
+    public ExcelBuilder(String sheetName, OutputStream out) {
+        this.buffer = out instanceof ByteArrayOutputStream bytes ? bytes : null;
+        this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+        this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
         try {
-            pack = SpreadsheetMLPackage.createPackage();
-            sheet = pack.createWorksheetPart(new PartName("/xl/worksheets/sheet1.xml"), sheetName, 1);
-        } catch (Exception e) {
+            writeEntry("[Content_Types].xml", XML_HEADER
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>"
+                    + "<Override PartName=\"/xl/worksheets/sheet1.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>"
+                    + "<Override PartName=\"/xl/sharedStrings.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sharedStrings+xml\"/>"
+                    + "</Types>");
+            writeEntry("_rels/.rels", XML_HEADER
+                    + "<Relationships xmlns=\"" + NS_RELATIONSHIPS + "\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + NS_DOC_RELATIONSHIPS + "/officeDocument\" Target=\"xl/workbook.xml\"/>"
+                    + "</Relationships>");
+            writeEntry("xl/workbook.xml", XML_HEADER
+                    + "<workbook xmlns=\"" + NS_MAIN + "\" xmlns:r=\"" + NS_DOC_RELATIONSHIPS + "\">"
+                    + "<sheets><sheet name=\"" + escape(sheetName(sheetName)) + "\" sheetId=\"1\" r:id=\"rId1\"/></sheets>"
+                    + "</workbook>");
+            writeEntry("xl/_rels/workbook.xml.rels", XML_HEADER
+                    + "<Relationships xmlns=\"" + NS_RELATIONSHIPS + "\">"
+                    + "<Relationship Id=\"rId1\" Type=\"" + NS_DOC_RELATIONSHIPS + "/worksheet\" Target=\"worksheets/sheet1.xml\"/>"
+                    + "<Relationship Id=\"rId2\" Type=\"" + NS_DOC_RELATIONSHIPS + "/sharedStrings\" Target=\"sharedStrings.xml\"/>"
+                    + "</Relationships>");
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            writer.write(XML_HEADER + "<worksheet xmlns=\"" + NS_MAIN + "\"><sheetData>");
+        } catch (IOException e) {
             throw new TechnicalException("excel error", e);
         }
     }
 
+    @Override
+    public void addHeader(List<Column> columns) {
+        var header = addRow();
+        columns.forEach(column -> header.addCell(column.label()));
+    }
+
+    @Override
     public ExcelRow addRow() {
-        return new ExcelRow();
+        endRow();
+        row = new ExcelRow();
+        return row;
     }
 
-    public class ExcelRow {
+    public class ExcelRow implements Row {
 
-        org.xlsx4j.sml.Row row = fac.createRow();
-        char col = 'A';
+        int col = 0;
 
         public ExcelRow() {
-            row.setR(++rowN);
-            sheet.getJaxbElement().getSheetData().getRow().add(row);
+            write("<row r=\"" + ++rowN + "\">");
         }
 
+        @Override
         public ExcelRow addCell(String content) {
-            var cell = fac.createCell();
-
-            CTXstringWhitespace t = fac.createCTXstringWhitespace();
-            t.setValue(content);
-            CTRst ctRst = fac.createCTRst();
-            ctRst.setT(t);
-
-            cell.setIs(ctRst);
-            cell.setR("%s%s".formatted(col++, rowN));
-            cell.setT(STCellType.INLINE_STR);
-            row.getC().add(cell);
+            var ref = cellRef();
+            if (content == null || content.isEmpty()) {
+                return this;
+            }
+            var index = sharedStringIndex(content);
+            if (index != null) {
+                write("<c r=\"" + ref + "\" t=\"s\"><v>" + index + "</v></c>");
+            } else {
+                write("<c r=\"" + ref + "\" t=\"inlineStr\"><is><t xml:space=\"preserve\">" + escape(content) + "</t></is></c>");
+            }
             return this;
         }
 
+        @Override
         public ExcelRow addCell(Number number) {
-            var cell = fac.createCell();
-
-            cell.setV(number != null ? String.valueOf(number) : "");
-            cell.setR("%s%s".formatted(col++, rowN));
-            cell.setT(STCellType.N);
-            row.getC().add(cell);
+            var ref = cellRef();
+            if (number != null) {
+                write("<c r=\"" + ref + "\" t=\"n\"><v>" + number + "</v></c>");
+            }
             return this;
         }
 
+        private String cellRef() {
+            return columnName(col++) + rowN;
+        }
+    }
+
+    /**
+     * Write the end of the sheet and the shared strings, the workbook is complete in the stream after this
+     */
+    @Override
+    public void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        endRow();
+        try {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("xl/sharedStrings.xml"));
+            writer.write(XML_HEADER + "<sst xmlns=\"" + NS_MAIN + "\" count=\"" + sharedStringCount + "\" uniqueCount=\"" + sharedStringOrder.size() + "\">");
+            for (String s : sharedStringOrder) {
+                writer.write("<si><t xml:space=\"preserve\">");
+                writer.write(escape(s));
+                writer.write("</t></si>");
+            }
+            writer.write("</sst>");
+            writer.flush();
+            zip.closeEntry();
+            zip.finish();
+            zip.flush();
+        } catch (IOException e) {
+            throw new TechnicalException("excel error", e);
+        }
     }
 
     public byte[] build() {
+        if (buffer == null) {
+            throw new IllegalStateException("workbook is written to a stream");
+        }
+        finish();
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Column name from a zero based index, A-Z, AA-AZ and on
+     */
+    static String columnName(int index) {
+        var name = new StringBuilder(3);
+        for (int n = index + 1; n > 0; n = (n - 1) / 26) {
+            name.append((char) ('A' + (n - 1) % 26));
+        }
+        return name.reverse().toString();
+    }
+
+    private Integer sharedStringIndex(String content) {
+        if (content.length() > MAX_SHARED_STRING_LENGTH) {
+            return null;
+        }
+        var index = sharedStrings.get(content);
+        if (index == null) {
+            if (sharedStringOrder.size() >= MAX_SHARED_STRINGS) {
+                return null;
+            }
+            index = sharedStringOrder.size();
+            sharedStrings.put(content, index);
+            sharedStringOrder.add(content);
+        }
+        sharedStringCount++;
+        return index;
+    }
+
+    private void endRow() {
+        if (row != null) {
+            write("</row>");
+            row = null;
+        }
+    }
+
+    private void write(String xml) {
         try {
-            var outStream = new ByteArrayOutputStream();
-            pack.save(outStream);
-            return outStream.toByteArray();
-        } catch (Exception e) {
+            writer.write(xml);
+        } catch (IOException e) {
             throw new TechnicalException("excel error", e);
         }
     }
+
+    private void writeEntry(String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        writer.write(content);
+        writer.flush();
+        zip.closeEntry();
+    }
+
+    private static String sheetName(String name) {
+        var valid = name.replaceAll("[\\[\\]:*?/\\\\]", " ");
+        return valid.length() > MAX_SHEET_NAME_LENGTH ? valid.substring(0, MAX_SHEET_NAME_LENGTH) : valid;
+    }
+
+    /**
+     * Escape for xml text and attributes, characters not allowed in xml are left out
+     */
+    static String escape(String s) {
+        StringBuilder sb = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> c < 0x20 && c != '\t' && c != '\n' && c != '\r' || c == 0xFFFE || c == 0xFFFF ? "" : null;
+            };
+            if (replacement != null && sb == null) {
+                sb = new StringBuilder(s.length() + 16).append(s, 0, i);
+            }
+            if (sb != null) {
+                if (replacement != null) {
+                    sb.append(replacement);
+                } else {
+                    sb.append(c);
+                }
+            }
+        }
+        return sb == null ? s : sb.toString();
+    }
 }
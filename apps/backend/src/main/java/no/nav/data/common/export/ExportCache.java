@@ -0,0 +1,336 @@
+package no.nav.data.common.export;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.TechnicalException;
+import no.nav.data.common.utils.MetricUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Generated exports kept on disk by name and version, so an export is generated once per version of the data it covers
+ * and answered with 304 Not Modified when the client already has it.
+ * <p>
+ * The ETag is a hash of the cached export, not the version, as versions of data held in memory are only comparable on one node.
+ * A generated export is sent without an ETag, the requests after it get the one of the cached export.
+ * <p>
+ * A missing export is written to the client and to disk at the same time as it is generated, so the first rows are sent right away.
+ * One version is kept per name, replaced when a newer version is generated, and the least recently used exports are deleted
+ * when the total size passes the max size. Concurrent requests for the same missing export wait for the one generating it.
+ */
+@Slf4j
+@Component
+public class ExportCache {
+
+    private static final Counter counter = MetricUtils.counter()
+            .labels("hit").labels("miss").labels("not_modified")
+            .labelNames("outcome")
+            .name("export_cache_counter").help("Export requests by outcome").register();
+    private static final Gauge sizeGauge = MetricUtils.gauge()
+            .name("export_cache_size_gauge").help("Bytes of exports on disk").register();
+
+    private static final String FILE_PREFIX = "export-";
+
+    private final Path dir;
+    private final long maxSize;
+    private final AtomicLong fileSeq = new AtomicLong();
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, .75f, true);
+    private final Map<Key, CompletableFuture<Path>> generating = new ConcurrentHashMap<>();
+    private long size;
+
+    public ExportCache(
+            @Value("${team-catalog.export-cache.dir:#{systemProperties['java.io.tmpdir']}/team-catalog-export}") Path dir,
+            @Value("${team-catalog.export-cache.max-size:256MB}") DataSize maxSize
+    ) {
+        this.dir = dir;
+        this.maxSize = maxSize.toBytes();
+        try {
+            Files.createDirectories(dir);
+            // exports left by an earlier run are not known to this one
+            try (var files = Files.newDirectoryStream(dir, FILE_PREFIX + "*")) {
+                files.forEach(ExportCache::delete);
+            }
+        } catch (IOException e) {
+            throw new TechnicalException("failed to create export cache " + dir, e);
+        }
+    }
+
+    /**
+     * The export as a response for the version of the data it covers, or 304 Not Modified if the request has the ETag of the cached export.
+     * Read the version before the data, the export is only generated if not cached.
+     *
+     * @param filename unique per export and format, such as type, filter and extension
+     * @param version of the data the export is read from, grows with every change of it
+     */
+    public ResponseEntity<StreamingResponseBody> respond(WebRequest request, String filename, ExportFormat format, long version, Supplier<TableExport> export) {
+        var key = new Key(filename, version);
+        var response = ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
+        var cached = openCached(key);
+        if (cached == null) {
+            return response.body(body(key, export));
+        }
+        if (request.checkNotModified(cached.etag())) {
+            counter.labels("not_modified").inc();
+            close(cached.in());
+            // status and ETag are set on the response
+            return null;
+        }
+        counter.labels("hit").inc();
+        return response.eTag(cached.etag()).body(out -> copy(cached.in(), out));
+    }
+
+    /**
+     * The export as a response without caching, for exports of data the catalog version does not cover
+     */
+    public static ResponseEntity<StreamingResponseBody> respond(String filename, ExportFormat format, TableExport export) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename)
+                .body(export::writeTo);
+    }
+
+    /**
+     * The export copied from disk, or generated when written if it is not cached in the version or a newer one.
+     * The rows are collected here, in the request, and written to the client and the cache when the body is written.
+     * A cached export stays readable if it is evicted while it is read.
+     */
+    StreamingResponseBody body(Key key, Supplier<TableExport> export) {
+        var cached = openCached(key);
+        if (cached != null) {
+            counter.labels("hit").inc();
+            return out -> copy(cached.in(), out);
+        }
+        var future = new CompletableFuture<Path>();
+        var pending = generating.putIfAbsent(key, future);
+        if (pending != null) {
+            join(pending);
+            return body(key, export);
+        }
+        counter.labels("miss").inc();
+        TableExport table;
+        try {
+            table = export.get();
+        } catch (RuntimeException e) {
+            generating.remove(key, future);
+            future.completeExceptionally(e);
+            throw e;
+        }
+        return out -> generate(key, future, table, out);
+    }
+
+    synchronized long size() {
+        return size;
+    }
+
+    private synchronized Cached openCached(Key key) {
+        var entry = entries.get(key.name());
+        if (entry == null || entry.version() < key.version()) {
+            return null;
+        }
+        try {
+            return new Cached(Files.newInputStream(entry.file()), entry.etag());
+        } catch (IOException e) {
+            log.warn("cached export {} is gone", entry.file(), e);
+            remove(key.name());
+            return null;
+        }
+    }
+
+    /**
+     * The export is completed and cached even if the client goes away, the error of the client is thrown after
+     */
+    private void generate(Key key, CompletableFuture<Path> future, TableExport export, OutputStream client) throws IOException {
+        var file = dir.resolve(FILE_PREFIX + fileSeq.incrementAndGet());
+        IOException clientError;
+        try {
+            var digest = md5();
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(file), digest)) {
+                var tee = new Tee(out, client);
+                export.writeTo(tee);
+                tee.flush();
+                clientError = tee.clientError;
+            }
+            store(key, file, "\"%032x\"".formatted(new BigInteger(1, digest.digest())));
+            generating.remove(key, future);
+            future.complete(file);
+        } catch (IOException | RuntimeException e) {
+            delete(file);
+            generating.remove(key, future);
+            var error = e instanceof RuntimeException re ? re : new TechnicalException("failed to write export", e);
+            future.completeExceptionally(error);
+            throw error;
+        }
+        if (clientError != null) {
+            throw clientError;
+        }
+    }
+
+    /**
+     * Kept unless it is too large or a newer version was stored meanwhile
+     */
+    private synchronized void store(Key key, Path file, String etag) throws IOException {
+        var fileSize = Files.size(file);
+        var current = entries.get(key.name());
+        if (fileSize > maxSize || current != null && current.version() > key.version()) {
+            delete(file);
+            return;
+        }
+        remove(key.name());
+        entries.put(key.name(), new Entry(key.version(), file, fileSize, etag));
+        size += fileSize;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (size > maxSize && iterator.hasNext()) {
+            var eldest = iterator.next();
+            iterator.remove();
+            size -= eldest.size();
+            delete(eldest.file());
+        }
+        sizeGauge.set(size);
+    }
+
+    private void remove(String name) {
+        var removed = entries.remove(name);
+        if (removed != null) {
+            size -= removed.size();
+            delete(removed.file());
+        }
+        sizeGauge.set(size);
+    }
+
+    private static void copy(InputStream in, OutputStream out) throws IOException {
+        try (in) {
+            in.transferTo(out);
+        }
+    }
+
+    private static void close(InputStream in) {
+        try {
+            in.close();
+        } catch (IOException e) {
+            log.warn("failed to close cached export", e);
+        }
+    }
+
+    private static MessageDigest md5() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new TechnicalException("md5 missing", e);
+        }
+    }
+
+    private static void join(CompletableFuture<Path> future) {
+        try {
+            future.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException re ? re : e;
+        }
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("failed to delete export {}", file, e);
+        }
+    }
+
+    record Key(String name, long version) {
+
+    }
+
+    /**
+     * Writes to the file and the client, a client that fails is left out and the file is still written
+     */
+    private static final class Tee extends OutputStream {
+
+        private final OutputStream file;
+        private OutputStream client;
+        private IOException clientError;
+
+        private Tee(OutputStream file, OutputStream client) {
+            this.file = file;
+            this.client = client;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            file.write(b);
+            if (client != null) {
+                try {
+                    client.write(b);
+                } catch (IOException e) {
+                    clientFailed(e);
+                }
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            file.write(b, off, len);
+            if (client != null) {
+                try {
+                    client.write(b, off, len);
+                } catch (IOException e) {
+                    clientFailed(e);
+                }
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            file.flush();
+            if (client != null) {
+                try {
+                    client.flush();
+                } catch (IOException e) {
+                    clientFailed(e);
+                }
+            }
+        }
+
+        private void clientFailed(IOException e) {
+            clientError = e;
+            client = null;
+        }
+    }
+
+    private record Entry(long version, Path file, long size, String etag) {
+
+    }
+
+    private record Cached(InputStream in, String etag) {
+
+    }
+}
@@ -0,0 +1,66 @@
+package no.nav.data.common.export;
+
+import lombok.Getter;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.OutputStream;
+import java.util.List;
+import java.util.function.BiFunction;
+
+import static no.nav.data.common.export.ExcelBuilder.SPREADSHEETML_SHEET_MIME;
+
+/**
+ * Formats of exports, chosen from the Accept header of the request
+ */
+@Getter
+public enum ExportFormat {
+
+    XLSX(SPREADSHEETML_SHEET_MIME, "xlsx", ExcelBuilder::new),
+    CSV(ExportFormat.CSV_MIME, "csv", (name, out) -> new CsvWriter(out)),
+    NDJSON(ExportFormat.NDJSON_MIME, "ndjson", (name, out) -> new NdjsonWriter(out));
+
+    public static final String CSV_MIME = "text/csv";
+    public static final String NDJSON_MIME = "application/x-ndjson";
+
+    private final MediaType mediaType;
+    private final String extension;
+    private final BiFunction<String, OutputStream, TableWriter> writer;
+
+    ExportFormat(String mediaType, String extension, BiFunction<String, OutputStream, TableWriter> writer) {
+        this.mediaType = MediaType.parseMediaType(mediaType);
+        this.extension = extension;
+        this.writer = writer;
+    }
+
+    /**
+     * @param name name of the sheet, where the format has one
+     */
+    public TableWriter createWriter(String name, OutputStream out) {
+        return writer.apply(name, out);
+    }
+
+    /**
+     * The format of the most preferred media type accepted, xlsx if none or any is accepted
+     */
+    public static ExportFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return XLSX;
+        }
+        List<MediaType> accepted;
+        try {
+            accepted = MediaType.parseMediaTypes(accept);
+        } catch (InvalidMediaTypeException e) {
+            return XLSX;
+        }
+        MediaType.sortBySpecificityAndQuality(accepted);
+        for (MediaType mediaType : accepted) {
+            for (ExportFormat format : values()) {
+                if (mediaType.includes(format.mediaType)) {
+                    return mediaType.isWildcardType() ? XLSX : format;
+                }
+            }
+        }
+        return XLSX;
+    }
+}
@@ -0,0 +1,114 @@
+package no.nav.data.common.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import no.nav.data.common.exceptions.TechnicalException;
+import no.nav.data.common.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * One json object per line, keyed by the fields of the header columns. The header itself is not written.
+ * Cells beyond the header are keyed by their column name, empty cells are written as null.
+ */
+public class NdjsonWriter implements TableWriter {
+
+    private final JsonGenerator generator;
+    private final List<String> keys = new ArrayList<>();
+    private JsonRow row;
+
+    public NdjsonWriter(OutputStream out) {
+        try {
+            this.generator = JsonUtils.getObjectMapper().getFactory().createGenerator(out)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+        } catch (IOException e) {
+            throw new TechnicalException("json error", e);
+        }
+    }
+
+    @Override
+    public void addHeader(List<Column> columns) {
+        columns.forEach(column -> {
+            if (keys.contains(column.field())) {
+                throw new TechnicalException("duplicate export field " + column.field());
+            }
+            keys.add(column.field());
+        });
+    }
+
+    @Override
+    public Row addRow() {
+        endRow();
+        row = new JsonRow();
+        return row;
+    }
+
+    @Override
+    public void finish() {
+        endRow();
+        try {
+            generator.flush();
+        } catch (IOException e) {
+            throw new TechnicalException("json error", e);
+        }
+    }
+
+    private class JsonRow implements Row {
+
+        private int col = 0;
+
+        JsonRow() {
+            try {
+                generator.writeStartObject();
+            } catch (IOException e) {
+                throw new TechnicalException("json error", e);
+            }
+        }
+
+        @Override
+        public Row addCell(String content) {
+            try {
+                generator.writeFieldName(key());
+                generator.writeString(content);
+            } catch (IOException e) {
+                throw new TechnicalException("json error", e);
+            }
+            return this;
+        }
+
+        @Override
+        public Row addCell(Number number) {
+            try {
+                generator.writeFieldName(key());
+                if (number == null) {
+                    generator.writeNull();
+                } else {
+                    generator.writeNumber(number.toString());
+                }
+            } catch (IOException e) {
+                throw new TechnicalException("json error", e);
+            }
+            return this;
+        }
+
+        private String key() {
+            var index = col++;
+            return index < keys.size() ? keys.get(index) : ExcelBuilder.columnName(index);
+        }
+    }
+
+    private void endRow() {
+        if (row != null) {
+            try {
+                generator.writeEndObject();
+                generator.writeRaw('\n');
+            } catch (IOException e) {
+                throw new TechnicalException("json error", e);
+            }
+            row = null;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package no.nav.data.common.export;
+
+import java.io.OutputStream;
+
+/**
+ * An export with its rows collected, written when the response body is written
+ */
+@FunctionalInterface
+public interface TableExport {
+
+    void writeTo(OutputStream out);
+}
@@ -0,0 +1,34 @@
+package no.nav.data.common.export;
+
+import java.util.List;
+
+/**
+ * A header and rows of cells written to a stream as they are added. Add the header before the first row,
+ * and call {@link #finish()} after the last row, the stream is left open.
+ */
+public interface TableWriter {
+
+    /**
+     * Spreadsheets show the labels of the columns, csv and ndjson name them by field
+     */
+    void addHeader(List<Column> columns);
+
+    Row addRow();
+
+    void finish();
+
+    interface Row {
+
+        Row addCell(String content);
+
+        Row addCell(Number number);
+    }
+
+    /**
+     * @param field name of the column read by programs, stable across languages and releases
+     * @param label localized name of the column shown to people
+     */
+    record Column(String field, String label) {
+
+    }
+}
@@ -11,12 +11,21 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Optional;
+import java.util.UUID;
+
 import static java.util.concurrent.TimeUnit.MINUTES;
 
 @Slf4j
 @Configuration
 public class DatasourceConfig {
 
+    /**
+     * Application name on every connection from this node, tells the node that made a write apart in pg_stat_activity and storage notifications
+     */
+    public static final String NODE_NAME = Optional.ofNullable(System.getenv("HOSTNAME"))
+            .orElseGet(() -> "team-catalog-" + UUID.randomUUID().toString().substring(0, 8));
+
     @Data
     @Configuration
     @ConfigurationProperties(prefix = "vault")
@@ -47,6 +56,7 @@ public class DatasourceConfig {
         config.setMaximumPoolSize(2);
         config.setIdleTimeout(MINUTES.toMillis(5));
         config.setMaxLifetime(MINUTES.toMillis(9));
+        config.addDataSourceProperty("ApplicationName", NODE_NAME);
         return config;
     }
 
@@ -10,6 +10,7 @@ import no.nav.data.common.storage.StorageService;
 import org.hibernate.SessionFactory;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.DependsOn;
@@ -34,8 +35,11 @@ public class JpaConfig {
     }
 
     @Bean
-    public ApplicationRunner initAudit(AuditVersionRepository repository) {
-        return args -> AuditVersionListener.setRepo(repository);
+    public ApplicationRunner initAudit(AuditVersionRepository repository, ApplicationEventPublisher publisher) {
+        return args -> {
+            AuditVersionListener.setRepo(repository);
+            AuditVersionListener.setPublisher(publisher);
+        };
     }
 
     @Bean
@@ -3,6 +3,8 @@ package no.nav.data.common.kafka;
 import io.micrometer.core.instrument.MeterRegistry;
 import no.nav.data.team.resource.NomClient;
 import no.nav.data.team.resource.NomListener;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
@@ -10,9 +12,9 @@ import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.core.ConsumerFactory;
 import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
 import org.springframework.kafka.core.MicrometerConsumerListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.ContainerProperties.AckMode;
-import org.springframework.kafka.listener.KafkaMessageListenerContainer;
 
 import java.time.Duration;
 
@@ -21,24 +23,33 @@ public class KafkaConfig {
 
     @Value("${kafka.topics.nom-ressurs}")
     private String topic;
+    @Value("${kafka.concurrency.nom-ressurs:1}")
+    private int concurrency;
 
+    /**
+     * Values are left as bytes, {@link NomListener} parses them itself
+     */
     @Bean
-    public ConsumerFactory<String, String> nomRessursConsumer(KafkaProperties kafkaProperties, MeterRegistry meterRegistry) {
-        var consumerFactory = new DefaultKafkaConsumerFactory<String, String>(kafkaProperties.buildConsumerProperties());
+    public ConsumerFactory<String, byte[]> nomRessursConsumer(KafkaProperties kafkaProperties, MeterRegistry meterRegistry) {
+        var consumerFactory = new DefaultKafkaConsumerFactory<>(kafkaProperties.buildConsumerProperties(), new StringDeserializer(), new ByteArrayDeserializer());
         consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
 
         return consumerFactory;
     }
 
+    /**
+     * One consumer per partition up to the concurrency, each processing its own batches, see {@link NomListener}
+     */
     @Bean
-    public KafkaMessageListenerContainer<String, String> nomRessursContainer(
-            ConsumerFactory<String, String> consumerFactory, NomClient nomClient) {
+    public ConcurrentMessageListenerContainer<String, byte[]> nomRessursContainer(
+            ConsumerFactory<String, byte[]> consumerFactory, NomClient nomClient) {
         var containerProps = new ContainerProperties(topic);
         containerProps.setMessageListener(new NomListener(nomClient));
         containerProps.setAckMode(AckMode.MANUAL);
         containerProps.setPollTimeout(500);
 
-        var container = new KafkaMessageListenerContainer<>(consumerFactory, containerProps);
+        var container = new ConcurrentMessageListenerContainer<>(consumerFactory, containerProps);
+        container.setConcurrency(concurrency);
         container.setBatchErrorHandler(new KafkaErrorHandler());
         container.getContainerProperties().setAuthorizationExceptionRetryInterval(Duration.ofMinutes(5));
 
@@ -0,0 +1,85 @@
+package no.nav.data.common.rest;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.utils.StreamUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * A page of a list ordered by id, the next page starts after the id in the cursor, so pages do not shift when items are added or removed
+ */
+@Getter
+@AllArgsConstructor
+@JsonPropertyOrder({"numberOfElements", "totalElements", "nextCursor", "content"})
+public class CursorPage<T> {
+
+    public static final int DEFAULT_LIMIT = 100;
+    public static final int MAX_LIMIT = 1000;
+
+    private final long numberOfElements;
+    private final long totalElements;
+    @Parameter(description = "Cursor of the next page, null on the last page")
+    private final String nextCursor;
+    private final List<T> content;
+
+    public CursorPage() {
+        this(0, 0, null, List.of());
+    }
+
+    /**
+     * Only the items on the page are converted
+     *
+     * @param cursor of the previous page, null for the first page
+     * @param limit  max items on the page, null for the default
+     */
+    public static <T, R> CursorPage<R> of(List<T> items, Function<T, UUID> id, String cursor, Integer limit, Function<T, R> converter) {
+        int size = limit == null ? DEFAULT_LIMIT : limit;
+        if (size < 1 || size > MAX_LIMIT) {
+            throw new ValidationException("limit must be between 1 and " + MAX_LIMIT);
+        }
+        var sorted = items.stream().sorted(Comparator.comparing(id)).toList();
+        int from = cursor == null ? 0 : after(sorted, id, decode(cursor));
+        int to = Math.min(from + size, sorted.size());
+        var content = StreamUtils.convert(sorted.subList(from, to), converter);
+        var next = to < sorted.size() ? encode(id.apply(sorted.get(to - 1))) : null;
+        return new CursorPage<>(content.size(), sorted.size(), next, content);
+    }
+
+    /**
+     * Index of the first item with an id after the id
+     */
+    private static <T> int after(List<T> sorted, Function<T, UUID> id, UUID after) {
+        int low = 0;
+        int high = sorted.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (id.apply(sorted.get(mid)).compareTo(after) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    static String encode(UUID id) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(id.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    static UUID decode(String cursor) {
+        try {
+            return UUID.fromString(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8));
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("invalid cursor " + cursor);
+        }
+    }
+}
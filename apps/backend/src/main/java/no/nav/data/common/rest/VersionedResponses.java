@@ -0,0 +1,92 @@
+package no.nav.data.common.rest;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.prometheus.client.Counter;
+import no.nav.data.common.exceptions.TechnicalException;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.common.utils.MetricUtils;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.function.Supplier;
+import javax.servlet.http.HttpServletRequest;
+
+/**
+ * Json responses of read endpoints serialized once per version of the data they are read from, by path and query.
+ * A request with the ETag of the response in If-None-Match is answered with 304 Not Modified from memory, without reading or serializing the data,
+ * until the version changes.
+ * <p>
+ * The ETag is a hash of the serialized bytes, not the version, so nodes holding the same data in another order never give one ETag to different bytes.
+ */
+@Component
+public class VersionedResponses {
+
+    private static final long MAX_BYTES = 64L * 1024 * 1024;
+    private static final Counter counter = MetricUtils.counter()
+            .labels("hit").labels("miss").labels("not_modified")
+            .labelNames("outcome")
+            .name("versioned_response_counter").help("Versioned read responses by outcome").register();
+
+    private final Cache<String, Memo> memos = MetricUtils.register("versionedResponseCache", Caffeine.newBuilder().recordStats()
+            .maximumWeight(MAX_BYTES)
+            .weigher((String key, Memo memo) -> memo.bytes().length)
+            .build());
+
+    /**
+     * Read the version before the data, the body is only read and serialized if there is no response for the version
+     *
+     * @param version of the data the body is read from, compared by equals
+     */
+    public ResponseEntity<byte[]> respond(WebRequest request, Object version, Supplier<?> body) {
+        var key = key(request);
+        var memo = memos.getIfPresent(key);
+        if (memo != null && memo.version().equals(version)) {
+            counter.labels("hit").inc();
+        } else {
+            counter.labels("miss").inc();
+            memo = Memo.of(version, serialize(body.get()));
+            memos.put(key, memo);
+        }
+        if (request.checkNotModified(memo.etag())) {
+            counter.labels("not_modified").inc();
+            // status and ETag are set on the response
+            return null;
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(memo.etag())
+                .cacheControl(CacheControl.noCache())
+                .body(memo.bytes());
+    }
+
+    private static String key(WebRequest request) {
+        var servletRequest = ((NativeWebRequest) request).getNativeRequest(HttpServletRequest.class);
+        if (servletRequest == null) {
+            return request.getDescription(false);
+        }
+        var query = servletRequest.getQueryString();
+        return query == null ? servletRequest.getRequestURI() : servletRequest.getRequestURI() + "?" + query;
+    }
+
+    private static byte[] serialize(Object body) {
+        try {
+            return JsonUtils.getObjectMapper().writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new TechnicalException("failed to serialize response", e);
+        }
+    }
+
+    private record Memo(Object version, String etag, byte[] bytes) {
+
+        static Memo of(Object version, byte[] bytes) {
+            return new Memo(version, "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"", bytes);
+        }
+    }
+}
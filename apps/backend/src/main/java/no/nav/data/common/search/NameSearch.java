@@ -0,0 +1,157 @@
+package no.nav.data.common.search;
+
+import lombok.SneakyThrows;
+import org.apache.commons.codec.language.DoubleMetaphone;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.WhitespaceTokenizer;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
+import org.apache.lucene.analysis.phonetic.DoubleMetaphoneFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.search.MultiPhraseQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+
+import java.util.HashMap;
+
+import static org.apache.lucene.queryparser.classic.QueryParserBase.escape;
+
+/**
+ * Name fields and analyzers shared by the lucene indexes, so documents from different indexes can be searched together with one query.
+ * Documents are keyed by type and id, both kept as doc values to read hits without stored fields.
+ */
+public final class NameSearch {
+
+    public static final String FIELD_TYPE = "type";
+    public static final String FIELD_ID = "id";
+    public static final String FIELD_NAME_VERBATIM = "name_verbatim";
+    public static final String FIELD_NAME_NGRAMS = "name_ngrams";
+    public static final String FIELD_NAME_PHONETIC = "name_phonetic";
+
+    private static final Analyzer analyzer;
+
+    static {
+        var analyzerPerField = new HashMap<String, Analyzer>();
+        analyzerPerField.put(FIELD_NAME_NGRAMS, createNGramAnalyzer());
+        analyzerPerField.put(FIELD_NAME_PHONETIC, createMetaphoneAnalyzer());
+        analyzer = new PerFieldAnalyzerWrapper(createSimpleIgnoreCaseAnalyzer(), analyzerPerField);
+    }
+
+    private NameSearch() {
+    }
+
+    public static Analyzer getAnalyzer() {
+        return analyzer;
+    }
+
+    public static Document createDocument(String type, String id, String name) {
+        Document doc = new Document();
+        doc.add(new TextField(FIELD_NAME_VERBATIM, name, Store.NO));
+        doc.add(new TextField(FIELD_NAME_NGRAMS, name, Store.NO));
+        doc.add(new TextField(FIELD_NAME_PHONETIC, name, Store.NO));
+
+        doc.add(new StringField(FIELD_TYPE, type, Store.NO));
+        doc.add(new SortedDocValuesField(FIELD_TYPE, new BytesRef(type)));
+        doc.add(new StringField(FIELD_ID, id, Store.NO));
+        doc.add(new SortedDocValuesField(FIELD_ID, new BytesRef(id)));
+        return doc;
+    }
+
+    public static Term idTerm(String id) {
+        return new Term(FIELD_ID, id);
+    }
+
+    /**
+     * Phrases of the words in each name field, and a low boosted match of any word
+     */
+    public static Query createQuery(String searchString) {
+        var phrasePhoneticQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
+        var phraseNgramQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
+        var phraseVerbatimQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
+
+        var booleanPhoneticQryBuilder = new BooleanQuery.Builder();
+        var booleanNgramQryBuilder = new BooleanQuery.Builder();
+        var booleanVerbatimQryBuilder = new BooleanQuery.Builder();
+
+        var esc = escape(searchString.toLowerCase().replace("-", " ")).trim();
+        var splitString = esc.split(" +");
+        var doubleMetaphoneEncoder = new DoubleMetaphone();
+
+        for (var s : splitString) {
+            var sMetaphone = doubleMetaphoneEncoder.doubleMetaphone(s);
+
+            phrasePhoneticQryBuilder.add(new Term(FIELD_NAME_PHONETIC, sMetaphone));
+            phraseNgramQryBuilder.add(new Term(FIELD_NAME_NGRAMS, s));
+            phraseVerbatimQryBuilder.add(new Term(FIELD_NAME_VERBATIM, s));
+
+            booleanPhoneticQryBuilder.add(new TermQuery(new Term(FIELD_NAME_PHONETIC, sMetaphone)), BooleanClause.Occur.SHOULD);
+            booleanNgramQryBuilder.add(new TermQuery(new Term(FIELD_NAME_NGRAMS, s)), BooleanClause.Occur.SHOULD);
+            booleanVerbatimQryBuilder.add(new TermQuery(new Term(FIELD_NAME_VERBATIM, s)), BooleanClause.Occur.SHOULD);
+        }
+
+        var overallBooleanQueryBuilder = new BooleanQuery.Builder()
+                .add(booleanPhoneticQryBuilder.build(), BooleanClause.Occur.SHOULD)
+                .add(booleanNgramQryBuilder.build(), BooleanClause.Occur.SHOULD)
+                .add(booleanVerbatimQryBuilder.build(), BooleanClause.Occur.SHOULD);
+
+        return new BooleanQuery.Builder()
+                .add(phrasePhoneticQryBuilder.build(), BooleanClause.Occur.SHOULD)
+                .add(phraseNgramQryBuilder.build(), BooleanClause.Occur.SHOULD)
+                .add(phraseVerbatimQryBuilder.build(), BooleanClause.Occur.SHOULD)
+                .add(new BoostQuery(overallBooleanQueryBuilder.build(), 0.05f), BooleanClause.Occur.SHOULD)
+                .build();
+    }
+
+    @SneakyThrows
+    private static Analyzer createNGramAnalyzer(){
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream result = new LowerCaseFilter(source);
+                result = new EdgeNGramTokenFilter(result ,3,40,false);
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+
+    @SneakyThrows
+    private static Analyzer createMetaphoneAnalyzer(){
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new StandardTokenizer();
+                TokenStream result = new LowerCaseFilter(source);
+                result = new DoubleMetaphoneFilter(result ,10,false);
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+
+    @SneakyThrows
+    private static Analyzer createSimpleIgnoreCaseAnalyzer(){
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new WhitespaceTokenizer();
+                TokenStream result = new LowerCaseFilter(source);
+                result = new ASCIIFoldingFilter(result);
+                return new TokenStreamComponents(source, result);
+            }
+        };
+    }
+}
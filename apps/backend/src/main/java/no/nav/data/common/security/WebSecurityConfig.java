@@ -53,6 +53,7 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
                 "/locationTwo/**",
                 "/member/**",
                 "/tag/**",
+                "/search/**",
                 "/contactaddress/**",
                 "/dash/**",
                 "/settings/**",
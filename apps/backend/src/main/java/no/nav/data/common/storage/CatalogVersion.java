@@ -0,0 +1,169 @@
+package no.nav.data.common.storage;
+
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.storage.domain.StorageEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
+
+/**
+ * Versions of the types in the catalog, from the catalog_version table. Statement triggers on generic_storage and resource add a row
+ * once per transaction for each type it writes, and the version of a type is the number of committed transactions that wrote it.
+ * Versions are the same on all nodes for the same commits, and the version of a set of types, the sum of theirs,
+ * grows with every commit writing one of them, in whatever order the commits become visible.
+ * <p>
+ * Held in memory and reloaded after writes committed on this node, on changes from the other nodes, and regularly for the types
+ * the other nodes do not notify of, such as resources from NOM. Read the version before reading the data it covers,
+ * so data tagged with a version is never older than the version.
+ * <p>
+ * Data held in memory on this node, such as the catalog snapshot and the caches of {@link InvalidationBus}, gets a change when this node applies it,
+ * which can be after the version including it is loaded, so the changes applied on this node are counted as well, see {@link #getApplied(Collection)}.
+ */
+@Slf4j
+@Component
+public class CatalogVersion {
+
+    public static final String RESOURCE = "Resource";
+    private static final int MAX_ROWS = 1000;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    private volatile Map<String, Long> versions;
+    private final Map<String, AtomicLong> applied = new ConcurrentHashMap<>();
+    private final AtomicLong resets = new AtomicLong();
+
+    public CatalogVersion(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * The version of the types together, types never written are version 0
+     */
+    @SafeVarargs
+    public final long get(Class<? extends DomainObject>... types) {
+        var current = getVersions();
+        long version = 0;
+        for (Class<? extends DomainObject> type : types) {
+            version += current.getOrDefault(typeOf(type), 0L);
+        }
+        return version;
+    }
+
+    /**
+     * The version of the types together, by type name
+     */
+    public long get(Collection<String> types) {
+        var current = getVersions();
+        long version = 0;
+        for (String type : types) {
+            version += current.getOrDefault(type, 0L);
+        }
+        return version;
+    }
+
+    /**
+     * The version of the whole catalog
+     */
+    public long get() {
+        return getVersions().values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    /**
+     * The number of changes of the types this node has applied, only comparable on this node.
+     * Add it to the version for data held in memory, the sum changes once the data does and never goes back.
+     */
+    public long getApplied(Collection<String> types) {
+        long count = resets.get();
+        for (String type : types) {
+            var typeApplied = applied.get(type);
+            count += typeApplied == null ? 0 : typeApplied.get();
+        }
+        return count;
+    }
+
+    /**
+     * Runs after the other listeners, which apply the change to the data held in memory
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStorageEvent(StorageEvent event) {
+        refresh();
+        applied.computeIfAbsent(event.type(), type -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Runs after the other listeners, which apply the change to the data held in memory
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public void onStorageChange(StorageChange change) {
+        refresh();
+        if (change.isReset()) {
+            resets.incrementAndGet();
+        } else {
+            applied.computeIfAbsent(change.type(), type -> new AtomicLong()).incrementAndGet();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${team-catalog.catalog-version.refresh:PT10S}", fixedDelayString = "${team-catalog.catalog-version.refresh:PT10S}")
+    public synchronized void refresh() {
+        try {
+            versions = load();
+        } catch (RuntimeException e) {
+            // versions may have changed, load on next use rather than hand out an old version
+            versions = null;
+            log.warn("failed to load catalog versions", e);
+        }
+    }
+
+    private Map<String, Long> getVersions() {
+        var current = versions;
+        return current != null ? current : loadIfMissing();
+    }
+
+    private synchronized Map<String, Long> loadIfMissing() {
+        if (versions == null) {
+            versions = load();
+        }
+        return versions;
+    }
+
+    private Map<String, Long> load() {
+        var loaded = new HashMap<String, Long>();
+        var rows = new AtomicLong();
+        jdbcTemplate.query("select type, sum(version) as version, count(*) as rows from catalog_version group by type", Map.of(), rs -> {
+            loaded.put(rs.getString("type"), rs.getLong("version"));
+            rows.addAndGet(rs.getLong("rows"));
+        });
+        if (rows.get() > MAX_ROWS) {
+            compact();
+        }
+        return Map.copyOf(loaded);
+    }
+
+    /**
+     * Replace the committed rows of each type by one row with their sum, leaving the versions as they are.
+     * Rows of transactions not yet committed are not seen and kept, and nodes compacting at once each replace the rows they deleted.
+     */
+    private void compact() {
+        jdbcTemplate.update("""
+                with removed as (delete from catalog_version returning type, version)
+                insert into catalog_version (type, version)
+                select type, sum(version) from removed group by type
+                """, Map.of());
+    }
+}
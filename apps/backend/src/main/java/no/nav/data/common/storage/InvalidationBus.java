@@ -0,0 +1,82 @@
+package no.nav.data.common.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.storage.domain.StorageEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
+
+/**
+ * Evicts registered caches when rows of their type are written, on this node from committed {@link StorageEvent}s
+ * and on the other nodes from {@link StorageChange}s, so caches over generic_storage can live for hours.
+ * <p>
+ * Only types sent by the generic_storage_notify trigger reach the other nodes, add the type there when registering a new one.
+ */
+@Slf4j
+@Component
+public class InvalidationBus {
+
+    private final List<Registration> registrations = new CopyOnWriteArrayList<>();
+
+    /**
+     * Evict the key of each change, or all entries if the change has no key
+     */
+    public <K> void evictOnChange(Class<? extends DomainObject> type, Cache<K, ?> cache, Function<StorageChange, K> key) {
+        registrations.add(new Registration(typeOf(type), change -> {
+            var k = key.apply(change);
+            if (k == null) {
+                cache.invalidateAll();
+            } else {
+                cache.invalidate(k);
+            }
+        }, cache::invalidateAll));
+    }
+
+    public void evictAllOnChange(Class<? extends DomainObject> type, Cache<?, ?> cache) {
+        registrations.add(new Registration(typeOf(type), change -> cache.invalidateAll(), cache::invalidateAll));
+    }
+
+    /**
+     * Runs before {@link CatalogVersion} counts the change as applied
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    public void onStorageEvent(StorageEvent event) {
+        onStorageChange(StorageChange.of(event));
+    }
+
+    /**
+     * Runs before {@link CatalogVersion} counts the change as applied
+     */
+    @EventListener
+    @Order(Ordered.LOWEST_PRECEDENCE - 1)
+    public void onStorageChange(StorageChange change) {
+        for (Registration registration : registrations) {
+            try {
+                if (change.isReset()) {
+                    registration.evictAll().run();
+                } else if (registration.type().equals(change.type())) {
+                    registration.evict().accept(change);
+                }
+            } catch (RuntimeException e) {
+                log.error("failed to evict " + registration.type() + " on " + change, e);
+            }
+        }
+    }
+
+    private record Registration(String type, Consumer<StorageChange> evict, Runnable evictAll) {
+
+    }
+}
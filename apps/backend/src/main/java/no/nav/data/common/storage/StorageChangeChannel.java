@@ -0,0 +1,155 @@
+package no.nav.data.common.storage;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.jpa.DatasourceConfig;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.utils.JsonUtils;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.Properties;
+import javax.annotation.PreDestroy;
+
+/**
+ * Publishes committed generic_storage writes made by the other nodes as {@link StorageChange} events.
+ * <p>
+ * The notifications are sent by the generic_storage_notify trigger, so every write is seen, including bulk and native updates.
+ * Writes made by this node are skipped by the application name of the connection, these are published locally as StorageEvents.
+ * <p>
+ * Runs on its own thread with a dedicated connection outside the pool, as the pool is small and a listening connection is never given back.
+ * The connection is replaced regularly to pick up rotated credentials, listening on the new one before the old one is closed so nothing is missed.
+ * When the connection has been lost notifications may have been missed, and a {@link StorageChange#reset()} is published after reconnecting.
+ */
+@Slf4j
+@Component
+public class StorageChangeChannel {
+
+    static final String CHANNEL = "storage_change";
+    private static final Duration POLL_TIMEOUT = Duration.ofMillis(500);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_CONNECTION_AGE = Duration.ofMinutes(5);
+
+    private final HikariDataSource dataSource;
+    private final ApplicationEventPublisher publisher;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public StorageChangeChannel(HikariDataSource dataSource, ApplicationEventPublisher publisher) {
+        this.dataSource = dataSource;
+        this.publisher = publisher;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        running = true;
+        thread = new Thread(this::run, "storage-change-channel");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        if (thread != null) {
+            thread.join(RECONNECT_DELAY.toMillis());
+        }
+    }
+
+    private void run() {
+        Connection connection = null;
+        long connectedAt = 0;
+        boolean connectedBefore = false;
+        while (running) {
+            try {
+                if (connection == null) {
+                    connection = connect();
+                    connectedAt = System.nanoTime();
+                    if (connectedBefore) {
+                        log.info("reconnected to {}, publishing reset", CHANNEL);
+                        publisher.publishEvent(StorageChange.reset());
+                    }
+                    connectedBefore = true;
+                } else if (System.nanoTime() - connectedAt > MAX_CONNECTION_AGE.toNanos()) {
+                    var replacement = connect();
+                    receive(connection.unwrap(PGConnection.class).getNotifications());
+                    close(connection);
+                    connection = replacement;
+                    connectedAt = System.nanoTime();
+                }
+                receive(connection.unwrap(PGConnection.class).getNotifications((int) POLL_TIMEOUT.toMillis()));
+            } catch (SQLException e) {
+                log.warn("lost connection to " + CHANNEL + ", reconnecting", e);
+                close(connection);
+                connection = null;
+                sleep();
+            } catch (RuntimeException e) {
+                log.error("failed to listen to " + CHANNEL, e);
+                sleep();
+            }
+        }
+        close(connection);
+    }
+
+    private Connection connect() throws SQLException {
+        var properties = new Properties();
+        properties.setProperty("user", dataSource.getUsername());
+        properties.setProperty("password", dataSource.getPassword());
+        properties.setProperty("ApplicationName", DatasourceConfig.NODE_NAME);
+        var connection = DriverManager.getConnection(dataSource.getJdbcUrl(), properties);
+        try (var statement = connection.createStatement()) {
+            statement.execute("listen " + CHANNEL);
+        } catch (SQLException e) {
+            close(connection);
+            throw e;
+        }
+        return connection;
+    }
+
+    private void receive(PGNotification[] notifications) {
+        if (notifications != null) {
+            for (PGNotification notification : notifications) {
+                receive(notification.getParameter());
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            var change = JsonUtils.toObject(payload, StorageChange.class);
+            if (!DatasourceConfig.NODE_NAME.equals(change.node())) {
+                publisher.publishEvent(change);
+            }
+        } catch (RuntimeException e) {
+            log.error("failed to handle " + CHANNEL + " notification " + payload, e);
+        }
+    }
+
+    private static void close(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException e) {
+            log.debug("failed to close " + CHANNEL + " connection", e);
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(RECONNECT_DELAY.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -11,7 +11,6 @@ import no.nav.data.common.utils.JsonUtils;
 import no.nav.data.common.utils.StreamUtils;
 import no.nav.data.team.cluster.domain.Cluster;
 import no.nav.data.team.po.domain.ProductArea;
-import no.nav.data.team.resource.domain.Resource;
 import no.nav.data.team.team.domain.Team;
 import org.hibernate.annotations.Type;
 import org.springframework.util.Assert;
@@ -87,10 +86,6 @@ public class GenericStorage extends Auditable {
         return getDomainObjectData(Cluster.class);
     }
 
-    public Resource toResource() {
-        return getDomainObjectData(Resource.class);
-    }
-
     public MailLog toMailLog() {
         return getDomainObjectData(MailLog.class);
     }
@@ -0,0 +1,39 @@
+package no.nav.data.common.storage.domain;
+
+import no.nav.data.common.auditing.domain.Action;
+
+import java.util.UUID;
+
+/**
+ * A committed write to generic_storage, sent by the generic_storage_notify trigger and received through {@link no.nav.data.common.storage.StorageChangeChannel}.
+ * <p>
+ * Node is the application name of the connection that made the write, ident is set for types keyed by ident.
+ * A reset means notifications may have been lost, and anything held in memory should be reloaded.
+ */
+public record StorageChange(String node, String type, UUID id, Action action, String ident) {
+
+    public static StorageChange reset() {
+        return new StorageChange(null, null, null, null, null);
+    }
+
+    /**
+     * The same change as seen on the node that made it
+     */
+    public static StorageChange of(StorageEvent event) {
+        var data = event.storage().getData();
+        var ident = data == null || !data.hasNonNull("ident") ? null : data.get("ident").asText();
+        return new StorageChange(null, event.type(), event.id(), event.action(), ident);
+    }
+
+    public boolean isReset() {
+        return type == null;
+    }
+
+    public boolean isType(Class<? extends DomainObject> type) {
+        return TypeRegistration.typeOf(type).equals(this.type);
+    }
+
+    public boolean isDelete() {
+        return action == Action.DELETE;
+    }
+}
@@ -0,0 +1,33 @@
+package no.nav.data.common.storage.domain;
+
+import no.nav.data.common.auditing.domain.Action;
+
+import java.util.UUID;
+
+/**
+ * Published for every create, update and delete of an audited {@link GenericStorage} row.
+ * <p>
+ * Listen with {@code @TransactionalEventListener} to only see changes that were committed.
+ */
+public record StorageEvent(Action action, GenericStorage storage) {
+
+    public UUID id() {
+        return storage.getId();
+    }
+
+    public String type() {
+        return storage.getType();
+    }
+
+    public boolean isType(Class<? extends DomainObject> type) {
+        return TypeRegistration.typeOf(type).equals(storage.getType());
+    }
+
+    public boolean isDelete() {
+        return action == Action.DELETE;
+    }
+
+    public <T extends DomainObject> T getDomainObject(Class<T> type) {
+        return storage.getDomainObjectData(type);
+    }
+}
@@ -1,15 +1,19 @@
 package no.nav.data.team.cluster;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.exceptions.ValidationException;
 import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.rest.VersionedResponses;
 import no.nav.data.common.utils.StreamUtils;
 import no.nav.data.team.cluster.domain.Cluster;
 import no.nav.data.team.cluster.dto.ClusterRequest;
 import no.nav.data.team.cluster.dto.ClusterResponse;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -22,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -36,28 +41,35 @@ import static no.nav.data.common.utils.StreamUtils.convert;
 public class ClusterController {
 
     private final ClusterService service;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final VersionedResponses versionedResponses;
 
-    public ClusterController(ClusterService service) {
+    public ClusterController(ClusterService service, CatalogSnapshotService catalogSnapshotService, VersionedResponses versionedResponses) {
         this.service = service;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.versionedResponses = versionedResponses;
     }
 
     @Operation(summary = "Get All Clusters")
-    @ApiResponse(description = "ok")
+    @ApiResponse(description = "ok", content = @Content(schema = @Schema(implementation = ClusterPageResponse.class)))
     @GetMapping
-    public ResponseEntity<RestResponsePage<ClusterResponse>> getAll(
+    public ResponseEntity<byte[]> getAll(
+            WebRequest request,
             @RequestParam(name = "status", required = false, defaultValue = "ACTIVE,PLANNED,INACTIVE") String stringStatus
-
     ) {
         log.info("Get all Clusters");
+        var version = catalogSnapshotService.getVersion(CatalogSnapshotService.RESPONSE_VERSION_TYPES);
+        return versionedResponses.respond(request, version, () -> getAll(stringStatus));
+    }
 
+    private RestResponsePage<ClusterResponse> getAll(String stringStatus) {
         var cluster = service.getAll();
 
         var queryStatusList = DomainObjectStatus.fromQueryParameter(stringStatus);
 
         cluster = cluster.stream().filter(t -> queryStatusList.contains(t.getStatus())).toList();
 
-
-        return ResponseEntity.ok(new RestResponsePage<>(StreamUtils.convert(cluster, Cluster::convertToResponse)));
+        return new RestResponsePage<>(StreamUtils.convert(cluster, Cluster::convertToResponse));
     }
 
     @Operation(summary = "Get Cluster")
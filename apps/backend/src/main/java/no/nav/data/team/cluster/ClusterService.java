@@ -1,6 +1,7 @@
 package no.nav.data.team.cluster;
 
 import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.NotFoundException;
 import no.nav.data.common.exceptions.ValidationException;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.GenericStorage;
@@ -8,6 +9,7 @@ import no.nav.data.common.validator.Validator;
 import no.nav.data.team.cluster.domain.Cluster;
 import no.nav.data.team.cluster.dto.ClusterRequest;
 import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import no.nav.data.team.team.TeamRepository;
 import no.nav.data.team.team.domain.Team;
@@ -27,11 +29,13 @@ public class ClusterService {
     private final StorageService storage;
     private final TeamRepository teamRepository;
     private final ClusterRepository repository;
+    private final CatalogSnapshotService catalog;
 
-    public ClusterService(StorageService storage, TeamRepository teamRepository, ClusterRepository repository) {
+    public ClusterService(StorageService storage, TeamRepository teamRepository, ClusterRepository repository, CatalogSnapshotService catalog) {
         this.storage = storage;
         this.teamRepository = teamRepository;
         this.repository = repository;
+        this.catalog = catalog;
     }
 
     public Cluster save(ClusterRequest request) {
@@ -51,7 +55,7 @@ public class ClusterService {
     }
 
     public Cluster get(UUID id) {
-        return storage.get(id, Cluster.class);
+        return catalog.get().cluster(id).orElseThrow(() -> new NotFoundException("Couldn't find Cluster with id " + id));
     }
 
     public List<Cluster> search(String name) {
@@ -71,7 +75,7 @@ public class ClusterService {
     }
 
     public List<Cluster> getAll() {
-        return storage.getAll(Cluster.class);
+        return catalog.get().clusters();
     }
 
     public List<Cluster> getAllActive() {
@@ -0,0 +1,133 @@
+package no.nav.data.team.dashboard;
+
+import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.dashboard.dto.DashHistoryResponse;
+import no.nav.data.team.dashboard.dto.DashHistoryResponse.Granularity;
+import no.nav.data.team.dashboard.dto.DashResponse;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static no.nav.data.common.utils.MetricUtils.DB_QUERY_TIMED;
+import static no.nav.data.common.utils.MetricUtils.QUERY;
+
+/**
+ * Dashboard snapshots, the headline counts are stored as columns for history queries.
+ * The full response is only kept gzipped on the latest snapshot, older rows are just the counts.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DashSnapshotRepository {
+
+    private static final String COLUMNS = """
+            teams_count, teams_count_planned, teams_count_inactive,
+            product_areas_count, product_areas_count_planned, product_areas_count_inactive,
+            cluster_count, cluster_count_planned, cluster_count_inactive,
+            resources, unique_resources, unique_resources_external, total_resources
+            """;
+
+    private final NamedParameterJdbcTemplate template;
+
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "DashSnapshotRepository.save"}, percentiles = {.99, .75, .50})
+    public void save(LocalDateTime time, DashResponse dash) {
+        var total = dash.getTotal();
+        var params = new MapSqlParameterSource()
+                .addValue("time", time.truncatedTo(ChronoUnit.MINUTES))
+                .addValue("teamsCount", dash.getTeamsCount())
+                .addValue("teamsCountPlanned", dash.getTeamsCountPlanned())
+                .addValue("teamsCountInactive", dash.getTeamsCountInactive())
+                .addValue("productAreasCount", dash.getProductAreasCount())
+                .addValue("productAreasCountPlanned", dash.getProductAreasCountPlanned())
+                .addValue("productAreasCountInactive", dash.getProductAreasCountInactive())
+                .addValue("clusterCount", dash.getClusterCount())
+                .addValue("clusterCountPlanned", dash.getClusterCountPlanned())
+                .addValue("clusterCountInactive", dash.getClusterCountInactive())
+                .addValue("resources", dash.getResources())
+                .addValue("uniqueResources", total == null ? 0 : total.getUniqueResources())
+                .addValue("uniqueResourcesExternal", total == null ? 0 : total.getUniqueResourcesExternal())
+                .addValue("totalResources", total == null ? 0 : total.getTotalResources())
+                .addValue("data", gzip(dash));
+        template.update("insert into dash_snapshot (time, " + COLUMNS + ", data) values (:time, "
+                        + ":teamsCount, :teamsCountPlanned, :teamsCountInactive, "
+                        + ":productAreasCount, :productAreasCountPlanned, :productAreasCountInactive, "
+                        + ":clusterCount, :clusterCountPlanned, :clusterCountInactive, "
+                        + ":resources, :uniqueResources, :uniqueResourcesExternal, :totalResources, :data) "
+                        + "on conflict (time) do nothing",
+                params);
+        template.update("update dash_snapshot set data = null where time < :time and data is not null", params);
+    }
+
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "DashSnapshotRepository.findLatest"}, percentiles = {.99, .75, .50})
+    public Optional<DashResponse> findLatest() {
+        var data = template.query("select data from dash_snapshot where data is not null order by time desc limit 1", Map.of(),
+                (rs, rowNum) -> rs.getBytes("data"));
+        return data.stream().findFirst().map(DashSnapshotRepository::gunzip);
+    }
+
+    /**
+     * Last snapshot in each period between from (inclusive) and to (exclusive)
+     */
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "DashSnapshotRepository.findHistory"}, percentiles = {.99, .75, .50})
+    public List<DashHistoryResponse> findHistory(LocalDateTime from, LocalDateTime to, Granularity granularity) {
+        var params = new MapSqlParameterSource()
+                .addValue("from", from)
+                .addValue("to", to)
+                .addValue("granularity", granularity.name().toLowerCase());
+        // each named parameter is bound separately, so the period is computed once for distinct on and order by to match
+        return template.query("select distinct on (period) period, " + COLUMNS
+                        + "from (select date_trunc(:granularity, time) as period, time, " + COLUMNS
+                        + "from dash_snapshot where time >= :from and time < :to) snapshots "
+                        + "order by period, time desc",
+                params, (rs, rowNum) -> toHistory(rs));
+    }
+
+    private static DashHistoryResponse toHistory(ResultSet rs) throws SQLException {
+        return DashHistoryResponse.builder()
+                .time(rs.getTimestamp("period").toLocalDateTime())
+                .teamsCount(rs.getLong("teams_count"))
+                .teamsCountPlanned(rs.getLong("teams_count_planned"))
+                .teamsCountInactive(rs.getLong("teams_count_inactive"))
+                .productAreasCount(rs.getLong("product_areas_count"))
+                .productAreasCountPlanned(rs.getLong("product_areas_count_planned"))
+                .productAreasCountInactive(rs.getLong("product_areas_count_inactive"))
+                .clusterCount(rs.getLong("cluster_count"))
+                .clusterCountPlanned(rs.getLong("cluster_count_planned"))
+                .clusterCountInactive(rs.getLong("cluster_count_inactive"))
+                .resources(rs.getLong("resources"))
+                .uniqueResources(rs.getLong("unique_resources"))
+                .uniqueResourcesExternal(rs.getLong("unique_resources_external"))
+                .totalResources(rs.getLong("total_resources"))
+                .build();
+    }
+
+    @SneakyThrows
+    private static byte[] gzip(DashResponse dash) {
+        var bytes = new ByteArrayOutputStream();
+        try (var out = new GZIPOutputStream(bytes)) {
+            JsonUtils.getObjectMapper().writeValue(out, dash);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SneakyThrows
+    private static DashResponse gunzip(byte[] data) {
+        try (var in = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return JsonUtils.getObjectMapper().readValue(in, DashResponse.class);
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package no.nav.data.team.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.javacrumbs.shedlock.spring.annotation.SchedulerLock;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DashSnapshotScheduler {
+
+    private final DashboardAggregator dashboardAggregator;
+    private final DashSnapshotRepository snapshotRepository;
+
+    @Scheduled(cron = "0 5 * * * ?")
+    @SchedulerLock(name = "dashSnapshot")
+    public void snapshot() {
+        snapshotRepository.save(LocalDateTime.now(), dashboardAggregator.getDash());
+        log.info("saved dashboard snapshot");
+    }
+}
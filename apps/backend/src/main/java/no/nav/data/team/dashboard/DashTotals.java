@@ -0,0 +1,202 @@
+package no.nav.data.team.dashboard;
+
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.dashboard.dto.DashResponse.RoleCount;
+import no.nav.data.team.dashboard.dto.DashResponse.TeamOwnershipTypeCount;
+import no.nav.data.team.dashboard.dto.DashResponse.TeamSummary;
+import no.nav.data.team.dashboard.dto.DashResponse.TeamTypeCount;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.domain.ResourceType;
+import no.nav.data.team.shared.domain.Member;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.domain.TeamOwnershipType;
+import no.nav.data.team.team.domain.TeamRole;
+import no.nav.data.team.team.domain.TeamType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Function;
+
+import static no.nav.data.team.dashboard.DashboardCalculator.extPercentGroups;
+import static no.nav.data.team.dashboard.DashboardCalculator.groups;
+import static no.nav.data.team.dashboard.DashboardCalculator.isExternal;
+import static no.nav.data.team.dashboard.DashboardCalculator.percentExternalMembers;
+
+/**
+ * The total of the dashboard, as {@link DashboardCalculator#calcForTotal} computes it, kept as counts each active team, product area and cluster adds to.
+ * Putting an object subtracts what the previous version of it added, so a change costs the size of the object and not of the catalog.
+ * <p>
+ * The resource type of an ident must not change while it is counted, build new totals when the types are reloaded.
+ */
+class DashTotals {
+
+    private final Map<String, ResourceType> types;
+
+    private final Map<UUID, Team> teams = new HashMap<>();
+    private final Map<UUID, ProductArea> productAreas = new HashMap<>();
+    private final Map<UUID, Cluster> clusters = new HashMap<>();
+
+    private final Map<Integer, Long> sizeBuckets = new HashMap<>();
+    private final Map<Integer, Long> externalBuckets = new HashMap<>();
+    private final TreeMap<LocalDateTime, Long> lastModified = new TreeMap<>();
+    private final Map<TeamRole, Long> roles = new EnumMap<>(TeamRole.class);
+    private final Map<TeamOwnershipType, Long> teamOwnershipTypes = new EnumMap<>(TeamOwnershipType.class);
+    private final Map<TeamType, Long> teamTypes = new EnumMap<>(TeamType.class);
+    private final Map<String, Long> memberships = new HashMap<>();
+    private long totalResources;
+    private long uniqueResourcesExternal;
+
+    /**
+     * @param types of every ident of the objects put, not changed while counted
+     */
+    DashTotals(Map<String, ResourceType> types) {
+        this.types = types;
+    }
+
+    /**
+     * @return the previous version of the team, null if not counted
+     */
+    Team put(Team team) {
+        var previous = teams.put(team.getId(), team);
+        count(previous, -1);
+        count(team, 1);
+        return previous;
+    }
+
+    Team removeTeam(UUID id) {
+        var previous = teams.remove(id);
+        count(previous, -1);
+        return previous;
+    }
+
+    ProductArea put(ProductArea productArea) {
+        var previous = productAreas.put(productArea.getId(), productArea);
+        countMembers(previous == null ? null : previous.getMembers(), -1);
+        countMembers(productArea.getMembers(), 1);
+        return previous;
+    }
+
+    ProductArea removeProductArea(UUID id) {
+        var previous = productAreas.remove(id);
+        countMembers(previous == null ? null : previous.getMembers(), -1);
+        return previous;
+    }
+
+    Cluster put(Cluster cluster) {
+        var previous = clusters.put(cluster.getId(), cluster);
+        countMembers(previous == null ? null : previous.getMembers(), -1);
+        countMembers(cluster.getMembers(), 1);
+        return previous;
+    }
+
+    Cluster removeCluster(UUID id) {
+        var previous = clusters.remove(id);
+        countMembers(previous == null ? null : previous.getMembers(), -1);
+        return previous;
+    }
+
+    int teamCount() {
+        return teams.size();
+    }
+
+    int productAreaCount() {
+        return productAreas.size();
+    }
+
+    int clusterCount() {
+        return clusters.size();
+    }
+
+    TeamSummary summary() {
+        long editedLastWeek = lastModified.tailMap(LocalDateTime.now().minusDays(7), false).values().stream().mapToLong(Long::longValue).sum();
+        return TeamSummary.builder()
+                .teams(teams.size())
+                .teamsEditedLastWeek(editedLastWeek)
+
+                .teamEmpty(sizeBuckets.getOrDefault(0, 0L))
+                .teamUpTo5(sizeBuckets.getOrDefault(5, 0L))
+                .teamUpTo10(sizeBuckets.getOrDefault(10, 0L))
+                .teamUpTo20(sizeBuckets.getOrDefault(20, 0L))
+                .teamOver20(sizeBuckets.getOrDefault(Integer.MAX_VALUE, 0L))
+
+                .teamExternal0p(externalBuckets.getOrDefault(0, 0L))
+                .teamExternalUpto25p(externalBuckets.getOrDefault(25, 0L))
+                .teamExternalUpto50p(externalBuckets.getOrDefault(50, 0L))
+                .teamExternalUpto75p(externalBuckets.getOrDefault(75, 0L))
+                .teamExternalUpto100p(externalBuckets.getOrDefault(100, 0L))
+
+                .uniqueResources(memberships.size())
+                .uniqueResourcesExternal(uniqueResourcesExternal)
+                .totalResources(totalResources)
+
+                .roles(convert(roles, RoleCount::new))
+                .teamOwnershipTypes(sortedByCount(convert(teamOwnershipTypes, TeamOwnershipTypeCount::new), TeamOwnershipTypeCount::getCount))
+                .teamTypes(sortedByCount(convert(teamTypes, TeamTypeCount::new), TeamTypeCount::getCount))
+                .build();
+    }
+
+    private void count(Team team, int sign) {
+        if (team == null) {
+            return;
+        }
+        var members = team.getMembers();
+        add(sizeBuckets, groups.ceiling(members.size()), sign);
+        add(externalBuckets, extPercentGroups.ceiling(percentExternalMembers(team, types)), sign);
+        add(lastModified, team.getChangeStamp().getLastModifiedDate(), sign);
+        add(teamOwnershipTypes, team.getTeamOwnershipType() == null ? TeamOwnershipType.UNKNOWN : team.getTeamOwnershipType(), sign);
+        add(teamTypes, team.getTeamType() == null ? TeamType.UNKNOWN : team.getTeamType(), sign);
+        countMembers(members, sign);
+    }
+
+    private void countMembers(List<? extends Member> members, int sign) {
+        if (members == null) {
+            return;
+        }
+        for (Member member : members) {
+            member.getRoles().forEach(role -> add(roles, role, sign));
+            totalResources += sign;
+            var ident = member.getNavIdent();
+            var count = memberships.merge(ident, (long) sign, Long::sum);
+            if (count == 0) {
+                memberships.remove(ident);
+            }
+            // the ident was added or left the last object it is a member of
+            if ((sign > 0 && count == 1 || count == 0) && isExternal(ident, types)) {
+                uniqueResourcesExternal += sign;
+            }
+        }
+    }
+
+    private static <K> void add(Map<K, Long> counts, K key, int sign) {
+        if (counts.merge(key, (long) sign, Long::sum) == 0) {
+            counts.remove(key);
+        }
+    }
+
+    private static <K, R> List<R> convert(Map<K, Long> counts, CountFactory<K, R> factory) {
+        var converted = new ArrayList<R>(counts.size());
+        counts.forEach((key, count) -> converted.add(factory.create(key, count)));
+        return converted;
+    }
+
+    /**
+     * Stable, so equal counts keep the order of the enum
+     */
+    private static <R> List<R> sortedByCount(List<R> counts, Function<R, Long> count) {
+        counts.sort(Comparator.comparing(count));
+        return counts;
+    }
+
+    @FunctionalInterface
+    private interface CountFactory<K, R> {
+
+        R create(K key, long count);
+    }
+}
@@ -0,0 +1,505 @@
+package no.nav.data.team.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.common.storage.domain.GenericStorageRepository;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.storage.domain.StorageEvent;
+import no.nav.data.team.cluster.ClusterService;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.dashboard.dto.DashResponse;
+import no.nav.data.team.dashboard.dto.DashResponse.AreaSummary;
+import no.nav.data.team.dashboard.dto.DashResponse.ClusterSummary;
+import no.nav.data.team.dashboard.dto.DashResponse.LocationSummary;
+import no.nav.data.team.dashboard.dto.DashResponse.TeamSummary;
+import no.nav.data.team.dashboard.dto.DashResponse.TeamSummary2;
+import no.nav.data.team.po.ProductAreaService;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.NomClient;
+import no.nav.data.team.resource.domain.ResourceType;
+import no.nav.data.team.shared.domain.DomainObjectStatus;
+import no.nav.data.team.shared.domain.Member;
+import no.nav.data.team.shared.domain.RelationIndex;
+import no.nav.data.team.team.TeamService;
+import no.nav.data.team.team.domain.Team;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
+import static no.nav.data.common.utils.StreamUtils.copyOf;
+
+/**
+ * Keeps the dashboard up to date as teams, product areas and clusters are written, instead of recomputing all of it on a timer.
+ * <p>
+ * The objects are held in memory and patched from committed {@link StorageEvent}s. A change only marks the summaries it affects as dirty,
+ * these are recomputed on the next read, and a read with nothing dirty returns the last response as is.
+ * The total, the location rollup and the relations between the objects are kept as what each active object adds to them,
+ * and on the next read only the changed objects subtract their previous version and add the new one.
+ * Resource types are only looked up for idents not seen since the last full build.
+ * <p>
+ * Writes on other nodes arrive as {@link StorageChange}s, the changed row is read back from the database, and a reset reloads everything.
+ * Resource types can change in NOM without any write here, so everything is also rebuilt every ten minutes.
+ * <p>
+ * Until the first build after startup is done, reads are served from the latest persisted snapshot, see {@link DashSnapshotScheduler}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DashboardAggregator {
+
+    private static final List<String> TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class));
+
+    private final TeamService teamService;
+    private final ProductAreaService productAreaService;
+    private final ClusterService clusterService;
+    private final NomClient nomClient;
+    private final DashboardCalculator calculator;
+    private final GenericStorageRepository storageRepository;
+    private final DashSnapshotRepository snapshotRepository;
+
+    private final Map<UUID, Team> teams = new HashMap<>();
+    private final Map<UUID, ProductArea> productAreas = new HashMap<>();
+    private final Map<UUID, Cluster> clusters = new HashMap<>();
+
+    // sorted by id, so every node serializes the same dash to the same bytes
+    private final SortedMap<UUID, TeamSummary2> teamSummaries = new TreeMap<>();
+    private final SortedMap<UUID, AreaSummary> areaSummaries = new TreeMap<>();
+    private final SortedMap<UUID, TeamSummary> areaTeamSummaries = new TreeMap<>();
+    private final SortedMap<UUID, ClusterSummary> clusterSummaries = new TreeMap<>();
+    private final SortedMap<UUID, TeamSummary> clusterTeamSummaries = new TreeMap<>();
+    private Map<String, LocationSummary> locationSummaries = Map.of();
+
+    private final Map<DomainObjectStatus, Long> teamStatuses = new EnumMap<>(DomainObjectStatus.class);
+    private final Map<DomainObjectStatus, Long> areaStatuses = new EnumMap<>(DomainObjectStatus.class);
+    private final Map<DomainObjectStatus, Long> clusterStatuses = new EnumMap<>(DomainObjectStatus.class);
+
+    // active objects as last applied, see fold
+    private Map<String, ResourceType> types = new HashMap<>();
+    private final Set<String> typedIdents = new HashSet<>();
+    private DashTotals totals = new DashTotals(types);
+    private LocationRollup locations;
+    private final Map<UUID, Map<UUID, Team>> areaTeams = new HashMap<>();
+    private final Map<UUID, Map<UUID, Team>> clusterTeams = new HashMap<>();
+    private final Map<UUID, Map<UUID, Cluster>> areaClusters = new HashMap<>();
+
+    private final Set<UUID> dirtyTeams = new HashSet<>();
+    private final Set<UUID> dirtyAreas = new HashSet<>();
+    private final Set<UUID> dirtyClusters = new HashSet<>();
+    private boolean rebuild;
+    private volatile boolean loaded;
+    private final AtomicBoolean coldStart = new AtomicBoolean(true);
+    private volatile DashResponse coldDash;
+
+    private volatile boolean dirty = true;
+    private final AtomicLong version = new AtomicLong();
+    private volatile DashResponse dash;
+
+    /**
+     * Changes whenever the dash may change, read before {@link #getDash()} to tell if a dash built earlier is still current
+     */
+    public long getVersion() {
+        return version.get();
+    }
+
+    public DashResponse getDash() {
+        var current = dash;
+        if (!dirty && current != null) {
+            return current;
+        }
+        if (!loaded) {
+            var snapshot = fromSnapshot();
+            if (snapshot != null) {
+                return snapshot;
+            }
+        }
+        return build();
+    }
+
+    /**
+     * Recompute all summaries on next read, without reloading from the database
+     */
+    public synchronized void invalidate() {
+        markAll();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onStorageEvent(StorageEvent event) {
+        if (!loaded || !TYPES.contains(event.type())) {
+            return;
+        }
+        if (event.isType(Team.class)) {
+            teamChanged(event.id(), event.isDelete() ? null : event.getDomainObject(Team.class));
+        } else if (event.isType(ProductArea.class)) {
+            productAreaChanged(event.id(), event.isDelete() ? null : event.getDomainObject(ProductArea.class));
+        } else if (event.isType(Cluster.class)) {
+            clusterChanged(event.id(), event.isDelete() ? null : event.getDomainObject(Cluster.class));
+        }
+        markDirty();
+    }
+
+    @EventListener
+    public synchronized void onStorageChange(StorageChange change) {
+        if (!loaded) {
+            return;
+        }
+        if (change.isReset()) {
+            log.info("dashboard reset, reloading");
+            reload();
+            return;
+        }
+        if (!TYPES.contains(change.type())) {
+            return;
+        }
+        var storage = storageRepository.findById(change.id());
+        if (change.isType(Team.class)) {
+            teamChanged(change.id(), storage.map(s -> s.getDomainObjectData(Team.class)).orElse(null));
+        } else if (change.isType(ProductArea.class)) {
+            productAreaChanged(change.id(), storage.map(s -> s.getDomainObjectData(ProductArea.class)).orElse(null));
+        } else if (change.isType(Cluster.class)) {
+            clusterChanged(change.id(), storage.map(s -> s.getDomainObjectData(Cluster.class)).orElse(null));
+        }
+        markDirty();
+    }
+
+    @Scheduled(initialDelayString = "PT10M", fixedRateString = "PT10M")
+    public void recalculate() {
+        invalidate();
+        getDash();
+    }
+
+    private synchronized DashResponse build() {
+        if (!loaded) {
+            load();
+        }
+        if (dirty) {
+            dash = fold();
+            dirty = false;
+        }
+        return dash;
+    }
+
+    /**
+     * On the first read after startup, serve the latest snapshot and build in the background
+     */
+    private DashResponse fromSnapshot() {
+        if (coldStart.compareAndSet(true, false)) {
+            try {
+                coldDash = snapshotRepository.findLatest().orElse(null);
+            } catch (Exception e) {
+                log.warn("failed to read dashboard snapshot", e);
+            }
+            if (coldDash != null) {
+                CompletableFuture.runAsync(this::build).whenComplete((r, e) -> {
+                    if (e != null) {
+                        log.error("failed to build dashboard", e);
+                    }
+                    coldDash = null;
+                });
+            }
+        }
+        return coldDash;
+    }
+
+    private synchronized void reload() {
+        loaded = false;
+        teamSummaries.clear();
+        areaSummaries.clear();
+        areaTeamSummaries.clear();
+        clusterSummaries.clear();
+        clusterTeamSummaries.clear();
+        load();
+    }
+
+    private void load() {
+        put(teams, teamService.getAll(), Team::getId);
+        put(productAreas, productAreaService.getAll(), ProductArea::getId);
+        put(clusters, clusterService.getAll(), Cluster::getId);
+        countStatuses(teamStatuses, teams.values(), Team::getStatus);
+        countStatuses(areaStatuses, productAreas.values(), ProductArea::getStatus);
+        countStatuses(clusterStatuses, clusters.values(), Cluster::getStatus);
+        loaded = true;
+        markAll();
+    }
+
+    private void markAll() {
+        dirtyTeams.addAll(teams.keySet());
+        dirtyAreas.addAll(productAreas.keySet());
+        dirtyClusters.addAll(clusters.keySet());
+        rebuild = true;
+        markDirty();
+    }
+
+    private void markDirty() {
+        // set before the version is bumped, a reader of the new version then builds or gets a dash with the change
+        dirty = true;
+        version.incrementAndGet();
+    }
+
+    private void teamChanged(UUID id, Team team) {
+        var previous = team == null ? teams.remove(id) : teams.put(id, team);
+        countStatus(teamStatuses, previous, team, Team::getStatus);
+        markTeam(previous);
+        markTeam(team);
+    }
+
+    private void markTeam(Team team) {
+        if (team == null) {
+            return;
+        }
+        dirtyTeams.add(team.getId());
+        if (team.getProductAreaId() != null) {
+            dirtyAreas.add(team.getProductAreaId());
+        }
+        copyOf(team.getClusterIds()).forEach(clusterId -> {
+            dirtyClusters.add(clusterId);
+            var cluster = clusters.get(clusterId);
+            if (cluster != null && cluster.getProductAreaId() != null) {
+                dirtyAreas.add(cluster.getProductAreaId());
+            }
+        });
+    }
+
+    private void productAreaChanged(UUID id, ProductArea productArea) {
+        var previous = productArea == null ? productAreas.remove(id) : productAreas.put(id, productArea);
+        countStatus(areaStatuses, previous, productArea, ProductArea::getStatus);
+        dirtyAreas.add(id);
+    }
+
+    private void clusterChanged(UUID id, Cluster cluster) {
+        var previous = cluster == null ? clusters.remove(id) : clusters.put(id, cluster);
+        countStatus(clusterStatuses, previous, cluster, Cluster::getStatus);
+        markCluster(previous);
+        markCluster(cluster);
+    }
+
+    private void markCluster(Cluster cluster) {
+        if (cluster == null) {
+            return;
+        }
+        dirtyClusters.add(cluster.getId());
+        if (cluster.getProductAreaId() != null) {
+            dirtyAreas.add(cluster.getProductAreaId());
+        }
+    }
+
+    private DashResponse fold() {
+        if (rebuild) {
+            types = new HashMap<>();
+            typedIdents.clear();
+            totals = new DashTotals(types);
+            locations = calculator.createLocationRollup();
+            areaTeams.clear();
+            clusterTeams.clear();
+            areaClusters.clear();
+            rebuild = false;
+        }
+        lookupTypes();
+        dirtyClusters.forEach(this::applyCluster);
+        dirtyTeams.forEach(this::applyTeam);
+        dirtyAreas.forEach(this::applyArea);
+        var relations = relations();
+
+        for (UUID id : dirtyTeams) {
+            var team = teams.get(id);
+            if (isActive(team, Team::getStatus)) {
+                teamSummaries.put(id, calculator.createTeamSummary(team, types));
+            } else {
+                teamSummaries.remove(id);
+            }
+        }
+        for (UUID id : dirtyAreas) {
+            var productArea = productAreas.get(id);
+            if (isActive(productArea, ProductArea::getStatus)) {
+                areaSummaries.put(id, calculator.createAreaSummary(productArea, relations, types));
+                areaTeamSummaries.put(id, calculator.calcForArea(relations.teamsInProductArea(id), productArea, relations.clustersInProductArea(id), types));
+            } else {
+                areaSummaries.remove(id);
+                areaTeamSummaries.remove(id);
+            }
+        }
+        for (UUID id : dirtyClusters) {
+            var cluster = clusters.get(id);
+            if (isActive(cluster, Cluster::getStatus)) {
+                clusterSummaries.put(id, calculator.createClusterSummary(cluster, relations, types));
+                // the clusters are only used for product areas
+                clusterTeamSummaries.put(id, calculator.calcForCluster(relations.teamsInCluster(id), cluster, List.of(), types));
+            } else {
+                clusterSummaries.remove(id);
+                clusterTeamSummaries.remove(id);
+            }
+        }
+        if (!dirtyTeams.isEmpty()) {
+            locationSummaries = locations.summaries();
+        }
+        dirtyTeams.clear();
+        dirtyAreas.clear();
+        dirtyClusters.clear();
+
+        return DashResponse.builder()
+                .teamsCount(totals.teamCount())
+                .productAreasCount(totals.productAreaCount())
+                .clusterCount(totals.clusterCount())
+                .resources(nomClient.count())
+                .resourcesDb(nomClient.countDb())
+
+                .teamsCountPlanned(teamStatuses.getOrDefault(DomainObjectStatus.PLANNED, 0L))
+                .teamsCountInactive(teamStatuses.getOrDefault(DomainObjectStatus.INACTIVE, 0L))
+
+                .productAreasCountPlanned(areaStatuses.getOrDefault(DomainObjectStatus.PLANNED, 0L))
+                .productAreasCountInactive(areaStatuses.getOrDefault(DomainObjectStatus.INACTIVE, 0L))
+
+                .clusterCountPlanned(clusterStatuses.getOrDefault(DomainObjectStatus.PLANNED, 0L))
+                .clusterCountInactive(clusterStatuses.getOrDefault(DomainObjectStatus.INACTIVE, 0L))
+
+                .total(totals.summary())
+                .productAreas(List.copyOf(areaTeamSummaries.values()))
+                .clusters(List.copyOf(clusterTeamSummaries.values()))
+
+                .areaSummaryMap(sortedCopy(areaSummaries))
+                .clusterSummaryMap(sortedCopy(clusterSummaries))
+                .teamSummaryMap(sortedCopy(teamSummaries))
+
+                .locationSummaryMap(locationSummaries)
+                .build();
+    }
+
+    /**
+     * Types of the members of the changed objects not looked up since the last full build, types already looked up are kept as they are counted
+     */
+    private void lookupTypes() {
+        var idents = new HashSet<String>();
+        dirtyTeams.forEach(id -> addIdents(idents, teams.get(id), Team::getStatus, Team::getMembers));
+        dirtyAreas.forEach(id -> addIdents(idents, productAreas.get(id), ProductArea::getStatus, ProductArea::getMembers));
+        dirtyClusters.forEach(id -> addIdents(idents, clusters.get(id), Cluster::getStatus, Cluster::getMembers));
+        idents.removeAll(typedIdents);
+        if (!idents.isEmpty()) {
+            types.putAll(nomClient.getResourceTypes(idents));
+            typedIdents.addAll(idents);
+        }
+    }
+
+    private <T> void addIdents(Set<String> idents, T object, Function<T, DomainObjectStatus> status, Function<T, List<? extends Member>> members) {
+        if (isActive(object, status)) {
+            members.apply(object).forEach(member -> idents.add(member.getNavIdent()));
+        }
+    }
+
+    private void applyTeam(UUID id) {
+        var team = teams.get(id);
+        boolean active = isActive(team, Team::getStatus);
+        var previous = active ? totals.put(team) : totals.removeTeam(id);
+        if (previous != null) {
+            unlink(areaTeams, previous.getProductAreaId(), id);
+            copyOf(previous.getClusterIds()).forEach(clusterId -> unlink(clusterTeams, clusterId, id));
+        }
+        if (active) {
+            link(areaTeams, team.getProductAreaId(), team);
+            copyOf(team.getClusterIds()).forEach(clusterId -> link(clusterTeams, clusterId, team));
+            locations.add(team, calculator.location(team));
+        } else {
+            locations.remove(id);
+        }
+    }
+
+    private void applyArea(UUID id) {
+        var productArea = productAreas.get(id);
+        if (isActive(productArea, ProductArea::getStatus)) {
+            totals.put(productArea);
+        } else {
+            totals.removeProductArea(id);
+        }
+    }
+
+    private void applyCluster(UUID id) {
+        var cluster = clusters.get(id);
+        boolean active = isActive(cluster, Cluster::getStatus);
+        var previous = active ? totals.put(cluster) : totals.removeCluster(id);
+        if (previous != null) {
+            unlink(areaClusters, previous.getProductAreaId(), id);
+        }
+        if (active) {
+            link(areaClusters, cluster.getProductAreaId(), cluster);
+        }
+    }
+
+    /**
+     * Relations of the dirty product areas and clusters, built from their own teams and clusters only
+     */
+    private RelationIndex relations() {
+        var relatedTeams = new HashMap<UUID, Team>();
+        var relatedClusters = new HashMap<UUID, Cluster>();
+        for (UUID id : dirtyAreas) {
+            relatedTeams.putAll(areaTeams.getOrDefault(id, Map.of()));
+            areaClusters.getOrDefault(id, Map.of()).values().forEach(cluster -> {
+                relatedClusters.put(cluster.getId(), cluster);
+                relatedTeams.putAll(clusterTeams.getOrDefault(cluster.getId(), Map.of()));
+            });
+        }
+        for (UUID id : dirtyClusters) {
+            relatedTeams.putAll(clusterTeams.getOrDefault(id, Map.of()));
+        }
+        return RelationIndex.of(relatedTeams.values(), relatedClusters.values());
+    }
+
+    private static <T extends DomainObject> void link(Map<UUID, Map<UUID, T>> relations, UUID parentId, T object) {
+        if (parentId != null) {
+            relations.computeIfAbsent(parentId, id -> new HashMap<>()).put(object.getId(), object);
+        }
+    }
+
+    private static <T> void unlink(Map<UUID, Map<UUID, T>> relations, UUID parentId, UUID id) {
+        var related = parentId == null ? null : relations.get(parentId);
+        if (related != null) {
+            related.remove(id);
+            if (related.isEmpty()) {
+                relations.remove(parentId);
+            }
+        }
+    }
+
+    private static <T> void put(Map<UUID, T> map, List<T> objects, Function<T, UUID> id) {
+        map.clear();
+        objects.forEach(o -> map.put(id.apply(o), o));
+    }
+
+    private static <T> boolean isActive(T object, Function<T, DomainObjectStatus> status) {
+        return object != null && status.apply(object) == DomainObjectStatus.ACTIVE;
+    }
+
+    private static <K, V> SortedMap<K, V> sortedCopy(SortedMap<K, V> map) {
+        return Collections.unmodifiableSortedMap(new TreeMap<>(map));
+    }
+
+    private static <T> void countStatuses(Map<DomainObjectStatus, Long> counts, Collection<T> objects, Function<T, DomainObjectStatus> status) {
+        counts.clear();
+        objects.forEach(o -> countStatus(counts, null, o, status));
+    }
+
+    private static <T> void countStatus(Map<DomainObjectStatus, Long> counts, T previous, T current, Function<T, DomainObjectStatus> status) {
+        if (previous != null && status.apply(previous) != null) {
+            counts.merge(status.apply(previous), -1L, Long::sum);
+        }
+        if (current != null && status.apply(current) != null) {
+            counts.merge(status.apply(current), 1L, Long::sum);
+        }
+    }
+}
@@ -0,0 +1,253 @@
+package no.nav.data.team.dashboard;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import lombok.val;
+import no.nav.data.common.utils.StreamUtils;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.dashboard.dto.DashResponse;
+import no.nav.data.team.location.LocationRepository;
+import no.nav.data.team.location.domain.Location;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.domain.ResourceType;
+import no.nav.data.team.shared.domain.RelationIndex;
+import no.nav.data.team.shared.domain.Member;
+import no.nav.data.team.team.domain.*;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static no.nav.data.common.utils.StreamUtils.*;
+
+/**
+ * Computes the individual parts of the dashboard, see {@link DashboardAggregator} for how they are kept up to date
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardCalculator {
+    private final LocationRepository locationRepository;
+
+    private static final List<Team> E = List.of();
+    static final TreeSet<Integer> groups = new TreeSet<>(Set.of(0, 5, 10, 20, Integer.MAX_VALUE));
+    static final TreeSet<Integer> extPercentGroups = new TreeSet<>(Set.of(0, 25, 50, 75, 100));
+    private static final BiFunction<Object, Integer, Integer> counter = (k, v) -> v == null ? 1 : v + 1;
+
+    /**
+     * An empty rollup of the location hierarchy, teams are added with {@link #location(Team)}
+     */
+    LocationRollup createLocationRollup() {
+        return new LocationRollup(locationRepository.getAll());
+    }
+
+    /**
+     * @return location of the office hours of the team, null if none
+     */
+    Location location(Team team) {
+        val officeHours = team.getOfficeHours();
+        return officeHours == null ? null : locationRepository.getLocationByCode(officeHours.getLocationCode()).orElse(null);
+    }
+
+    DashResponse.ClusterSummary createClusterSummary(Cluster cluster, RelationIndex relations, Map<String, ResourceType> types) {
+        val relatedTeams = relations.teamsInCluster(cluster.getId());
+
+        val clusterSubteamMembers = relatedTeams.stream()
+                .flatMap(team -> team.getMembers().stream()).toList();
+
+        val totalMembershipCount = (long) cluster.getMembers().size() + (long) clusterSubteamMembers.size();
+
+        val totaluniqueResources = StreamUtils.distinctByKey(
+                List.of(
+                        cluster.getMembers().stream().map(it -> it.getNavIdent()),
+                        clusterSubteamMembers.stream().map(it -> it.getNavIdent())
+
+                ).stream().reduce((a,b) -> Stream.concat(a,b)).get().toList(), it -> it
+        );
+
+        val uniqueResourcesExternal = totaluniqueResources.stream()
+                .filter(ident -> isExternal(ident, types))
+                .count();
+
+        return DashResponse.ClusterSummary.builder()
+                .totalMembershipCount(totalMembershipCount)
+                .totalUniqueResourcesCount(totaluniqueResources.stream().count())
+                .uniqueResourcesExternal(uniqueResourcesExternal)
+                .teamCount(relatedTeams.stream().count())
+                .build();
+    }
+
+    DashResponse.TeamSummary2 createTeamSummary(Team team, Map<String, ResourceType> types) {
+        val uniqueResourcesExternal = team.getMembers().stream()
+                .filter(teamMember -> isExternal(teamMember.getNavIdent(), types))
+                .count();
+
+        return DashResponse.TeamSummary2.builder()
+                .membershipCount(team.getMembers().stream().count())
+                .ResourcesExternal(uniqueResourcesExternal).build();
+    }
+
+    DashResponse.AreaSummary createAreaSummary(ProductArea pa, RelationIndex relations, Map<String, ResourceType> types) {
+        val relatedClusters = relations.clustersInProductArea(pa.getId());
+        val relatedTeams = relations.teamsInProductArea(pa.getId());
+        long clusterCount = relatedClusters.size();
+
+        val relatedClusterMembers = relatedClusters.stream().flatMap(cluster -> cluster.getMembers().stream()).toList();
+        val subteamMembers = relatedTeams.stream().flatMap(team -> team.getMembers().stream()).toList();
+        val allSubteams = relations.allTeamsInProductArea(pa.getId());
+
+        long membershipCount = pa.getMembers().size() + relatedClusterMembers.size() + subteamMembers.size();
+
+        val uniqueResources = StreamUtils.distinctByKey(
+                List.of(
+                        pa.getMembers().stream().map(it -> it.getNavIdent()),
+                        relatedClusterMembers.stream().map(it -> it.getNavIdent()),
+                        subteamMembers.stream().map(it ->  it.getNavIdent())
+
+                ).stream().reduce((a,b) -> Stream.concat(a,b)).get().toList(), it -> it
+        );
+
+        val uniqueResourcesExternal = uniqueResources.stream()
+                .filter(ident -> isExternal(ident, types))
+                .count();
+
+        return DashResponse.AreaSummary.builder()
+                .clusterCount(clusterCount)
+                .membershipCount(membershipCount)
+                .uniqueResourcesCount(uniqueResources.stream().count())
+                .totalTeamCount((long) allSubteams.size())
+                .uniqueResourcesExternal(uniqueResourcesExternal)
+                .build();
+    }
+
+    DashResponse.TeamSummary calcForTotal(List<Team> teams, List<ProductArea> productAreas, List<Cluster> clusters, Map<String, ResourceType> types) {
+        return calcForTeams(teams, null, productAreas, null, clusters, types);
+    }
+
+    DashResponse.TeamSummary calcForArea(List<Team> teams, ProductArea productArea, List<Cluster> clusters, Map<String, ResourceType> types) {
+        return calcForTeams(teams, productArea, List.of(), null, clusters, types);
+    }
+
+    DashResponse.TeamSummary calcForCluster(List<Team> teams, Cluster cluster, List<Cluster> clusters, Map<String, ResourceType> types) {
+        return calcForTeams(teams, null, List.of(), cluster, clusters, types);
+    }
+
+    private DashResponse.TeamSummary calcForTeams(List<Team> teams, ProductArea productArea, List<ProductArea> productAreas, Cluster cluster, List<Cluster> clusters,
+            Map<String, ResourceType> types) {
+        Map<TeamRole, Integer> roles = new EnumMap<>(TeamRole.class);
+        Map<TeamOwnershipType, Integer> teamOwnershipTypes = new EnumMap<>(TeamOwnershipType.class);
+        Map<TeamType, Integer> teamTypes = new EnumMap<>(TeamType.class);
+
+        Map<Integer, List<Team>> teamsBuckets = teams.stream().collect(Collectors.groupingBy(t -> groups.ceiling(t.getMembers().size())));
+        Map<Integer, List<Team>> extPercentBuckets = teams.stream().collect(Collectors.groupingBy(t -> extPercentGroups.ceiling(percentExternalMembers(t, types))));
+
+        teams.stream().flatMap(t -> t.getMembers().stream()).flatMap(m -> m.getRoles().stream()).forEach(r -> roles.compute(r, counter));
+        teams.forEach(t -> teamOwnershipTypes.compute(t.getTeamOwnershipType() == null ? TeamOwnershipType.UNKNOWN : t.getTeamOwnershipType(), counter));
+        teams.forEach(t -> teamTypes.compute(t.getTeamType() == null ? TeamType.UNKNOWN : t.getTeamType(), counter));
+
+        List<Member> productAreaMembers;
+        if (cluster != null) {
+            productAreaMembers = List.of();
+        } else {
+            if (productArea != null) {
+                productAreaMembers = productArea.getMembersAsSuper();
+            } else {
+                productAreaMembers = productAreas.stream().flatMap(pa -> pa.getMembers().stream()).collect(Collectors.toList());
+            }
+        }
+        productAreaMembers.stream().flatMap(m -> m.getRoles().stream()).forEach(r -> roles.compute(r, counter));
+
+        List<Member> clusterMembers;
+        List<Cluster> paClusters = null;
+        if (productArea != null) {
+            paClusters = filter(clusters, cl -> productArea.getId().equals(cl.getProductAreaId()));
+            clusterMembers = paClusters.stream().flatMap(cl -> cl.getMembers().stream()).collect(Collectors.toList());
+        } else {
+            if (cluster != null) {
+                clusterMembers = cluster.getMembersAsSuper();
+            } else {
+                clusterMembers = clusters.stream().flatMap(cl -> cl.getMembers().stream()).collect(Collectors.toList());
+            }
+        }
+        clusterMembers.stream().flatMap(m -> m.getRoles().stream()).forEach(r -> roles.compute(r, counter));
+
+        return DashResponse.TeamSummary.builder()
+                .productAreaId(productArea != null ? productArea.getId() : null)
+                .clusterId(cluster != null ? cluster.getId() : null)
+                .clusters(paClusters != null ? (long) paClusters.size() : null)
+                .teams(teams.size())
+                .teamsEditedLastWeek(filter(teams, t -> t.getChangeStamp().getLastModifiedDate().isAfter(LocalDateTime.now().minusDays(7))).size())
+
+                .teamEmpty(teamsBuckets.getOrDefault(0, E).size())
+                .teamUpTo5(teamsBuckets.getOrDefault(5, E).size())
+                .teamUpTo10(teamsBuckets.getOrDefault(10, E).size())
+                .teamUpTo20(teamsBuckets.getOrDefault(20, E).size())
+                .teamOver20(teamsBuckets.getOrDefault(Integer.MAX_VALUE, E).size())
+
+                .teamExternal0p(extPercentBuckets.getOrDefault(0, E).size())
+                .teamExternalUpto25p(extPercentBuckets.getOrDefault(25, E).size())
+                .teamExternalUpto50p(extPercentBuckets.getOrDefault(50, E).size())
+                .teamExternalUpto75p(extPercentBuckets.getOrDefault(75, E).size())
+                .teamExternalUpto100p(extPercentBuckets.getOrDefault(100, E).size())
+
+                .uniqueResources(countUniqueResources(teams, productAreaMembers, clusterMembers))
+                .uniqueResourcesExternal(countUniqueResourcesExternal(teams, productAreaMembers, clusterMembers, types))
+                .totalResources(countResources(teams, productAreaMembers, clusterMembers))
+
+                .roles(roles.entrySet().stream()
+                        .map(e -> new DashResponse.RoleCount(e.getKey(), e.getValue())).collect(Collectors.toList()))
+                .teamOwnershipTypes(teamOwnershipTypes.entrySet().stream()
+                        .map(e -> new DashResponse.TeamOwnershipTypeCount(e.getKey(), e.getValue()))
+                        .sorted(Comparator.comparing(DashResponse.TeamOwnershipTypeCount::getCount))
+                        .collect(Collectors.toList()))
+                .teamTypes(teamTypes.entrySet().stream()
+                        .map(e -> new DashResponse.TeamTypeCount(e.getKey(), e.getValue()))
+                        .sorted(Comparator.comparing(DashResponse.TeamTypeCount::getCount))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+
+    private long countUniqueResourcesExternal(List<Team> teams, List<Member> productAreaMembers, List<Member> clusterMembers, Map<String, ResourceType> types) {
+        return Stream.concat(
+                        Stream.concat(
+                                productAreaMembers.stream().map(Member::getNavIdent),
+                                teams.stream().flatMap(team -> team.getMembers().stream()).map(TeamMember::getNavIdent)
+                        ),
+                        clusterMembers.stream().map(Member::getNavIdent)
+                )
+                .filter(ident -> isExternal(ident, types))
+                .distinct()
+                .count();
+    }
+
+    private long countUniqueResources(List<Team> teams, List<Member> productAreaMembers, List<Member> clusterMembers) {
+        return Stream.concat(
+                Stream.concat(
+                        productAreaMembers.stream().map(Member::getNavIdent),
+                        teams.stream().flatMap(team -> team.getMembers().stream().map(TeamMember::getNavIdent))
+                ), clusterMembers.stream().map(Member::getNavIdent)
+        ).distinct().count();
+
+    }
+
+    private long countResources(List<Team> teams, List<Member> productAreaMembers, List<Member> clusterMembers) {
+        return teams.stream().mapToLong(team -> team.getMembers().size()).sum() +
+                productAreaMembers.size() + clusterMembers.size();
+    }
+
+    static int percentExternalMembers(Team t, Map<String, ResourceType> types) {
+        if (t.getMembers().isEmpty()) {
+            return 0;
+        }
+        long externalMembers = t.getMembers().stream().filter(m -> isExternal(m.getNavIdent(), types)).count();
+        return ((int) externalMembers * 100) / t.getMembers().size();
+    }
+
+    static boolean isExternal(String ident, Map<String, ResourceType> types) {
+        return ident != null && types.get(ident) == ResourceType.EXTERNAL;
+    }
+
+}
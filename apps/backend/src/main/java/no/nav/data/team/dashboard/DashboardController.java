@@ -1,20 +1,28 @@
 package no.nav.data.team.dashboard;
 
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.rest.VersionedResponses;
+import no.nav.data.team.dashboard.dto.DashHistoryResponse;
+import no.nav.data.team.dashboard.dto.DashHistoryResponse.Granularity;
 import no.nav.data.team.dashboard.dto.DashResponse;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
-import static java.util.Objects.requireNonNull;
+import java.time.LocalDateTime;
 
 
 @Slf4j
@@ -23,19 +31,40 @@ import static java.util.Objects.requireNonNull;
 @RequestMapping("/dash")
 @Tag(name = "Dashboard")
 public class DashboardController {
-    @Autowired
-    private LoadingCache<String, DashResponse> dashCache;
+
+    private final DashboardAggregator dashboardAggregator;
+    private final DashSnapshotRepository snapshotRepository;
+    private final VersionedResponses versionedResponses;
 
     @Operation(summary = "Get Dashboard data")
-    @ApiResponse(description = "Data fetched")
+    @ApiResponse(description = "Data fetched", content = @Content(schema = @Schema(implementation = DashResponse.class)))
     @GetMapping
-    public ResponseEntity<DashResponse> getDashboardData() {
-        return ResponseEntity.ok(requireNonNull(dashCache.get("singleton")));
+    public ResponseEntity<byte[]> getDashboardData(WebRequest request) {
+        // the dash is only built and serialized when the aggregator has changed since the last response
+        return versionedResponses.respond(request, dashboardAggregator.getVersion(), dashboardAggregator::getDash);
     }
 
-    @Scheduled(initialDelayString = "PT2M", fixedRateString = "PT30S")
-    public void warmup() {
-        getDashboardData();
+    @Operation(summary = "Get Dashboard history")
+    @ApiResponse(description = "Headline dashboard counts, last snapshot per period")
+    @GetMapping("/history")
+    public ResponseEntity<RestResponsePage<DashHistoryResponse>> getDashboardHistory(
+            @RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(value = "granularity", required = false, defaultValue = "DAY") Granularity granularity
+    ) {
+        if (to == null) {
+            to = LocalDateTime.now();
+        }
+        if (from == null) {
+            from = to.minusYears(1);
+        }
+        if (!from.isBefore(to)) {
+            throw new ValidationException("from must be before to");
+        }
+        return ResponseEntity.ok(new RestResponsePage<>(snapshotRepository.findHistory(from, to, granularity)));
     }
 
+    static class DashHistoryPageResponse extends RestResponsePage<DashHistoryResponse> {
+
+    }
 }
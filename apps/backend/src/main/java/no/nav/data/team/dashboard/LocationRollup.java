@@ -0,0 +1,153 @@
+package no.nav.data.team.dashboard;
+
+import no.nav.data.team.dashboard.dto.DashResponse.LocationDaySummary;
+import no.nav.data.team.dashboard.dto.DashResponse.LocationSummary;
+import no.nav.data.team.location.domain.Location;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.domain.TeamMember;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+
+import static no.nav.data.common.utils.StreamUtils.copyOf;
+
+/**
+ * Unique team and resource counts for every node of the location hierarchy, in total and per office day.
+ * <p>
+ * Idents are interned to dense ints as they are added, and each node counts the teams and how many of them each resource is a member of,
+ * in the node itself or in any of its sub locations. A team is added to its own node and every parent, and adding it again first subtracts
+ * what it added before, so a change to one team only touches the nodes above it. Summaries are only rebuilt for the nodes that changed.
+ */
+class LocationRollup {
+
+    private static final List<DayOfWeek> WEEK_DAYS = List.of(DayOfWeek.MONDAY, DayOfWeek.TUESDAY, DayOfWeek.WEDNESDAY, DayOfWeek.THURSDAY, DayOfWeek.FRIDAY);
+
+    private final Set<String> hierarchy = new HashSet<>();
+    private final Map<String, Node> nodes = new HashMap<>();
+    private final Map<String, Integer> idents = new HashMap<>();
+    private final Map<UUID, Contribution> teams = new HashMap<>();
+    private final Map<String, LocationSummary> summaries = new HashMap<>();
+    private final Set<String> changed = new HashSet<>();
+
+    LocationRollup(Collection<Location> locations) {
+        locations.forEach(location -> {
+            hierarchy.add(location.getCode());
+            nodes.put(location.getCode(), new Node());
+            changed.add(location.getCode());
+        });
+    }
+
+    /**
+     * Add the team, or replace what it added before. Teams without office hours, or with a location not in the hierarchy, are removed.
+     */
+    void add(Team team, Location location) {
+        remove(team.getId());
+        var officeHours = team.getOfficeHours();
+        if (officeHours == null || location == null) {
+            return;
+        }
+        var memberIdxs = copyOf(team.getMembers()).stream().mapToInt(this::intern).distinct().toArray();
+        var days = copyOf(officeHours.getDays()).stream().distinct().toList();
+        var codes = new ArrayList<String>();
+        for (var loc = location; loc != null; loc = loc.getParent()) {
+            codes.add(loc.getCode());
+        }
+        var contribution = new Contribution(codes, days, memberIdxs);
+        teams.put(team.getId(), contribution);
+        apply(contribution, 1);
+    }
+
+    void remove(UUID teamId) {
+        var contribution = teams.remove(teamId);
+        if (contribution != null) {
+            apply(contribution, -1);
+        }
+    }
+
+    Map<String, LocationSummary> summaries() {
+        for (String code : changed) {
+            var node = nodes.get(code);
+            if (node == null || node.total.teams == 0 && !hierarchy.contains(code)) {
+                // only teams placed it in the rollup
+                nodes.remove(code);
+                summaries.remove(code);
+            } else {
+                summaries.put(code, summary(node));
+            }
+        }
+        changed.clear();
+        return Collections.unmodifiableSortedMap(new TreeMap<>(summaries));
+    }
+
+    private void apply(Contribution contribution, int sign) {
+        for (String code : contribution.codes()) {
+            var node = nodes.computeIfAbsent(code, c -> new Node());
+            node.total.add(contribution.memberIdxs(), sign);
+            for (DayOfWeek day : contribution.days()) {
+                node.days.computeIfAbsent(day, d -> new Counts()).add(contribution.memberIdxs(), sign);
+            }
+            changed.add(code);
+        }
+    }
+
+    private static LocationSummary summary(Node node) {
+        var summary = LocationSummary.builder()
+                .teamCount(node.total.teams)
+                .resourceCount(node.total.resources.size());
+        for (DayOfWeek day : WEEK_DAYS) {
+            var counts = node.days.get(day);
+            var daySummary = counts == null ? new LocationDaySummary(0, 0) : new LocationDaySummary(counts.teams, counts.resources.size());
+            switch (day) {
+                case MONDAY -> summary.monday(daySummary);
+                case TUESDAY -> summary.tuesday(daySummary);
+                case WEDNESDAY -> summary.wednesday(daySummary);
+                case THURSDAY -> summary.thursday(daySummary);
+                case FRIDAY -> summary.friday(daySummary);
+                default -> throw new IllegalStateException("not a week day " + day);
+            }
+        }
+        return summary.build();
+    }
+
+    private int intern(TeamMember member) {
+        return idents.computeIfAbsent(member.getNavIdent(), ident -> idents.size());
+    }
+
+    private record Contribution(List<String> codes, List<DayOfWeek> days, int[] memberIdxs) {
+
+    }
+
+    private static class Node {
+
+        private final Counts total = new Counts();
+        private final Map<DayOfWeek, Counts> days = new EnumMap<>(DayOfWeek.class);
+    }
+
+    private static class Counts {
+
+        private int teams;
+        /**
+         * Teams each resource is a member of, by interned ident
+         */
+        private final Map<Integer, Integer> resources = new HashMap<>();
+
+        private void add(int[] memberIdxs, int sign) {
+            teams += sign;
+            for (int memberIdx : memberIdxs) {
+                if (resources.merge(memberIdx, sign, Integer::sum) == 0) {
+                    resources.remove(memberIdx);
+                }
+            }
+        }
+    }
+}
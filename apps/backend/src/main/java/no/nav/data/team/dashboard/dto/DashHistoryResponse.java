@@ -0,0 +1,41 @@
+package no.nav.data.team.dashboard.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class DashHistoryResponse {
+
+    private LocalDateTime time;
+
+    private long teamsCount;
+    private long teamsCountPlanned;
+    private long teamsCountInactive;
+
+    private long productAreasCount;
+    private long productAreasCountPlanned;
+    private long productAreasCountInactive;
+
+    private long clusterCount;
+    private long clusterCountPlanned;
+    private long clusterCountInactive;
+
+    private long resources;
+    private long uniqueResources;
+    private long uniqueResourcesExternal;
+    private long totalResources;
+
+    public enum Granularity {
+        HOUR,
+        DAY,
+        WEEK,
+        MONTH
+    }
+}
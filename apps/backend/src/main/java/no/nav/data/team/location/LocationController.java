@@ -1,19 +1,25 @@
 package no.nav.data.team.location;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.rest.VersionedResponses;
 import no.nav.data.team.location.domain.LocationType;
 import no.nav.data.team.location.dto.LocationResponse;
 import no.nav.data.team.location.dto.LocationSimplePathResponse;
 import no.nav.data.team.location.dto.LocationSimpleResponse;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -24,7 +30,13 @@ import java.util.List;
 @Tag(name = "Location", description = "Location endpoint")
 public class LocationController {
 
+    /**
+     * Locations are built in code, and do not change while running
+     */
+    private static final Long VERSION = 0L;
+
     private final LocationRepository locationRepository;
+    private final VersionedResponses versionedResponses;
 
     @GetMapping("/{code}")
     @Operation(summary = "Get location")
@@ -37,9 +49,9 @@ public class LocationController {
 
     @GetMapping("/hierarchy")
     @Operation(summary = "Get location hierarchy")
-    @ApiResponse(description = "Location hierarchy fetched")
-    public List<LocationResponse> getLocationHierarchy(){
-        return locationRepository.getLocationHierarchy().stream().map(LocationResponse::convert).toList();
+    @ApiResponse(description = "Location hierarchy fetched", content = @Content(array = @ArraySchema(schema = @Schema(implementation = LocationResponse.class))))
+    public ResponseEntity<byte[]> getLocationHierarchy(WebRequest request){
+        return versionedResponses.respond(request, VERSION, () -> locationRepository.getLocationHierarchy().stream().map(LocationResponse::convert).toList());
     }
 
     @GetMapping("/simple/{code}")
@@ -53,12 +65,12 @@ public class LocationController {
 
     @GetMapping("/simple")
     @Operation(summary = "Get locations simple")
-    @ApiResponse(description = "Location simple flatmap fetched")
-    public List<LocationSimpleResponse> getLocationsSimple(@RequestParam(required = false) LocationType locationType){
-        return locationRepository.getLocationsByType(locationType)
+    @ApiResponse(description = "Location simple flatmap fetched", content = @Content(array = @ArraySchema(schema = @Schema(implementation = LocationSimpleResponse.class))))
+    public ResponseEntity<byte[]> getLocationsSimple(WebRequest request, @RequestParam(required = false) LocationType locationType){
+        return versionedResponses.respond(request, VERSION, () -> locationRepository.getLocationsByType(locationType)
                 .values()
                 .stream()
                 .map(LocationSimpleResponse::convert)
-                .toList();
+                .toList());
     }
 }
@@ -8,30 +8,35 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import no.nav.data.common.TeamCatalogProps;
-import no.nav.data.common.exceptions.TechnicalException;
 import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.export.ExportCache;
+import no.nav.data.common.export.ExportFormat;
 import no.nav.data.team.cluster.domain.Cluster;
 import no.nav.data.team.member.MemberExportService.SpreadsheetType;
 import no.nav.data.team.member.dto.MembershipResponse;
 import no.nav.data.team.po.domain.ProductArea;
 import no.nav.data.team.po.dto.ProductAreaResponse;
 import no.nav.data.team.resource.domain.ResourceRepository;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.team.domain.Team;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.Optional;
 import java.util.function.Function;
-import javax.servlet.http.HttpServletResponse;
 
 import static no.nav.data.common.export.ExcelBuilder.SPREADSHEETML_SHEET_MIME;
+import static no.nav.data.common.export.ExportFormat.CSV_MIME;
+import static no.nav.data.common.export.ExportFormat.NDJSON_MIME;
 import static no.nav.data.common.utils.StreamUtils.convert;
 
 @Slf4j
@@ -43,11 +48,16 @@ public class MemberController {
     private final ResourceRepository resourceRepository;
     private final MemberExportService memberExportService;
     private final TeamCatalogProps teamCatalogProps;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ExportCache exportCache;
 
-    public MemberController(ResourceRepository resourceRepository, MemberExportService memberExportService, TeamCatalogProps teamCatalogProps) {
+    public MemberController(ResourceRepository resourceRepository, MemberExportService memberExportService, TeamCatalogProps teamCatalogProps,
+            CatalogSnapshotService catalogSnapshotService, ExportCache exportCache) {
         this.resourceRepository = resourceRepository;
         this.memberExportService = memberExportService;
         this.teamCatalogProps = teamCatalogProps;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.exportCache = exportCache;
     }
 
     @Operation(summary = "Get Memberships")
@@ -62,32 +72,27 @@ public class MemberController {
         ));
     }
 
-    @Operation(summary = "Get export for members")
+    @Operation(summary = "Get export for members, as xlsx, csv or ndjson by the Accept header, with an ETag of the catalog version")
     @ApiResponse(description = "Doc fetched", content = @Content(schema = @Schema(implementation = byte[].class)))
     @Transactional(readOnly = true)
-    @GetMapping(value = "/export/{type}", produces = SPREADSHEETML_SHEET_MIME)
-    public void getExport(
-            HttpServletResponse response,
+    @GetMapping(value = "/export/{type}", produces = {SPREADSHEETML_SHEET_MIME, CSV_MIME, NDJSON_MIME})
+    public ResponseEntity<StreamingResponseBody> getExport(
+            WebRequest request,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
             @PathVariable("type") SpreadsheetType type,
             @RequestParam(name = "id", required = false) String id
     ) {
         if (type != SpreadsheetType.ALL && id == null) {
             throw new ValidationException("missing id for spreadsheet type " + type);
         }
-        byte[] doc = memberExportService.generateSpreadsheet(type, id);
-        String filename = "resources_" + type + Optional.ofNullable(id).map(s -> "_" + s).orElse("") + ".xlsx";
-        response.setContentType(SPREADSHEETML_SHEET_MIME);
-        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
-        writeDoc(response, doc);
-    }
-
-    private void writeDoc(HttpServletResponse response, byte[] doc) {
-        try {
-            StreamUtils.copy(doc, response.getOutputStream());
-            response.flushBuffer();
-        } catch (Exception e) {
-            throw new TechnicalException("io error", e);
+        var format = ExportFormat.fromAccept(accept);
+        String filename = "resources_" + type + Optional.ofNullable(id).map(s -> "_" + s).orElse("") + "." + format.getExtension();
+        if (type == SpreadsheetType.LEADER) {
+            // reports are read from the NOM org tree, which the catalog version does not cover
+            return ExportCache.respond(filename, format, memberExportService.export(type, id, format));
         }
+        var version = catalogSnapshotService.getVersion(MemberExportService.VERSION_TYPES);
+        return exportCache.respond(request, filename, format, version, () -> memberExportService.export(type, id, format));
     }
 
     private ProductAreaResponse convertProductAreaToReponse(ProductArea pa){
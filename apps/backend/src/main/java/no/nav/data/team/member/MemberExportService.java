@@ -1,7 +1,11 @@
 package no.nav.data.team.member;
 
 import lombok.RequiredArgsConstructor;
-import no.nav.data.common.export.ExcelBuilder;
+import no.nav.data.common.export.ExportFormat;
+import no.nav.data.common.export.TableExport;
+import no.nav.data.common.export.TableWriter;
+import no.nav.data.common.export.TableWriter.Column;
+import no.nav.data.common.storage.CatalogVersion;
 import no.nav.data.common.utils.DateUtil;
 import no.nav.data.common.utils.StreamUtils;
 import no.nav.data.common.utils.StringUtils;
@@ -18,6 +22,7 @@ import no.nav.data.team.team.TeamService;
 import no.nav.data.team.team.domain.Team;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Comparator;
 import java.util.List;
 import java.util.UUID;
@@ -26,6 +31,7 @@ import java.util.stream.Stream;
 import static java.util.Comparator.comparing;
 import static java.util.Optional.ofNullable;
 import static java.util.stream.Collectors.toList;
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
 import static no.nav.data.common.utils.StreamUtils.convert;
 import static no.nav.data.common.utils.StreamUtils.filter;
 import static no.nav.data.common.utils.StreamUtils.tryFind;
@@ -44,12 +50,26 @@ public class MemberExportService {
         LEADER
     }
 
+    /**
+     * Types the exports are read from, exports change with the catalog version of these
+     */
+    public static final List<String> VERSION_TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class), CatalogVersion.RESOURCE);
+
     private final TeamService teamService;
     private final ProductAreaService productAreaService;
     private final ClusterService clusterService;
     private final NomGraphClient nomGraphClient;
 
     public byte[] generateSpreadsheet(SpreadsheetType type, String filter) {
+        var out = new ByteArrayOutputStream();
+        export(type, filter, ExportFormat.XLSX).writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Members are collected and sorted when called, rows are written from them one by one when the export is written
+     */
+    public TableExport export(SpreadsheetType type, String filter, ExportFormat format) {
         var pas = productAreaService.getAll();
         var clusters = clusterService.getAll();
         var members = switch (type) {
@@ -58,12 +78,15 @@ public class MemberExportService {
             case CLUSTER -> getForCluster(StringUtils.toUUID(filter), pas, clusters);
             case TEAM -> mapTeamMembers(List.of(teamService.get(StringUtils.toUUID(filter))), pas, clusters).collect(toList());
             case ROLE -> filter(getAll(pas, clusters), m -> convert(m.member().getRoles(), Enum::name).contains(filter));
-            case LEADER -> filter(getAll(pas, clusters), m -> {
-                var leaderMembers = nomGraphClient.getLeaderMembers(filter);
-                return leaderMembers.contains(m.member().getNavIdent());
-            });
+            case LEADER -> {
+                var reports = nomGraphClient.getReports(filter);
+                yield filter(getAll(pas, clusters), m -> reports.contains(m.member().getNavIdent()));
+            }
         };
-        return generateFor(members);
+        Comparator<Member> c1 = comparing(m -> ofNullable(m.member.getResource().getFamilyName()).orElse(""));
+        Comparator<Member> c2 = c1.thenComparing(m -> ofNullable(m.member.getResource().getGivenName()).orElse(""));
+        members.sort(c2);
+        return out -> write(members, format.createWriter(Lang.MEMBERS, out));
     }
 
     private List<Member> getAll(List<ProductArea> pas, List<Cluster> clusters) {
@@ -110,32 +133,29 @@ public class MemberExportService {
         }));
     }
 
-    private byte[] generateFor(List<Member> members) {
-        var doc = new ExcelBuilder(Lang.MEMBERS);
-        doc.addRow()
-                .addCell(Lang.RELATION)
-                .addCell(Lang.AREA)
-                .addCell(Lang.CLUSTER)
-                .addCell(Lang.TEAM)
-                .addCell(Lang.IDENT)
-                .addCell(Lang.GIVEN_NAME)
-                .addCell(Lang.FAMILY_NAME)
-                .addCell(Lang.RESOURCE_TYPE)
-                .addCell(Lang.ROLES)
-                .addCell(Lang.OTHER)
-                .addCell(Lang.EMAIL)
-                .addCell(Lang.START_DATE)
-                .addCell(Lang.END_DATE);
+    private void write(List<Member> members, TableWriter doc) {
+        doc.addHeader(List.of(
+                new Column("relation", Lang.RELATION),
+                new Column("productArea", Lang.AREA),
+                new Column("clusters", Lang.CLUSTER),
+                new Column("team", Lang.TEAM),
+                new Column("navIdent", Lang.IDENT),
+                new Column("givenName", Lang.GIVEN_NAME),
+                new Column("familyName", Lang.FAMILY_NAME),
+                new Column("resourceType", Lang.RESOURCE_TYPE),
+                new Column("roles", Lang.ROLES),
+                new Column("description", Lang.OTHER),
+                new Column("email", Lang.EMAIL),
+                new Column("startDate", Lang.START_DATE),
+                new Column("endDate", Lang.END_DATE)
+        ));
 
-        Comparator<Member> c1 = comparing(m -> ofNullable(m.member.getResource().getFamilyName()).orElse(""));
-        Comparator<Member> c2 = c1.thenComparing(m -> ofNullable(m.member.getResource().getGivenName()).orElse(""));
-        members.sort(c2);
         members.forEach(m -> add(doc, m));
 
-        return doc.build();
+        doc.finish();
     }
 
-    private void add(ExcelBuilder doc, Member member) {
+    private void add(TableWriter doc, Member member) {
         doc.addRow()
                 .addCell(member.relationType())
                 .addCell(member.productAreaName())
@@ -7,7 +7,9 @@ import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.auditing.domain.AuditVersion;
 import no.nav.data.common.auditing.domain.AuditVersionRepository;
 import no.nav.data.common.exceptions.NotFoundException;
+import no.nav.data.common.storage.InvalidationBus;
 import no.nav.data.common.storage.StorageService;
+import no.nav.data.common.storage.domain.StorageChange;
 import no.nav.data.team.contact.domain.ContactMessage;
 import no.nav.data.team.notify.domain.NotificationTask;
 import no.nav.data.team.notify.domain.NotificationTask.AuditTarget;
@@ -51,14 +53,15 @@ public class NotificationMessageGenerator {
     private final NomClient nomClient;
 
     public NotificationMessageGenerator(AuditVersionRepository auditVersionRepository,
-            StorageService storageService, UrlGenerator urlGenerator, NomClient nomClient) {
+            StorageService storageService, UrlGenerator urlGenerator, NomClient nomClient, InvalidationBus invalidationBus) {
         this.auditVersionRepository = auditVersionRepository;
         this.auditCache = Caffeine.newBuilder().recordStats()
                 .expireAfterWrite(Duration.ofMinutes(5))
                 .maximumSize(1000).build(id -> auditVersionRepository.findById(id).orElseThrow());
         this.paCache = Caffeine.newBuilder().recordStats()
-                .expireAfterWrite(Duration.ofMinutes(1))
+                .expireAfterWrite(Duration.ofHours(6))
                 .maximumSize(1000).build(id -> storageService.get(id, ProductArea.class));
+        invalidationBus.evictOnChange(ProductArea.class, paCache, StorageChange::id);
 
         this.urlGenerator = urlGenerator;
         this.nomClient = nomClient;
@@ -13,6 +13,7 @@ import no.nav.data.team.po.domain.ProductArea;
 import no.nav.data.team.resource.NomClient;
 import no.nav.data.team.resource.domain.ResourceEvent;
 import no.nav.data.team.resource.domain.ResourceEvent.EventType;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import no.nav.data.team.shared.domain.Member;
 import no.nav.data.team.shared.domain.Membered;
@@ -43,6 +44,7 @@ public class ResourceEventScheduler {
     private final StorageService storage;
     private final NotificationService service;
     private final NomClient nomClient;
+    private final CatalogSnapshotService catalog;
 
     @Scheduled(cron = "45 */4 * * * ?")
     @SchedulerLock(name = "runMailTasks")
@@ -125,7 +127,7 @@ public class ResourceEventScheduler {
     }
 
     private List<Team> allTeams() {
-        return storage.getAll(Team.class);
+        return catalog.get().teams();
     }
 
     private List<Team> activeTeams() {
@@ -133,7 +135,7 @@ public class ResourceEventScheduler {
     }
 
     private List<Cluster> allClusters() {
-        return storage.getAll(Cluster.class);
+        return catalog.get().clusters();
     }
 
     private List<Cluster> activeClusters() {
@@ -141,7 +143,7 @@ public class ResourceEventScheduler {
     }
 
     private List<ProductArea> allAreas() {
-        return storage.getAll(ProductArea.class);
+        return catalog.get().productAreas();
     }
 
     private List<ProductArea> activeAreas() {
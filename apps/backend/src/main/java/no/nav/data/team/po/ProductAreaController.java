@@ -1,17 +1,21 @@
 package no.nav.data.team.po;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.TeamCatalogProps;
 import no.nav.data.common.exceptions.ValidationException;
 import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.rest.VersionedResponses;
 import no.nav.data.common.utils.StreamUtils;
 import no.nav.data.team.po.domain.ProductArea;
 import no.nav.data.team.po.dto.AddTeamsToProductAreaRequest;
 import no.nav.data.team.po.dto.ProductAreaRequest;
 import no.nav.data.team.po.dto.ProductAreaResponse;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -24,6 +28,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.Objects;
 import java.util.UUID;
@@ -39,28 +44,37 @@ public class ProductAreaController {
 
     private final ProductAreaService service;
     private final TeamCatalogProps teamCatalogProps;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final VersionedResponses versionedResponses;
 
-    public ProductAreaController(ProductAreaService service, TeamCatalogProps teamCatalogProps) {
+    public ProductAreaController(ProductAreaService service, TeamCatalogProps teamCatalogProps, CatalogSnapshotService catalogSnapshotService,
+            VersionedResponses versionedResponses) {
         this.service = service;
         this.teamCatalogProps = teamCatalogProps;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.versionedResponses = versionedResponses;
     }
 
     @Operation(summary = "Get All ProductAreas")
-    @ApiResponse(description = "ok")
+    @ApiResponse(description = "ok", content = @Content(schema = @Schema(implementation = ProductAreaPageResponse.class)))
     @GetMapping
-    public ResponseEntity<RestResponsePage<ProductAreaResponse>> getAll(
+    public ResponseEntity<byte[]> getAll(
+            WebRequest request,
             @RequestParam(name = "status", required = false, defaultValue = "ACTIVE,PLANNED,INACTIVE") String stringStatus
     ) {
         log.info("Get all ProductAreas");
+        var version = catalogSnapshotService.getVersion(CatalogSnapshotService.RESPONSE_VERSION_TYPES);
+        return versionedResponses.respond(request, version, () -> getAll(stringStatus));
+    }
 
+    private RestResponsePage<ProductAreaResponse> getAll(String stringStatus) {
         var po = service.getAll();
 
         var queryStatusList = DomainObjectStatus.fromQueryParameter(stringStatus);
 
         po = po.stream().filter(t -> queryStatusList.contains(t.getStatus())).toList();
 
-
-        return ResponseEntity.ok(new RestResponsePage<>(StreamUtils.convert(po, this::convertProductAreaToReponse)));
+        return new RestResponsePage<>(StreamUtils.convert(po, this::convertProductAreaToReponse));
     }
 
     @Operation(summary = "Get ProductArea")
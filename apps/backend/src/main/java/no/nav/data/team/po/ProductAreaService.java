@@ -1,6 +1,7 @@
 package no.nav.data.team.po;
 
 import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.NotFoundException;
 import no.nav.data.common.exceptions.ValidationException;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.GenericStorage;
@@ -9,6 +10,7 @@ import no.nav.data.team.cluster.ClusterRepository;
 import no.nav.data.team.po.domain.ProductArea;
 import no.nav.data.team.po.dto.AddTeamsToProductAreaRequest;
 import no.nav.data.team.po.dto.ProductAreaRequest;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import no.nav.data.team.team.TeamRepository;
 import no.nav.data.team.team.domain.Team;
@@ -29,13 +31,15 @@ public class ProductAreaService {
     private final TeamRepository teamRepository;
     private final ClusterRepository clusterRepository;
     private final ProductAreaRepository repository;
+    private final CatalogSnapshotService catalog;
 
     public ProductAreaService(StorageService storage, TeamRepository teamRepository,
-            ClusterRepository clusterRepository, ProductAreaRepository repository) {
+            ClusterRepository clusterRepository, ProductAreaRepository repository, CatalogSnapshotService catalog) {
         this.storage = storage;
         this.teamRepository = teamRepository;
         this.clusterRepository = clusterRepository;
         this.repository = repository;
+        this.catalog = catalog;
     }
 
     public ProductArea save(ProductAreaRequest request) {
@@ -54,7 +58,7 @@ public class ProductAreaService {
     }
 
     public ProductArea get(UUID id) {
-        return storage.get(id, ProductArea.class);
+        return catalog.get().productArea(id).orElseThrow(() -> new NotFoundException("Couldn't find ProductArea with id " + id));
     }
 
     public List<ProductArea> search(String name) {
@@ -79,7 +83,7 @@ public class ProductAreaService {
     }
 
     public List<ProductArea> getAll() {
-        return storage.getAll(ProductArea.class);
+        return catalog.get().productAreas();
     }
 
     public List<ProductArea> getAllActive() {
@@ -0,0 +1,129 @@
+package no.nav.data.team.resource;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Summary;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.utils.MetricUtils;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Coalesces lookups of single keys into batches, so callers can ask for one key at a time while the remote is asked for many.
+ * <p>
+ * Keys asked for by any thread within the window after the first are sent together in one batch, or as soon as the batch is full.
+ * A key already waiting for a batch, or in a batch not yet answered, shares the pending result instead of being sent again.
+ * Keys missing from the result of a batch complete with null.
+ */
+@Slf4j
+class BatchLoader<K, V> {
+
+    private static final Summary batchSummary = MetricUtils.summary()
+            .labels("ressurs").labels("org")
+            .labelNames("loader")
+            .name("nom_graph_batch_size_summary").help("Keys sent per batch to nom graphql")
+            .quantile(.5, .01).quantile(.9, .01).quantile(.99, .001)
+            .maxAgeSeconds(Duration.ofHours(1).getSeconds())
+            .ageBuckets(6)
+            .register();
+    private static final Counter loadCounter = MetricUtils.counter()
+            .labels("ressurs", "sent").labels("ressurs", "coalesced").labels("org", "sent").labels("org", "coalesced")
+            .labelNames("loader", "outcome")
+            .name("nom_graph_load_counter").help("Keys asked for from nom graphql, either sent or coalesced with a pending key").register();
+
+    private final String name;
+    private final Duration window;
+    private final int maxBatchSize;
+    private final Function<Set<K>, Mono<Map<K, V>>> batchFunction;
+
+    private final Object lock = new Object();
+    private Map<K, CompletableFuture<V>> queued = new LinkedHashMap<>();
+    private final Map<K, CompletableFuture<V>> inFlight = new HashMap<>();
+
+    /**
+     * @param batchFunction called with the keys of a batch, the result is mapped by the same keys
+     */
+    BatchLoader(String name, Duration window, int maxBatchSize, Function<Set<K>, Mono<Map<K, V>>> batchFunction) {
+        this.name = name;
+        this.window = window;
+        this.maxBatchSize = maxBatchSize;
+        this.batchFunction = batchFunction;
+    }
+
+    CompletableFuture<V> load(K key) {
+        Map<K, CompletableFuture<V>> full = null;
+        CompletableFuture<V> future;
+        synchronized (lock) {
+            future = inFlight.get(key);
+            if (future == null) {
+                future = queued.get(key);
+            }
+            if (future != null) {
+                loadCounter.labels(name, "coalesced").inc();
+                return future;
+            }
+            future = new CompletableFuture<>();
+            queued.put(key, future);
+            loadCounter.labels(name, "sent").inc();
+            if (queued.size() >= maxBatchSize) {
+                full = takeQueued();
+            } else if (queued.size() == 1) {
+                Mono.delay(window).subscribe(tick -> flush());
+            }
+        }
+        if (full != null) {
+            send(full);
+        }
+        return future;
+    }
+
+    /**
+     * Send the keys queued so far, without waiting for the window
+     */
+    void flush() {
+        Map<K, CompletableFuture<V>> batch;
+        synchronized (lock) {
+            batch = takeQueued();
+        }
+        send(batch);
+    }
+
+    private Map<K, CompletableFuture<V>> takeQueued() {
+        var batch = queued;
+        queued = new LinkedHashMap<>();
+        inFlight.putAll(batch);
+        return batch;
+    }
+
+    private void send(Map<K, CompletableFuture<V>> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        batchSummary.labels(name).observe(batch.size());
+        log.debug("{} batch of {} keys", name, batch.size());
+        Mono<Map<K, V>> result;
+        try {
+            result = batchFunction.apply(batch.keySet());
+        } catch (RuntimeException e) {
+            result = Mono.error(e);
+        }
+        result.defaultIfEmpty(Map.of()).subscribe(
+                values -> complete(batch, (key, future) -> future.complete(values.get(key))),
+                error -> complete(batch, (key, future) -> future.completeExceptionally(error))
+        );
+    }
+
+    private void complete(Map<K, CompletableFuture<V>> batch, BiConsumer<K, CompletableFuture<V>> completion) {
+        synchronized (lock) {
+            batch.keySet().forEach(inFlight::remove);
+        }
+        batch.forEach(completion);
+    }
+}
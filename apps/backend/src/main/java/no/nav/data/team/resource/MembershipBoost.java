@@ -0,0 +1,89 @@
+package no.nav.data.team.resource;
+
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DoubleValues;
+import org.apache.lucene.search.DoubleValuesSource;
+import org.apache.lucene.search.IndexSearcher;
+
+import java.io.IOException;
+
+import static no.nav.data.team.resource.ResourceState.FIELD_INACTIVE;
+import static no.nav.data.team.resource.ResourceState.FIELD_MEMBERSHIPS;
+
+/**
+ * Boost of resources from the doc values of the index, members of teams, product areas or clusters rank higher and inactive resources lower.
+ * Documents without the fields, as from other indexes, get no boost.
+ */
+class MembershipBoost extends DoubleValuesSource {
+
+    static final MembershipBoost INSTANCE = new MembershipBoost();
+
+    private static final double INACTIVE_BOOST = 0.5;
+
+    private MembershipBoost() {
+    }
+
+    /**
+     * 1 for no memberships, growing slowly with the number of memberships
+     */
+    static double boost(long memberships, boolean inactive) {
+        var boost = 1 + Math.log1p(memberships);
+        return inactive ? boost * INACTIVE_BOOST : boost;
+    }
+
+    @Override
+    public DoubleValues getValues(LeafReaderContext ctx, DoubleValues scores) throws IOException {
+        var memberships = DocValues.getNumeric(ctx.reader(), FIELD_MEMBERSHIPS);
+        var inactive = DocValues.getNumeric(ctx.reader(), FIELD_INACTIVE);
+        return new DoubleValues() {
+            private double value;
+
+            @Override
+            public double doubleValue() {
+                return value;
+            }
+
+            @Override
+            public boolean advanceExact(int doc) throws IOException {
+                long count = memberships.advanceExact(doc) ? memberships.longValue() : 0;
+                boolean isInactive = inactive.advanceExact(doc) && inactive.longValue() == 1;
+                value = boost(count, isInactive);
+                return true;
+            }
+        };
+    }
+
+    @Override
+    public boolean needsScores() {
+        return false;
+    }
+
+    @Override
+    public DoubleValuesSource rewrite(IndexSearcher reader) {
+        return this;
+    }
+
+    /**
+     * Membership counts are updated in place, segments with updated doc values are not cached
+     */
+    @Override
+    public boolean isCacheable(LeafReaderContext ctx) {
+        return DocValues.isCacheable(ctx, FIELD_MEMBERSHIPS, FIELD_INACTIVE);
+    }
+
+    @Override
+    public int hashCode() {
+        return MembershipBoost.class.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        return obj instanceof MembershipBoost;
+    }
+
+    @Override
+    public String toString() {
+        return "membershipBoost";
+    }
+}
@@ -1,13 +1,15 @@
 package no.nav.data.team.resource;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.prometheus.client.Counter;
 import io.prometheus.client.Gauge;
-import lombok.SneakyThrows;
+import io.prometheus.client.Summary;
 import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.exceptions.TechnicalException;
 import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.search.NameSearch;
 import no.nav.data.common.storage.StorageService;
-import no.nav.data.common.storage.domain.GenericStorage;
 import no.nav.data.common.utils.MetricUtils;
 import no.nav.data.team.resource.domain.Resource;
 import no.nav.data.team.resource.domain.ResourceEvent;
@@ -17,39 +19,39 @@ import no.nav.data.team.resource.domain.ResourceType;
 import no.nav.data.team.resource.dto.NomRessurs;
 import no.nav.data.team.settings.SettingsService;
 import no.nav.data.team.settings.dto.Settings;
-import org.apache.commons.codec.language.DoubleMetaphone;
-import org.apache.lucene.document.Document;
-import org.apache.lucene.document.Field.Store;
-import org.apache.lucene.document.TextField;
-import org.apache.lucene.index.Term;
-import org.apache.lucene.search.BooleanClause;
-import org.apache.lucene.search.BooleanQuery;
-import org.apache.lucene.search.BoostQuery;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.queries.function.FunctionScoreQuery;
 import org.apache.lucene.search.IndexSearcher;
-import org.apache.lucene.search.MultiPhraseQuery;
-import org.apache.lucene.search.Query;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.Sort;
-import org.apache.lucene.search.TermQuery;
-import org.jetbrains.annotations.NotNull;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.IOUtils.IOFunction;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
+import javax.annotation.PreDestroy;
 
-import static java.util.Comparator.comparing;
-import static java.util.stream.Collectors.groupingBy;
 import static no.nav.data.common.utils.StreamUtils.convert;
+import static no.nav.data.common.utils.StreamUtils.filter;
 import static no.nav.data.team.resource.ResourceState.*;
-import static org.apache.lucene.queryparser.classic.QueryParserBase.escape;
 
 @Slf4j
 @Service
@@ -65,36 +67,103 @@ public class NomClient {
             .name("nom_resources_read_counter").help("Resource events processed").register();
     private static final Counter discardCounter = MetricUtils.counter()
             .name("nom_resources_discard_counter").help("Resource events discarded").register();
+    static final Summary stageSummary = MetricUtils.summary()
+            .labels("parse").labels("diff").labels("index").labels("store").labels("refresh")
+            .labelNames("stage")
+            .name("nom_resources_stage_summary").help("Time taken per stage of reading resources from nom")
+            .quantile(.5, .01).quantile(.9, .01).quantile(.99, .001)
+            .maxAgeSeconds(Duration.ofHours(1).getSeconds())
+            .ageBuckets(6)
+            .register();
+
+    private final Cache<String, SearchResult> searchCache = MetricUtils.register("nomSearchCache", Caffeine.newBuilder().recordStats()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(1000).build());
 
     private final StorageService storage;
     private final SettingsService settingsService;
     private final ResourceRepository resourceRepository;
+    private final Path indexDir;
+    /**
+     * Highest offset per partition of the batches indexed, committed with the index
+     */
+    private final Map<Integer, Long> indexedOffsets = new ConcurrentHashMap<>();
 
     private static NomClient instance;
+    private final Object diffLock = new Object();
+    private final Object[] indexLocks = Stream.generate(Object::new).limit(64).toArray();
+    private boolean restored;
 
     public static NomClient getInstance() {
         return instance;
     }
 
+    /**
+     * Index in a temporary directory, reindexed from the database on every restore
+     */
     public NomClient(StorageService storage, SettingsService settingsService, ResourceRepository resourceRepository) {
+        this(storage, settingsService, resourceRepository, null);
+    }
+
+    /**
+     * @param indexDir where the index is kept between runs, null for a temporary directory
+     */
+    @Autowired
+    public NomClient(StorageService storage, SettingsService settingsService, ResourceRepository resourceRepository,
+            @Value("${team-catalog.resource-index.dir:#{systemProperties['java.io.tmpdir']}/team-catalog-resource-index}") Path indexDir) {
         this.storage = storage;
         this.settingsService = settingsService;
         this.resourceRepository = resourceRepository;
-        // Initialize index
-        try (var writer = createWriter()) {
-            writer.commit();
-        } catch (Exception e) {
-            throw new TechnicalException("io error", e);
-        }
+        this.indexDir = indexDir;
         instance = this;
     }
 
     public Optional<Resource> getByNavIdent(String navIdent) {
         return ResourceState.get(navIdent)
-                .or(() -> resourceRepository.findByIdent(navIdent).map(GenericStorage::toResource).map(Resource::stale))
+                .or(() -> resourceRepository.findByIdent(navIdent).map(Resource::stale))
                 .filter(r -> shouldReturn(r.getNavIdent()));
     }
 
+    /**
+     * Resources of many idents at once, idents not held in memory are looked up in a single query.
+     * Idents that are unknown or filtered by settings are left out.
+     */
+    public List<Resource> getByNavIdents(Collection<String> navIdents) {
+        var resources = new ArrayList<>(ResourceState.getAll(navIdents).values());
+        var misses = navIdents.stream().filter(navIdent -> ResourceState.get(navIdent).isEmpty()).toList();
+        if (!misses.isEmpty()) {
+            findResources(misses).values().forEach(resource -> resources.add(resource.stale()));
+        }
+        return filter(resources, r -> shouldReturn(r.getNavIdent()));
+    }
+
+    /**
+     * Resolve the resource type of many idents at once, idents not held in memory are looked up in a single query.
+     * Idents that are unknown or filtered by settings are left out.
+     */
+    public Map<String, ResourceType> getResourceTypes(Collection<String> navIdents) {
+        Settings settings = settingsService.getSettingsCached();
+        var types = new HashMap<String, ResourceType>(navIdents.size());
+        var misses = new ArrayList<String>();
+        for (String navIdent : navIdents) {
+            if (navIdent == null || (settings != null && settings.isFilteredIdent(navIdent))) {
+                continue;
+            }
+            var type = ResourceState.getType(navIdent);
+            if (type != null) {
+                types.put(navIdent, type);
+            } else {
+                misses.add(navIdent);
+            }
+        }
+        if (!misses.isEmpty()) {
+            var found = findResources(misses);
+            misses.forEach(navIdent -> Optional.ofNullable(found.get(navIdent.toUpperCase()))
+                    .ifPresent(resource -> types.put(navIdent, resource.getResourceType())));
+        }
+        return types;
+    }
+
     public Optional<Resource> getByEmail(String email) {
         return ResourceState.getByEmail(email)
                 .filter(r -> shouldReturn(r.getNavIdent()));
@@ -107,158 +176,177 @@ public class NomClient {
                 .map(Resource::getFullName);
     }
 
-    @SneakyThrows
     public RestResponsePage<Resource> search(String searchString) {
+        var result = searchCache.get(searchString.toLowerCase().trim(), this::searchIndex);
+        List<Resource> list = result.idents().stream()
+                .filter(this::shouldReturn)
+                .map(navIdent -> getByNavIdent(navIdent).orElseThrow())
+                .collect(Collectors.toList());
 
-        try (var reader = createReader()) {
-            IndexSearcher searcher = new IndexSearcher(reader);
-            var q = searchStringToCustomQuery(searchString, searcher);
-
-            var top = searcher.search(q, MAX_SEARCH_RESULTS, Sort.RELEVANCE);
-            log.debug("query '{}' hits {} returned {}", q.toString(), top.totalHits.value, top.scoreDocs.length);
-            List<Resource> list = Stream.of(top.scoreDocs)
-                    .map(sd -> getIdent(sd, searcher))
-                    .filter(this::shouldReturn)
-                    .map(navIdent -> getByNavIdent(navIdent).orElseThrow())
-
-                    // this is easier than adding "membership" fields to the lucene index that needs to be kept in sync
-                    .sorted(compareNavIdByMembershipStatus())
-                    .collect(Collectors.toList());
+        return new RestResponsePage<>(list, result.totalHits());
+    }
 
+    /**
+     * Top hits straight from the index, idents are read from doc values.
+     * Scores are boosted by memberships inside the query, see {@link MembershipBoost}.
+     */
+    SearchResult searchIndex(String searchString) {
+        try {
+            return ResourceState.search(searcher -> {
+                var q = FunctionScoreQuery.boostByValue(NameSearch.createQuery(searchString), MembershipBoost.INSTANCE);
 
-            return new RestResponsePage<>(list, top.totalHits.value);
+                var top = searcher.search(q, MAX_SEARCH_RESULTS, Sort.RELEVANCE);
+                log.debug("query '{}' hits {} returned {}", q.toString(), top.totalHits.value, top.scoreDocs.length);
+                return new SearchResult(getIdents(top.scoreDocs, searcher), top.totalHits.value);
+            });
         } catch (IOException e) {
             log.error("Failed to read lucene index", e);
             throw new TechnicalException("Failed to read lucene index", e);
         }
     }
 
-    @NotNull
-
-    // navIds associated with memberships should be valued higher
-    private Comparator<Resource> compareNavIdByMembershipStatus() {
-//        return (a, b) -> {
-//            var aIsMemberSomewhere = isMemberSomewhere(a.getNavIdent());
-//            var bIsMemberSomewhere = isMemberSomewhere(b.getNavIdent());
-//            if (aIsMemberSomewhere == bIsMemberSomewhere) return 0;
-//            return (aIsMemberSomewhere) ? -1 : 1;
-//        };
-        return (a,b) -> 0;
+    /**
+     * Read the resource index together with other indexes, the reader is only valid during the call
+     */
+    public <T> T readIndex(IOFunction<IndexReader, T> function) throws IOException {
+        return ResourceState.search(searcher -> function.apply(searcher.getIndexReader()));
     }
 
-    private Boolean isMemberSomewhere(String navIdent) {
-        // TODO, consult team and area memberships
-        var rand = new Random(navIdent.hashCode());
-        return rand.nextBoolean();
+    /**
+     * Load the resources stored by earlier runs into memory, once after startup or {@link #clear()},
+     * so the NOM topic can be resumed instead of read from the beginning.
+     * <p>
+     * Only the resources read after the last commit of the kept index are indexed. The whole index is rebuilt if it can not be opened,
+     * or has offsets past the ones stored, such as after the database was reset.
+     *
+     * @return highest offset read per partition
+     */
+    public synchronized Map<Integer, Long> restore() {
+        if (!restored) {
+            var stored = resourceRepository.findAll();
+            try {
+                putAll(stored);
+                var offsets = getOffsets();
+                var committed = openIndex();
+                boolean behind = committed.entrySet().stream().allMatch(e -> e.getValue() <= offsets.getOrDefault(e.getKey(), -1L));
+                if (!behind) {
+                    log.warn("resource index has offsets {} past the stored offsets {}, rebuilding", committed, offsets);
+                    getWriter().deleteAll();
+                    committed = Map.of();
+                }
+                var writer = getWriter();
+                int indexed = 0;
+                for (Resource resource : stored) {
+                    if (resource.getOffset() > committed.getOrDefault(resource.getPartition(), -1L)) {
+                        index(writer, resource);
+                        indexed++;
+                    }
+                }
+                indexedOffsets.clear();
+                indexedOffsets.putAll(offsets);
+                refresh();
+                commit();
+                log.info("restored {} resources, offsets {}, indexed {} after committed offsets {}", stored.size(), offsets, indexed, committed);
+            } catch (IOException e) {
+                log.error("Failed to write to index", e);
+                throw new TechnicalException("Lucene error", e);
+            }
+            restored = true;
+            gauge.set(count());
+        }
+        return getOffsets();
     }
 
-    @SneakyThrows
-    private Query searchStringToCustomQuery(String searchString, IndexSearcher searcher) {
-
-        var phrasePhoneticQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
-        var phraseNgramQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
-        var phraseVerbatimQryBuilder = new MultiPhraseQuery.Builder().setSlop(4);
-
-        var booleanPhoneticQryBuilder = new BooleanQuery.Builder();
-        var booleanNgramQryBuilder = new BooleanQuery.Builder();
-        var booleanVerbatimQryBuilder = new BooleanQuery.Builder();
-
-
-        var esc = escape(searchString.toLowerCase().replace("-", " ")).trim();
-        var splitString = esc.split(" +");
-        var doubleMetaphoneEncoder = new DoubleMetaphone();
-
-        for (var s : splitString) {
-            var sMetaphone = doubleMetaphoneEncoder.doubleMetaphone(s);
-
-            phrasePhoneticQryBuilder.add(new Term(FIELD_NAME_PHONETIC, sMetaphone));
-            phraseNgramQryBuilder.add(new Term(FIELD_NAME_NGRAMS, s));
-            phraseVerbatimQryBuilder.add(new Term(FIELD_NAME_VERBATIM, s));
-
-            booleanPhoneticQryBuilder.add(new TermQuery(new Term(FIELD_NAME_PHONETIC, sMetaphone)), BooleanClause.Occur.SHOULD);
-            booleanNgramQryBuilder.add(new TermQuery(new Term(FIELD_NAME_NGRAMS, s)), BooleanClause.Occur.SHOULD);
-            booleanVerbatimQryBuilder.add(new TermQuery(new Term(FIELD_NAME_VERBATIM, s)), BooleanClause.Occur.SHOULD);
+    /**
+     * Commit the index with the offsets indexed, so a restart can resume indexing from them
+     */
+    @Scheduled(initialDelayString = "PT1M", fixedRateString = "PT1M")
+    public void commit() {
+        try {
+            ResourceState.commit(Map.copyOf(indexedOffsets));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to commit index", e);
         }
+    }
 
-        var phrasePhoneticQry = phrasePhoneticQryBuilder.build();
-        var phraseNgramQry = phraseNgramQryBuilder.build();
-        var phraseVerbatimQry = phraseVerbatimQryBuilder.build();
-
-        var booleanPhoneticQry = booleanPhoneticQryBuilder.build();
-        var booleanNgramQry = booleanNgramQryBuilder.build();
-        var booleanVerbatimQry = booleanVerbatimQryBuilder.build();
-
-//        var boost1 = 1.5f;
-//        phrasePhoneticQry.createWeight(searcher, ScoreMode.COMPLETE, boost1);
-//        phraseNgramQry.createWeight(searcher, ScoreMode.COMPLETE, boost1);
-//        phraseVerbatimQry.createWeight(searcher, ScoreMode.COMPLETE, boost1);
-//
-//        var boost2 = 1f;
-//        booleanPhoneticQry.createWeight(searcher, ScoreMode.COMPLETE, boost2);
-//        booleanNgramQry.createWeight(searcher, ScoreMode.COMPLETE, boost2);
-//        booleanVerbatimQry.createWeight(searcher, ScoreMode.COMPLETE, boost2);
-
-
-        var overallBooleanQueryBuilder = new BooleanQuery.Builder()
-                .add(booleanPhoneticQry, BooleanClause.Occur.SHOULD)
-                .add(booleanNgramQry, BooleanClause.Occur.SHOULD)
-                .add(booleanVerbatimQry, BooleanClause.Occur.SHOULD);
-
-        var overallQueryBuilder = new BooleanQuery.Builder()
-                .add(phrasePhoneticQry, BooleanClause.Occur.SHOULD)
-                .add(phraseNgramQry, BooleanClause.Occur.SHOULD)
-                .add(phraseVerbatimQry, BooleanClause.Occur.SHOULD)
-                .add(new BoostQuery(overallBooleanQueryBuilder.build(), 0.05f), BooleanClause.Occur.SHOULD);
-
-
-        var overallQry = overallQueryBuilder.build();
-//        overallQry.createWeight(searcher,ScoreMode.TOP_DOCS,0.5f);
-
-        return overallQueryBuilder.build();
+    /**
+     * Commit and close the kept index, resources are restored again on next use
+     */
+    @PreDestroy
+    public synchronized void close() {
+        commit();
+        ResourceState.close();
+        indexedOffsets.clear();
+        restored = false;
     }
 
+    /**
+     * @return offsets committed with the kept index, empty if there is none
+     */
+    private Map<Integer, Long> openIndex() {
+        if (indexDir == null) {
+            return Map.of();
+        }
+        try {
+            return ResourceState.open(indexDir);
+        } catch (IOException e) {
+            // such as locked by another process on the same disk, the temporary index is used
+            log.warn("Failed to open index in {}, indexing all resources", indexDir, e);
+            return Map.of();
+        }
+    }
 
+    /**
+     * Called from one consumer thread per partition, the stages are timed separately.
+     * <p>
+     * Diffing against the state and putting the new resources is atomic, so the state never goes back to an older offset.
+     * Only the resources the diff put are indexed, in parallel on the shared writer, each ident locked while checking it is still the one held
+     * and indexing it, so a document is never replaced by an older one. The database writes are bounded by the connection pool.
+     */
     public List<Resource> add(List<NomRessurs> nomResources) {
-        if (count() == 0) { // State er tom == Startup => re-laste ResourceState fra basen
-            storage.getAll(Resource.class).forEach( r ->
-                    put(r)
-            );
-        }
+        restore();
         try {
+            var resources = convert(nomResources, Resource::new);
             var toSave = new ArrayList<Resource>();
-            try (var writer = createWriter()) {
-                Map<String, Resource> existingState = findAll(convert(nomResources, NomRessurs::getNavident)).stream().collect(Collectors.toMap(r -> r.getNavIdent(), r -> r));
-                for (NomRessurs nomResource : nomResources) {
-                    var resource = new Resource(nomResource);
-                    ResourceStatus status = shouldSave(existingState, resource);
-                    if (status.shouldSave) {
-                        toSave.add(resource);
-                        if (status.previous != null) {
-                            checkEvents(status.previous, resource);
+            var events = new ArrayList<ResourceStatus>();
+            try (var ignored = stageSummary.labels("diff").startTimer()) {
+                synchronized (diffLock) {
+                    Map<String, Resource> existingState = getAll(convert(resources, Resource::getNavIdent));
+                    for (Resource resource : resources) {
+                        ResourceStatus status = shouldSave(existingState, resource);
+                        if (status.shouldSave) {
+                            toSave.add(resource);
+                            if (status.previous != null) {
+                                events.add(status);
+                            }
                         }
-                        put(resource);
                     }
-
-                    var luceneIdent = resource.getNavIdent().toLowerCase();
-                    var identTerm = new Term(FIELD_IDENT, luceneIdent);
-                    if (resource.getResourceType() == ResourceType.OTHER) {
-                        // Other resource types shouldn't be searchable, they should not ordinarily be a part of teams
-                        writer.deleteDocuments(identTerm);
-                        discardCounter.inc();
-                        continue;
+                    putAll(toSave);
+                }
+            }
+            try (var ignored = stageSummary.labels("index").startTimer()) {
+                var writer = getWriter();
+                // records the diff rejected are older than the resources held, their documents would replace newer ones
+                discardCounter.inc(resources.size() - toSave.size());
+                for (Resource resource : toSave) {
+                    synchronized (indexLocks[Math.floorMod(resource.getNavIdent().toUpperCase().hashCode(), indexLocks.length)]) {
+                        // a batch diffed after this one may have replaced the resource, and indexes it after taking the lock
+                        if (ResourceState.isCurrent(resource) && index(writer, resource)) {
+                            counter.inc();
+                        } else {
+                            discardCounter.inc();
+                        }
                     }
-                    Document doc = new Document();
-                    String name = resource.getGivenName() + " " + resource.getFamilyName();
-                    doc.add(new TextField(FIELD_NAME_VERBATIM, name, Store.NO));
-                    doc.add(new TextField(FIELD_NAME_NGRAMS, name, Store.NO));
-                    doc.add(new TextField(FIELD_NAME_PHONETIC, name, Store.NO));
-
-                    doc.add(new TextField(FIELD_IDENT, luceneIdent, Store.YES));
-
-                    writer.updateDocument(identTerm, doc);
-                    counter.inc();
                 }
-                storage.saveAll(toSave);
+            }
+            // every record of the batch is either indexed or older than the resource indexed for its ident
+            resources.forEach(resource -> indexedOffsets.merge(resource.getPartition(), resource.getOffset(), Math::max));
+            try (var ignored = stageSummary.labels("store").startTimer()) {
+                events.forEach(event -> checkEvents(event.previous(), event.current()));
+                resourceRepository.upsertAll(toSave);
+            }
+            try (var ignored = stageSummary.labels("refresh").startTimer()) {
+                refresh();
             }
             gauge.set(count());
             return toSave;
@@ -268,16 +356,28 @@ public class NomClient {
         }
     }
 
-    private ResourceStatus shouldSave(Map<String, Resource> existing, Resource resource) {
-        var newest = existing.get(resource.getNavIdent());
-        boolean shouldSave = newest == null || newest.getOffset() < resource.getOffset();
-        return new ResourceStatus(shouldSave, newest);
+    /**
+     * @return false if the resource is not searchable
+     */
+    private boolean index(IndexWriter writer, Resource resource) throws IOException {
+        var luceneIdent = resource.getNavIdent().toLowerCase();
+        if (resource.getResourceType() == ResourceType.OTHER) {
+            // Other resource types shouldn't be searchable, they should not ordinarily be a part of teams
+            writer.deleteDocuments(NameSearch.idTerm(luceneIdent));
+            return false;
+        }
+        String name = resource.getGivenName() + " " + resource.getFamilyName();
+        var doc = NameSearch.createDocument(ResourceState.TYPE, luceneIdent, name);
+        doc.add(new NumericDocValuesField(FIELD_INACTIVE, resource.isInactive() ? 1 : 0));
+        doc.add(new SortedDocValuesField(FIELD_RESOURCE_TYPE, new BytesRef(resource.getResourceType().name())));
+        ResourceState.updateDocument(luceneIdent, doc);
+        return true;
     }
 
-    private ResourceStatus shouldSaveOld(Map<String, List<Resource>> existing, Resource resource) {
-        var newest = existing.getOrDefault(resource.getNavIdent(), List.of()).stream().max(comparing(Resource::getOffset));
-        boolean shouldSave = newest.isEmpty() || newest.get().getOffset() < resource.getOffset();
-        return new ResourceStatus(shouldSave, newest.orElse(null));
+    private ResourceStatus shouldSave(Map<String, Resource> existing, Resource resource) {
+        var newest = existing.get(resource.getNavIdent().toUpperCase());
+        boolean shouldSave = newest == null || newest.getOffset() < resource.getOffset();
+        return new ResourceStatus(shouldSave, newest, resource);
     }
 
     private void checkEvents(Resource previous, Resource current) {
@@ -287,22 +387,49 @@ public class NomClient {
         }
     }
 
-    private Map<String, List<Resource>> findResources(List<String> idents) {
+    private Map<String, Resource> findResources(List<String> idents) {
         return resourceRepository.findByIdents(idents).stream()
-                .map(GenericStorage::toResource)
-                .collect(groupingBy(Resource::getNavIdent));
+                .collect(Collectors.toMap(Resource::getNavIdent, r -> r));
     }
 
     public long count() {
         return ResourceState.count();
     }
 
+    /**
+     * Membership counts by upper case ident, used to rank search results
+     */
+    public void setMemberships(Map<String, Integer> counts) {
+        boolean changed;
+        try {
+            changed = ResourceState.putMemberships(counts);
+        } catch (IOException e) {
+            log.error("Failed to write to index", e);
+            throw new TechnicalException("Lucene error", e);
+        }
+        // most catalog writes change no membership, and then the searches are still current
+        if (changed) {
+            refresh();
+        }
+    }
+
+    /**
+     * Grows with every write to the resources held on this node, only comparable on this node.
+     * Resources are read from NOM by each node, so the catalog version of resources can get ahead of the resources held here.
+     */
+    public long getGeneration() {
+        return ResourceState.generation();
+    }
+
     public long countDb() {
         return resourceRepository.count();
     }
 
-    public void clear() {
+    public synchronized void clear() {
         ResourceState.clear();
+        indexedOffsets.clear();
+        searchCache.invalidateAll();
+        restored = false;
     }
 
     @Scheduled(initialDelayString = "PT1M", fixedRateString = "PT1M")
@@ -311,17 +438,25 @@ public class NomClient {
         dbGauge.set(countDb());
     }
 
-    @Scheduled(initialDelayString = "PT10M", fixedRateString = "PT10M")
-    public void cleanup() {
-        resourceRepository.cleanup();
+    private static List<String> getIdents(ScoreDoc[] scoreDocs, IndexSearcher searcher) throws IOException {
+        var leaves = searcher.getIndexReader().leaves();
+        var idents = new ArrayList<String>(scoreDocs.length);
+        for (ScoreDoc sd : scoreDocs) {
+            var leaf = leaves.get(ReaderUtil.subIndex(sd.doc, leaves));
+            var values = leaf.reader().getSortedDocValues(NameSearch.FIELD_ID);
+            if (values != null && values.advanceExact(sd.doc - leaf.docBase)) {
+                idents.add(values.lookupOrd(values.ordValue()).utf8ToString());
+            }
+        }
+        return idents;
     }
 
-    private String getIdent(ScoreDoc sd, IndexSearcher searcher) {
-        try {
-            return searcher.doc(sd.doc).get(FIELD_IDENT);
-        } catch (Exception e) {
-            throw new TechnicalException("io error", e);
-        }
+    /**
+     * Make indexed changes searchable, and drop cached results
+     */
+    private void refresh() {
+        ResourceState.refresh();
+        searchCache.invalidateAll();
     }
 
     private boolean shouldReturn(String navIdent) {
@@ -330,7 +465,11 @@ public class NomClient {
         return settings == null || !settings.isFilteredIdent(navIdent);
     }
 
-    record ResourceStatus(boolean shouldSave, Resource previous) {
+    record ResourceStatus(boolean shouldSave, Resource previous, Resource current) {
+
+    }
+
+    record SearchResult(List<String> idents, long totalHits) {
 
     }
 
@@ -1,8 +1,10 @@
 package no.nav.data.team.resource;
 
 import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.github.benmanes.caffeine.cache.AsyncCache;
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import io.prometheus.client.Gauge;
 import lombok.RequiredArgsConstructor;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
@@ -12,8 +14,10 @@ import no.nav.data.common.utils.DateUtil;
 import no.nav.data.common.utils.JsonUtils;
 import no.nav.data.common.utils.MetricUtils;
 import no.nav.data.common.utils.StreamUtils;
+import no.nav.data.common.web.TraceHeaderFilter;
 import no.nav.data.team.integration.process.GraphQLRequest;
 import no.nav.data.team.org.OrgUrlId;
+import no.nav.data.team.resource.dto.NomGraphQlResponse.MultiOrg;
 import no.nav.data.team.resource.dto.NomGraphQlResponse.MultiRessurs;
 import no.nav.data.team.resource.dto.NomGraphQlResponse.SingleOrg;
 import no.nav.data.team.resource.dto.NomGraphQlResponse.SingleRessurs;
@@ -25,23 +29,38 @@ import no.nav.nom.graphql.model.OrganisasjonsenhetsKoblingDto;
 import no.nav.nom.graphql.model.OrganisasjonsenhetsLederDto;
 import no.nav.nom.graphql.model.OrganiseringDto;
 import no.nav.nom.graphql.model.RessursDto;
+import no.nav.nom.graphql.model.RessursKoblingDto;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.lang.Nullable;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.util.ReflectionUtils;
 import org.springframework.web.client.RestOperations;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.lang.reflect.Method;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.StringJoiner;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Stream;
 
 import static java.util.Objects.requireNonNull;
@@ -50,6 +69,13 @@ import static no.nav.data.common.web.TraceHeaderRequestInterceptor.correlationIn
 
 /**
  * Cannot be used in dev atm, as teamkat runs as nav.no, and nom as trygdeetaten.no
+ * <p>
+ * Ressurser and organisasjonsenheter missing from the caches are fetched through {@link BatchLoader}s on a {@link WebClient},
+ * so lookups from concurrent requests, and the units of one resource, are sent to nom as one query per batch.
+ * <p>
+ * The whole organisation is also kept as an {@link OrgTree}, reloaded in the background.
+ * Units and leader members are answered from the tree once loaded, the tree in use is kept until a reload succeeds,
+ * so requests neither wait for nom nor fail when nom is slow or down. Units not in the tree fall back to the caches.
  */
 @Slf4j
 @Service
@@ -57,7 +83,9 @@ import static no.nav.data.common.web.TraceHeaderRequestInterceptor.correlationIn
 public class NomGraphClient {
 
     private RestTemplate restTemplate;
+    private WebClient webClient;
     private final RestTemplateBuilder restTemplateBuilder;
+    private final WebClient.Builder webClientBuilder;
     private final SecurityProperties securityProperties;
     private final TokenProvider tokenProvider;
     private final NomGraphQLProperties properties;
@@ -65,17 +93,35 @@ public class NomGraphClient {
     private static final String getResourceQuery = StreamUtils.readCpFile("nom/graphql/queries/get_org_for_ident.graphql");
     private static final String getOrgQuery = StreamUtils.readCpFile("nom/graphql/queries/get_org_with_organiseringer.graphql");
     private static final String getLeaderMemberQuery = StreamUtils.readCpFile("nom/graphql/queries/get_personer_for_org.graphql");
+    private static final String orgSelection = selectionOf(getOrgQuery);
     private static final String scopeTemplate = "api://%s-gcp.nom.nom-api/.default";
 
-    private static final Cache<String, RessursDto> ressursCache = MetricUtils.register("nomRessursCache",
-            Caffeine.newBuilder().recordStats()
-                    .expireAfterWrite(Duration.ofMinutes(10))
-                    .maximumSize(1000).build());
+    private static final Duration BATCH_WINDOW = Duration.ofMillis(5);
+    private static final int MAX_RESSURS_BATCH = 100;
+    private static final int MAX_ORG_BATCH = 20;
+    private static final int ORG_TREE_CONCURRENCY = 4;
+    private static final Duration ORG_TREE_TIMEOUT = Duration.ofMinutes(5);
+    private static final String ORG_TREE_ROOT = "0_NAV";
 
-    private static final Cache<String, OrganisasjonsenhetDto> orgCache = MetricUtils.register("nomOrgCache",
-            Caffeine.newBuilder().recordStats()
-                    .expireAfterWrite(Duration.ofMinutes(10))
-                    .maximumSize(1000).build());
+    private static final Gauge orgTreeGauge = MetricUtils.gauge()
+            .name("nom_org_tree_gauge").help("Units in the nom org tree").register();
+
+    private static final AsyncCache<String, RessursDto> ressursCache = Caffeine.newBuilder().recordStats()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(1000).buildAsync();
+
+    private static final AsyncCache<String, OrganisasjonsenhetDto> orgCache = Caffeine.newBuilder().recordStats()
+            .expireAfterWrite(Duration.ofMinutes(10))
+            .maximumSize(1000).buildAsync();
+
+    static {
+        MetricUtils.register("nomRessursCache", ressursCache.synchronous());
+        MetricUtils.register("nomOrgCache", orgCache.synchronous());
+    }
+
+    private final BatchLoader<String, RessursDto> ressursLoader = new BatchLoader<>("ressurs", BATCH_WINDOW, MAX_RESSURS_BATCH, this::fetchRessurser);
+    private final BatchLoader<String, OrganisasjonsenhetDto> orgLoader = new BatchLoader<>("org", BATCH_WINDOW, MAX_ORG_BATCH, this::fetchOrgEnheter);
+    private volatile OrgTree orgTree = OrgTree.EMPTY;
 
     private static final Cache<String, List<String>> leaderCache = MetricUtils.register("nomLeaderCache",
             Caffeine.newBuilder().recordStats()
@@ -87,38 +133,197 @@ public class NomGraphClient {
     }
 
     public Optional<OrganisasjonsenhetDto> getOrgEnhet(String orgUrl) {
-        var org = orgCache.get(orgUrl, key -> {
-            var orgUrlData = new OrgUrlId(orgUrl);
-            Map<String,Object> orgMap = Map.of("agressoId",orgUrlData.getAgressoId(), "orgNiv", orgUrlData.getOrgNiv());
-
-            var req = new GraphQLRequest(getOrgQuery, orgMap);
+        return orgTree.get(orgUrl)
+                .or(() -> Optional.ofNullable(join(orgCache.get(orgUrl, (key, executor) -> orgLoader.load(key)))));
+    }
 
-            var res = template().postForEntity(properties.getUrl(), req, SingleOrg.class);
-            logErrors("getOrgWithOrganiseringer", res.getBody());
-            var organisasjonsenhet = requireNonNull(res.getBody()).getData().getOrganisasjonsenhet();
-            if (organisasjonsenhet != null) {
-                organisasjonsenhet.setOrganiseringer(distinctByKey(organisasjonsenhet.getOrganiseringer(), o -> o.getOrganisasjonsenhet().getAgressoId()));
+    /**
+     * Reload the org tree from the top, level by level. The current tree is replaced only if the whole tree was read.
+     */
+    @Scheduled(initialDelayString = "${client.nom.graphql.org-tree-initial-delay:PT30S}", fixedDelayString = "${client.nom.graphql.org-tree-refresh:PT10M}")
+    public void refreshOrgTree() {
+        if (!properties.isOrgTree()) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        try {
+            var tree = OrgTree.load(ORG_TREE_ROOT, this::fetchOrgLevel);
+            if (tree.isEmpty()) {
+                log.warn("nom org tree read empty, keeping tree of {} units from {}", orgTree.size(), orgTree.getLoaded());
+                return;
             }
-            return organisasjonsenhet;
-        });
-        return Optional.ofNullable(org);
+            orgTree = tree;
+            orgTreeGauge.set(tree.size());
+            log.info("nom org tree read {} units in {}ms", tree.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            log.warn("failed to read nom org tree, keeping tree of {} units from {}", orgTree.size(), orgTree.getLoaded(), e);
+        }
+    }
+
+    private Map<String, OrganisasjonsenhetDto> fetchOrgLevel(Set<String> orgUrls) {
+        var chunks = new ArrayList<Set<String>>();
+        var ids = new ArrayList<>(orgUrls);
+        for (int i = 0; i < ids.size(); i += MAX_ORG_BATCH) {
+            chunks.add(Set.copyOf(ids.subList(i, Math.min(i + MAX_ORG_BATCH, ids.size()))));
+        }
+        return Flux.fromIterable(chunks)
+                .flatMap(this::fetchOrgEnheter, ORG_TREE_CONCURRENCY)
+                .reduce(new HashMap<String, OrganisasjonsenhetDto>(), (all, orgs) -> {
+                    all.putAll(orgs);
+                    return all;
+                })
+                .block(ORG_TREE_TIMEOUT);
     }
 
     public Optional<ResourceUnitsResponse> getUnits(String navIdent) {
         return getRessurs(navIdent)
-                .map(r -> ResourceUnitsResponse.from(r, getLeaderMembers(navIdent), this::getOrgEnhet));
+                .map(r -> {
+                    prefetchUnits(r);
+                    return ResourceUnitsResponse.from(r, getLeaderMembers(navIdent), this::getOrgEnhet);
+                });
+    }
+
+    /**
+     * Units of the resource are looked up one by one when the response is built, ask for them all up front so they are fetched in one batch
+     */
+    private void prefetchUnits(RessursDto ressurs) {
+        var futures = StreamUtils.safeStream(ressurs.getKoblinger())
+                .filter(dto -> DateUtil.isNow(dto.getGyldigFom(), dto.getGyldigTom()))
+                .map(RessursKoblingDto::getOrganisasjonsenhet)
+                .map(org -> new OrgUrlId(org.getOrgNiv(), org.getAgressoId()).asUrlIdStr())
+                .distinct()
+                .filter(orgUrl -> orgTree.get(orgUrl).isEmpty())
+                .map(orgUrl -> orgCache.get(orgUrl, (key, executor) -> orgLoader.load(key)))
+                .toList();
+        futures.forEach(NomGraphClient::join);
     }
 
     private Map<String, RessursDto> getRessurser(List<String> navIdents) {
-        return ressursCache.getAll(navIdents, idents -> {
-            var req = new GraphQLRequest(getResourceQuery, Map.of("navIdenter", idents));
-            var res = template().postForEntity(properties.getUrl(), req, MultiRessurs.class);
-            logErrors("getDepartments", res.getBody());
-            return requireNonNull(res.getBody()).getData().getRessurserAsMap();
+        var futures = new LinkedHashMap<String, CompletableFuture<RessursDto>>();
+        navIdents.forEach(ident -> futures.put(ident, ressursCache.get(ident, (key, executor) -> ressursLoader.load(key))));
+        var ressurser = new HashMap<String, RessursDto>();
+        futures.forEach((ident, future) -> {
+            var ressurs = join(future);
+            if (ressurs != null) {
+                ressurser.put(ident, ressurs);
+            }
         });
+        return ressurser;
+    }
+
+    private Mono<Map<String, RessursDto>> fetchRessurser(Set<String> navIdents) {
+        var req = new GraphQLRequest(getResourceQuery, Map.of("navIdenter", List.copyOf(navIdents)));
+        return post(req, MultiRessurs.class)
+                .doOnNext(res -> logErrors("getDepartments", res))
+                .map(res -> res.getData().getRessurserAsMap());
+    }
+
+    /**
+     * A single org is asked for with the query of one org, several with one alias per org in the same query
+     */
+    private Mono<Map<String, OrganisasjonsenhetDto>> fetchOrgEnheter(Set<String> orgUrls) {
+        if (orgUrls.size() == 1) {
+            var orgUrl = orgUrls.iterator().next();
+            var req = new GraphQLRequest(getOrgQuery, orgVariables(orgUrl, ""));
+            return post(req, SingleOrg.class)
+                    .doOnNext(res -> logErrors("getOrgWithOrganiseringer", res))
+                    .map(res -> {
+                        var organisasjonsenhet = distinctOrganiseringer(res.getData().getOrganisasjonsenhet());
+                        return organisasjonsenhet == null ? Map.of() : Map.of(orgUrl, organisasjonsenhet);
+                    });
+        }
+        var aliases = new ArrayList<>(orgUrls);
+        var variables = new HashMap<String, Object>();
+        for (int i = 0; i < aliases.size(); i++) {
+            variables.putAll(orgVariables(aliases.get(i), String.valueOf(i)));
+        }
+        var req = new GraphQLRequest(createMultiOrgQuery(aliases.size()), variables);
+        return post(req, MultiOrg.class)
+                .doOnNext(res -> logErrors("getOrgsWithOrganiseringer", res))
+                .map(res -> {
+                    var orgs = new HashMap<String, OrganisasjonsenhetDto>();
+                    for (int i = 0; i < aliases.size(); i++) {
+                        var organisasjonsenhet = distinctOrganiseringer(res.getData().get("org" + i));
+                        if (organisasjonsenhet != null) {
+                            orgs.put(aliases.get(i), organisasjonsenhet);
+                        }
+                    }
+                    return orgs;
+                });
+    }
+
+    private static Map<String, Object> orgVariables(String orgUrl, String suffix) {
+        var orgUrlData = new OrgUrlId(orgUrl);
+        return Map.of("agressoId" + suffix, orgUrlData.getAgressoId(), "orgNiv" + suffix, orgUrlData.getOrgNiv());
+    }
+
+    private static OrganisasjonsenhetDto distinctOrganiseringer(@Nullable OrganisasjonsenhetDto organisasjonsenhet) {
+        if (organisasjonsenhet != null) {
+            organisasjonsenhet.setOrganiseringer(distinctByKey(organisasjonsenhet.getOrganiseringer(), o -> o.getOrganisasjonsenhet().getAgressoId()));
+        }
+        return organisasjonsenhet;
+    }
+
+    /**
+     * The org of the query of one org repeated under the aliases org0..orgN, with the variables suffixed by the index
+     */
+    static String createMultiOrgQuery(int count) {
+        var variables = new StringJoiner(", ", "query getOrgsWithOrganiseringer(", ") {\n");
+        var fields = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            variables.add("$agressoId%1$d: String!, $orgNiv%1$d: String!".formatted(i));
+            fields.append("    org%1$d: organisasjonsenhet(where: {agressoId: $agressoId%1$d, orgNiv: $orgNiv%1$d}) ".formatted(i))
+                    .append(orgSelection)
+                    .append('\n');
+        }
+        return variables + fields.toString() + "}";
+    }
+
+    /**
+     * @return the selection of the organisasjonsenhet field of the query, braces included
+     */
+    private static String selectionOf(String orgQuery) {
+        var arguments = orgQuery.indexOf(')', orgQuery.indexOf("organisasjonsenhet("));
+        var queryEnd = orgQuery.lastIndexOf('}');
+        return orgQuery.substring(orgQuery.indexOf('{', arguments), orgQuery.lastIndexOf('}', queryEnd - 1) + 1);
+    }
+
+    private <T> Mono<T> post(GraphQLRequest req, Class<T> type) {
+        return client().post()
+                .uri(properties.getUrl())
+                .bodyValue(req)
+                .retrieve()
+                .bodyToMono(type);
+    }
+
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException re) {
+                throw re;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Idents reporting to the leader through all levels below, from the org tree.
+     * Until the tree is loaded only the members one level below, as {@link #getLeaderMembers(String)}.
+     */
+    public Set<String> getReports(String navIdent) {
+        var tree = orgTree;
+        if (!tree.isEmpty()) {
+            return tree.getReports(navIdent);
+        }
+        return Set.copyOf(getLeaderMembers(navIdent));
     }
 
     public List<String> getLeaderMembers(String navIdent) {
+        var tree = orgTree;
+        if (!tree.isEmpty()) {
+            return tree.getLeaderMembers(navIdent);
+        }
         return leaderCache.get(navIdent, ident -> {
             var req = new GraphQLRequest(getLeaderMemberQuery, Map.of("navIdent", navIdent));
             var res = template().postForEntity(properties.getUrl(), req, SingleRessurs.class);
@@ -178,6 +383,25 @@ public class NomGraphClient {
         return restTemplate;
     }
 
+    private WebClient client() {
+        if (webClient == null) {
+            webClient = webClientBuilder
+                    .filter(new TraceHeaderFilter(false))
+                    .filter(tokenFilter())
+                    .build();
+        }
+        return webClient;
+    }
+
+    /**
+     * Tokens may be fetched from azure, which blocks, so outside of the event loop
+     */
+    private ExchangeFilterFunction tokenFilter() {
+        return ExchangeFilterFunction.ofRequestProcessor(request -> Mono.fromCallable(() -> Optional.ofNullable(tokenProvider.getConsumerToken(getScope())))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(token -> token.map(t -> ClientRequest.from(request).header(HttpHeaders.AUTHORIZATION, t).build()).orElse(request)));
+    }
+
     @SneakyThrows
     private ClientHttpRequestInterceptor tokenInterceptor() {
         return (request, body, execution) -> {
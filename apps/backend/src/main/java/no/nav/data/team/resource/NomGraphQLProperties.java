@@ -10,5 +10,9 @@ import org.springframework.context.annotation.Configuration;
 public class NomGraphQLProperties {
 
     private String url;
+    /**
+     * Keep the org tree of nom in memory, reloaded in the background
+     */
+    private boolean orgTree = true;
 
 }
@@ -1,7 +1,9 @@
 package no.nav.data.team.resource;
 
+import io.prometheus.client.Counter;
+import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
-import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.common.utils.MetricUtils;
 import no.nav.data.team.resource.dto.NomRessurs;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.common.TopicPartition;
@@ -13,31 +15,47 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
+/**
+ * Shared by the consumer threads of the container, each thread gets the batches of its own partitions in order.
+ * Records are expected to be keyed by ident, so all changes to a resource are read in order by the same thread.
+ * A consumer only polls again when its batch is stored, which holds back reading when indexing or the database falls behind.
+ */
 @Slf4j
-public class NomListener implements ConsumerSeekAware, BatchAcknowledgingMessageListener<String, String> {
+public class NomListener implements ConsumerSeekAware, BatchAcknowledgingMessageListener<String, byte[]> {
+
+    private static final Counter skipCounter = MetricUtils.counter()
+            .name("nom_resources_skip_counter").help("Resource records skipped before parsing, as a newer version is already read").register();
 
     private final NomClient nomClient;
+    private final NomRessursReader reader = new NomRessursReader();
 
     public NomListener(NomClient nomClient) {
         this.nomClient = nomClient;
     }
 
+    /**
+     * Resume after the last offset restored from the database, partitions never read start from the beginning
+     */
     @Override
     public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
-        assignments.keySet().forEach(p -> callback.seekToBeginning(p.topic(), p.partition()));
+        var offsets = nomClient.restore();
+        assignments.keySet().forEach(p -> {
+            var offset = offsets.get(p.partition());
+            if (offset == null) {
+                callback.seekToBeginning(p.topic(), p.partition());
+            } else {
+                callback.seek(p.topic(), p.partition(), offset + 1);
+            }
+        });
+        log.info("nom partitions assigned {}, resuming from offsets {}", assignments.keySet(), offsets);
     }
 
     @Override
-    public void onMessage(List<ConsumerRecord<String, String>> data, Acknowledgment acknowledgment) {
+    public void onMessage(List<ConsumerRecord<String, byte[]>> data, Acknowledgment acknowledgment) {
         try {
-            var resources = new ArrayList<NomRessurs>();
-            for (ConsumerRecord<String, String> record : data) {
-                NomRessurs nomRessurs = JsonUtils.toObject(record.value(), NomRessurs.class);
-                if (nomRessurs.getNavident() == null) {
-                    log.warn("ressurs missing ident {}", nomRessurs);
-                } else {
-                    resources.add(nomRessurs.addKafkaData(record.partition(), record.offset()));
-                }
+            List<NomRessurs> resources;
+            try (var ignored = NomClient.stageSummary.labels("parse").startTimer()) {
+                resources = parse(data);
             }
             nomClient.add(resources);
         } catch (Exception e) {
@@ -47,4 +65,23 @@ public class NomListener implements ConsumerSeekAware, BatchAcknowledgingMessage
         acknowledgment.acknowledge();
     }
 
+    /**
+     * Only the ident is read from records older than the resource already held, as during a replay of the topic
+     */
+    @SneakyThrows
+    List<NomRessurs> parse(List<ConsumerRecord<String, byte[]>> data) {
+        var resources = new ArrayList<NomRessurs>(data.size());
+        for (ConsumerRecord<String, byte[]> record : data) {
+            var navident = record.value() == null ? null : reader.peekIdent(record.value());
+            if (navident == null) {
+                log.warn("ressurs missing ident partition {} offset {}", record.partition(), record.offset());
+            } else if (ResourceState.hasOffset(navident, record.offset())) {
+                skipCounter.inc();
+            } else {
+                resources.add(reader.read(record.value()).addKafkaData(record.partition(), record.offset()));
+            }
+        }
+        return resources;
+    }
+
 }
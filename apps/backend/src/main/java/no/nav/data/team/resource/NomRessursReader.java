@@ -0,0 +1,47 @@
+package no.nav.data.team.resource;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.resource.dto.NomRessurs;
+
+import java.io.IOException;
+
+/**
+ * Reads NOM records straight from the kafka bytes. The ident can be peeked with a streaming parser that stops at the field,
+ * so records that cannot replace the resource already held are skipped without binding them.
+ * <p>
+ * Thread safe, the factory and the reader bound to {@link NomRessurs} are created once and shared by all consumer threads.
+ */
+class NomRessursReader {
+
+    private static final String FIELD_NAVIDENT = "navident";
+
+    private final JsonFactory factory = JsonUtils.getObjectMapper().getFactory();
+    private final ObjectReader reader = JsonUtils.getObjectMapper().readerFor(NomRessurs.class);
+
+    /**
+     * @return navident of the record, or null if the record has none
+     */
+    String peekIdent(byte[] value) throws IOException {
+        try (var parser = factory.createParser(value)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                var field = parser.getCurrentName();
+                var token = parser.nextToken();
+                if (FIELD_NAVIDENT.equals(field)) {
+                    return token == JsonToken.VALUE_STRING ? parser.getText() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
+    NomRessurs read(byte[] value) throws IOException {
+        return reader.readValue(value);
+    }
+}
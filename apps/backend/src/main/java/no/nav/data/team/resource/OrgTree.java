@@ -0,0 +1,249 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.common.utils.DateUtil;
+import no.nav.data.team.org.OrgUrlId;
+import no.nav.nom.graphql.model.OrganisasjonsenhetDto;
+import no.nav.nom.graphql.model.OrganisasjonsenhetsKoblingDto;
+import no.nav.nom.graphql.model.OrganisasjonsenhetsLederDto;
+import no.nav.nom.graphql.model.OrganiseringDto;
+import no.nav.nom.graphql.model.RessursDto;
+import no.nav.nom.graphql.model.RetningDto;
+
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static no.nav.data.common.utils.StreamUtils.safeStream;
+
+/**
+ * The organisation of NOM as an immutable tree of organisasjonsenheter by org url id, with the units led by each leader.
+ * Loaded level by level from the top, following the organiseringer under each unit, and replaced as a whole when reloaded.
+ * <p>
+ * Every leader also has the idents reporting to them, directly or through the current units under the units they lead,
+ * precomputed once per tree as an immutable set, so filtering by leader is a lookup per ident.
+ */
+final class OrgTree {
+
+    static final OrgTree EMPTY = new OrgTree(Map.of(), Map.of(), Map.of(), Instant.EPOCH);
+
+    private final Map<String, OrganisasjonsenhetDto> units;
+    private final Map<String, List<String>> unitsByLeader;
+    private final Map<String, Set<String>> reportsByLeader;
+    private final Instant loaded;
+
+    private OrgTree(Map<String, OrganisasjonsenhetDto> units, Map<String, List<String>> unitsByLeader, Map<String, Set<String>> reportsByLeader, Instant loaded) {
+        this.units = units;
+        this.unitsByLeader = unitsByLeader;
+        this.reportsByLeader = reportsByLeader;
+        this.loaded = loaded;
+    }
+
+    /**
+     * @param fetch units by org url id, units missing from the result are left out of the tree
+     */
+    static OrgTree load(String rootId, Function<Set<String>, Map<String, OrganisasjonsenhetDto>> fetch) {
+        var units = new HashMap<String, OrganisasjonsenhetDto>();
+        Set<String> level = Set.of(rootId);
+        while (!level.isEmpty()) {
+            var fetched = fetch.apply(level);
+            var next = new LinkedHashSet<String>();
+            fetched.forEach((id, unit) -> {
+                units.put(id, unit);
+                children(unit)
+                        .filter(child -> !units.containsKey(child) && !fetched.containsKey(child))
+                        .forEach(next::add);
+            });
+            level = next;
+        }
+        return of(units);
+    }
+
+    static OrgTree of(Map<String, OrganisasjonsenhetDto> units) {
+        var unitsByLeader = new HashMap<String, List<String>>();
+        units.forEach((id, unit) -> leaderIdents(unit).forEach(ident -> unitsByLeader.computeIfAbsent(ident, k -> new ArrayList<>()).add(id)));
+        unitsByLeader.replaceAll((ident, ids) -> List.copyOf(ids));
+
+        var subtrees = new Subtrees(units);
+        var reportsByLeader = new HashMap<String, Set<String>>();
+        unitsByLeader.forEach((ident, ids) -> {
+            var reports = new HashSet<String>();
+            ids.stream()
+                    .filter(id -> isNow(units.get(id)))
+                    .forEach(id -> reports.addAll(subtrees.get(id)));
+            reports.remove(ident);
+            if (!reports.isEmpty()) {
+                reportsByLeader.put(ident, Set.copyOf(reports));
+            }
+        });
+        return new OrgTree(Collections.unmodifiableMap(units), Collections.unmodifiableMap(unitsByLeader), Collections.unmodifiableMap(reportsByLeader), Instant.now());
+    }
+
+    boolean isEmpty() {
+        return units.isEmpty();
+    }
+
+    int size() {
+        return units.size();
+    }
+
+    Instant getLoaded() {
+        return loaded;
+    }
+
+    Optional<OrganisasjonsenhetDto> get(String orgUrl) {
+        return Optional.ofNullable(units.get(orgUrl));
+    }
+
+    /**
+     * Idents reporting to the ident, through all levels of the current units they lead, the ident left out
+     */
+    Set<String> getReports(String navIdent) {
+        return reportsByLeader.getOrDefault(navIdent, Set.of());
+    }
+
+    /**
+     * Members of the current units led by the ident and the leaders of the units directly under them, the ident left out
+     */
+    List<String> getLeaderMembers(String navIdent) {
+        var led = unitsByLeader.getOrDefault(navIdent, List.of()).stream()
+                .map(units::get)
+                .filter(OrgTree::isNow)
+                .toList();
+
+        var directMembers = led.stream()
+                .flatMap(OrgTree::memberIdents);
+
+        var subUnitLeaders = led.stream()
+                .flatMap(OrgTree::children)
+                .map(units::get)
+                .filter(Objects::nonNull)
+                .flatMap(OrgTree::leaderIdents);
+
+        return Stream.concat(directMembers, subUnitLeaders)
+                .filter(Objects::nonNull)
+                .filter(id -> !id.equals(navIdent))
+                .distinct()
+                .toList();
+    }
+
+    /**
+     * Org url ids of the units directly under, units with an org level not known to {@link OrgUrlId} are left out
+     */
+    private static Stream<String> children(OrganisasjonsenhetDto unit) {
+        var seen = new HashSet<String>();
+        return safeStream(unit.getOrganiseringer())
+                .filter(o -> o.getRetning() == RetningDto.under)
+                .map(OrganiseringDto::getOrganisasjonsenhet)
+                .filter(child -> child != null && child.getOrgNiv() != null && child.getAgressoId() != null)
+                .flatMap(child -> {
+                    try {
+                        return Stream.of(new OrgUrlId(child).asUrlIdStr());
+                    } catch (IllegalArgumentException e) {
+                        return Stream.empty();
+                    }
+                })
+                .filter(seen::add);
+    }
+
+    private static boolean isNow(OrganisasjonsenhetDto unit) {
+        return unit != null && DateUtil.isNow(unit.getGyldigFom(), unit.getGyldigTom());
+    }
+
+    private static Stream<String> memberIdents(OrganisasjonsenhetDto unit) {
+        return safeStream(unit.getKoblinger())
+                .map(OrganisasjonsenhetsKoblingDto::getRessurs)
+                .filter(Objects::nonNull)
+                .map(RessursDto::getNavIdent)
+                .filter(Objects::nonNull);
+    }
+
+    private static Stream<String> leaderIdents(OrganisasjonsenhetDto unit) {
+        return safeStream(unit.getLeder())
+                .map(OrganisasjonsenhetsLederDto::getRessurs)
+                .filter(Objects::nonNull)
+                .map(RessursDto::getNavIdent)
+                .filter(Objects::nonNull);
+    }
+
+    /**
+     * Idents of the members of each unit and of the current units under it, with their leaders, computed once per unit.
+     * <p>
+     * NOM can link units in a cycle, and every unit on a cycle reaches the same idents. The units are visited depth first and
+     * grouped by cycle (Tarjan's strongly connected components), a group gets its idents when its first visited unit is done,
+     * so no unit keeps a result cut short by the cycle.
+     */
+    private static final class Subtrees {
+
+        private final Map<String, OrganisasjonsenhetDto> units;
+        private final Map<String, Set<String>> subtrees = new HashMap<>();
+        private final Map<String, Integer> visitOrder = new HashMap<>();
+        private final Deque<String> open = new ArrayDeque<>();
+        private final Map<String, Set<String>> openIdents = new HashMap<>();
+
+        private Subtrees(Map<String, OrganisasjonsenhetDto> units) {
+            this.units = units;
+        }
+
+        Set<String> get(String id) {
+            if (!visitOrder.containsKey(id)) {
+                visit(id);
+            }
+            return subtrees.get(id);
+        }
+
+        /**
+         * @return the earliest visit order of the open units the unit reaches, its own if none
+         */
+        private int visit(String id) {
+            int order = visitOrder.size();
+            int earliest = order;
+            visitOrder.put(id, order);
+            open.push(id);
+            var idents = new HashSet<String>();
+            openIdents.put(id, idents);
+
+            var unit = units.get(id);
+            memberIdents(unit).forEach(idents::add);
+            for (String child : children(unit).filter(child -> isNow(units.get(child))).toList()) {
+                leaderIdents(units.get(child)).forEach(idents::add);
+                if (!visitOrder.containsKey(child)) {
+                    earliest = Math.min(earliest, visit(child));
+                } else if (!subtrees.containsKey(child)) {
+                    // open, on a cycle with this unit
+                    earliest = Math.min(earliest, visitOrder.get(child));
+                }
+                var subtree = subtrees.get(child);
+                if (subtree != null) {
+                    idents.addAll(subtree);
+                }
+            }
+
+            if (earliest == order) {
+                // first unit of its cycle, the open units after it are on the cycle
+                var group = new ArrayList<String>();
+                var groupIdents = new HashSet<String>();
+                String member;
+                do {
+                    member = open.pop();
+                    group.add(member);
+                    groupIdents.addAll(openIdents.remove(member));
+                } while (!member.equals(id));
+                var subtree = Set.copyOf(groupIdents);
+                group.forEach(m -> subtrees.put(m, subtree));
+            }
+            return earliest;
+        }
+    }
+}
@@ -26,6 +26,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Objects;
 import java.util.Optional;
@@ -105,6 +106,18 @@ public class ResourceController {
         }
     }
 
+    @Operation(summary = "Get Resources reporting to Resource, through all levels of the units the resource leads")
+    @ApiResponse(description = "ok")
+    @GetMapping("/{id}/reports")
+    public ResponseEntity<RestResponsePage<ResourceResponse>> getReportsById(@PathVariable String id) {
+        log.info("Resource get reports id={}", id);
+        var reports = nomClient.getByNavIdents(nomGraphClient.getReports(StringUtils.upperCase(id))).stream()
+                .sorted(Comparator.comparing(Resource::getNavIdent))
+                .map(Resource::convertToResponse)
+                .collect(toList());
+        return ResponseEntity.ok(new RestResponsePage<>(reports));
+    }
+
     @Operation(summary = "Get Resources")
     @ApiResponse(description = "ok")
     @PostMapping("/multi")
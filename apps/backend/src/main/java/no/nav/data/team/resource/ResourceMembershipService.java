@@ -0,0 +1,53 @@
+package no.nav.data.team.resource;
+
+import lombok.RequiredArgsConstructor;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.storage.domain.StorageEvent;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.shared.CatalogSnapshotService;
+import no.nav.data.team.team.domain.Team;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
+
+/**
+ * Keeps the membership counts in the resource index in step with the catalog, on startup and when members change on any node
+ */
+@Service
+@RequiredArgsConstructor
+public class ResourceMembershipService {
+
+    private static final List<String> TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class));
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final NomClient nomClient;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void init() {
+        update();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStorageEvent(StorageEvent event) {
+        if (TYPES.contains(event.type())) {
+            update();
+        }
+    }
+
+    @EventListener
+    public void onStorageChange(StorageChange change) {
+        if (change.isReset() || TYPES.contains(change.type())) {
+            update();
+        }
+    }
+
+    private synchronized void update() {
+        nomClient.setMemberships(catalogSnapshotService.get().membershipCounts());
+    }
+}
@@ -5,8 +5,10 @@ import com.github.benmanes.caffeine.cache.Caffeine;
 import io.prometheus.client.Gauge;
 import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.security.azure.AzureAdService;
+import no.nav.data.common.storage.InvalidationBus;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.GenericStorage;
+import no.nav.data.common.storage.domain.StorageChange;
 import no.nav.data.common.utils.MetricUtils;
 import no.nav.data.team.resource.domain.ResourcePhoto;
 import no.nav.data.team.resource.domain.ResourcePhotoRepository;
@@ -27,14 +29,14 @@ public class ResourceService {
             .register();
 
     private static final Duration PHOTO_DB_DURATION = Duration.ofDays(1);
-    private static final Duration PHOTO_MEM_DURATION = Duration.ofHours(1);
+    private static final Duration PHOTO_MEM_DURATION = Duration.ofHours(12);
     private final Cache<String, ResourcePhoto> photoCache;
 
     private final StorageService storage;
     private final ResourcePhotoRepository resourcePhotoRepository;
     private final AzureAdService azureAdService;
 
-    public ResourceService(StorageService storage, ResourcePhotoRepository resourcePhotoRepository, AzureAdService azureAdService) {
+    public ResourceService(StorageService storage, ResourcePhotoRepository resourcePhotoRepository, AzureAdService azureAdService, InvalidationBus invalidationBus) {
         this.storage = storage;
         this.resourcePhotoRepository = resourcePhotoRepository;
         this.azureAdService = azureAdService;
@@ -42,6 +44,7 @@ public class ResourceService {
                 .expireAfterWrite(PHOTO_MEM_DURATION)
                 .maximumSize(200).build();
         MetricUtils.register("photoCache", photoCache);
+        invalidationBus.evictOnChange(ResourcePhoto.class, photoCache, StorageChange::ident);
     }
 
     @Transactional
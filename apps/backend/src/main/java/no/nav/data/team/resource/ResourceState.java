@@ -1,129 +1,390 @@
 package no.nav.data.team.resource;
 
 import lombok.SneakyThrows;
+import no.nav.data.common.search.NameSearch;
 import no.nav.data.team.resource.domain.Resource;
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.LowerCaseFilter;
-import org.apache.lucene.analysis.TokenStream;
-import org.apache.lucene.analysis.Tokenizer;
-import org.apache.lucene.analysis.core.WhitespaceTokenizer;
-import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
-import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
-import org.apache.lucene.analysis.ngram.EdgeNGramTokenFilter;
-import org.apache.lucene.analysis.phonetic.DoubleMetaphoneFilter;
-import org.apache.lucene.analysis.standard.StandardTokenizer;
+import no.nav.data.team.resource.domain.ResourceType;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.NumericDocValuesField;
 import org.apache.lucene.index.DirectoryReader;
-import org.apache.lucene.index.IndexReader;
 import org.apache.lucene.index.IndexWriter;
 import org.apache.lucene.index.IndexWriterConfig;
-import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.MMapDirectory;
+import org.springframework.util.FileSystemUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
 
+/**
+ * Resources from NOM held in memory, with a search index in a directory memory mapped outside the heap.
+ * The index is in a temporary directory until {@link #open(Path)} opens one kept between runs, committed with the offsets indexed,
+ * so a restart only indexes the resources read after the last commit.
+ * The index has a single long lived writer, searches share near real time readers from a {@link SearcherManager}.
+ * Documents have the fields of {@link NameSearch}, typed {@value #TYPE}, so the index can be searched together with other indexes.
+ * The number of memberships, whether the resource is inactive and the resource type are doc values, used for ranking.
+ * <p>
+ * The highest offset put per partition is kept, so the NOM topic can be resumed after the state is restored from the database.
+ * <p>
+ * The resources are an immutable snapshot replaced on every write, so web threads read without locking while the NOM listener writes.
+ */
 class ResourceState {
 
-    static final String FIELD_IDENT = "ident";
-    static final String FIELD_NAME_VERBATIM = "name_verbatim";
-    static final String FIELD_NAME_NGRAMS = "name_ngrams";
-    static final String FIELD_NAME_PHONETIC = "name_phonetic";
+    static final String TYPE = "Resource";
+    static final String FIELD_MEMBERSHIPS = "memberships";
+    static final String FIELD_INACTIVE = "inactive";
+    static final String FIELD_RESOURCE_TYPE = "resource_type";
+    private static final String COMMIT_OFFSETS = "offsets";
 
-    private static final Map<String, Resource> allResources = new HashMap<>(1 << 15);
-    private static final Map<String, Resource> allResourcesByMail = new HashMap<>(1 << 15);
-    private static Directory index = new ByteBuffersDirectory();
-    private static final PerFieldAnalyzerWrapper analyzer;
+    private static final Object writeLock = new Object();
+    private static final ReadWriteLock membershipLock = new ReentrantReadWriteLock();
+    private static volatile Snapshot state = Snapshot.EMPTY;
+    private static final AtomicLong generation = new AtomicLong();
+    private static volatile Index index = createIndex();
+    private static volatile Map<String, Integer> memberships = Map.of();
 
-    static {
-        var analyzerPerField = new HashMap<String, Analyzer>();
-        analyzerPerField.put(FIELD_NAME_NGRAMS, createNGramAnalyzer());
-        analyzerPerField.put(FIELD_NAME_PHONETIC, createMetaphoneAnalyzer());
-        analyzer = new PerFieldAnalyzerWrapper(createSimpleIgnoreCaseAnalyzer(), analyzerPerField);
+    static Optional<Resource> get(String ident) {
+        return Optional.ofNullable(state.byIdent().get(ident.toUpperCase()));
     }
 
-    static Optional<Resource> get(String ident) {
-        return Optional.ofNullable(allResources.get(ident.toUpperCase()));
+    /**
+     * @return resources by upper case ident, all read from the same snapshot
+     */
+    static Map<String, Resource> getAll(Collection<String> idents) {
+        var current = state;
+        var resources = new HashMap<String, Resource>(idents.size() * 2);
+        for (String ident : idents) {
+            var key = ident.toUpperCase();
+            var resource = current.byIdent().get(key);
+            if (resource != null) {
+                resources.put(key, resource);
+            }
+        }
+        return resources;
+    }
+
+    /**
+     * @return type of the resource, or null if not known
+     */
+    static ResourceType getType(String ident) {
+        var resource = state.byIdent().get(ident.toUpperCase());
+        return resource == null ? null : resource.getResourceType();
+    }
+
+    /**
+     * @return true if the resource held for the ident is from the offset or later, a record at the offset would not replace it
+     */
+    static boolean hasOffset(String ident, long offset) {
+        var resource = state.byIdent().get(ident.toUpperCase());
+        return resource != null && resource.getOffset() >= offset;
     }
 
-    static List<Resource> findAll(List<String> idents) {
-        return allResources.values().stream().filter(r -> idents.contains(r.getNavIdent())).toList();
+    /**
+     * @return true if the resource is the one held for its ident, not replaced by a later put
+     */
+    static boolean isCurrent(Resource resource) {
+        return state.byIdent().get(resource.getNavIdent().toUpperCase()) == resource;
     }
 
     static Optional<Resource> getByEmail(String email) {
-        return Optional.ofNullable(allResourcesByMail.get(email.toLowerCase()));
+        return Optional.ofNullable(state.byMail().get(email.toLowerCase()));
     }
 
     static void put(Resource resource) {
-        allResources.put(resource.getNavIdent().toUpperCase(), resource);
-        if (resource.getEmail() != null) {
-            allResourcesByMail.put(resource.getEmail().toLowerCase(), resource);
+        putAll(List.of(resource));
+    }
+
+    /**
+     * Copies the state once for the whole batch and publishes it in one write, readers see either none or all of the batch
+     */
+    static void putAll(Collection<Resource> resources) {
+        if (resources.isEmpty()) {
+            return;
+        }
+        synchronized (writeLock) {
+            var current = state;
+            var byIdent = new HashMap<>(current.byIdent());
+            var byMail = new HashMap<>(current.byMail());
+            var offsets = new HashMap<>(current.offsets());
+            for (Resource resource : resources) {
+                byIdent.put(resource.getNavIdent().toUpperCase(), resource);
+                if (resource.getEmail() != null) {
+                    byMail.put(resource.getEmail().toLowerCase(), resource);
+                }
+                offsets.merge(resource.getPartition(), resource.getOffset(), Math::max);
+            }
+            publish(new Snapshot(Collections.unmodifiableMap(byIdent), Collections.unmodifiableMap(byMail), Map.copyOf(offsets)));
         }
     }
 
+    /**
+     * @return number of snapshots published, grows after every write so it is never ahead of the resources read after it
+     */
+    static long generation() {
+        return generation.get();
+    }
+
+    private static void publish(Snapshot snapshot) {
+        state = snapshot;
+        generation.incrementAndGet();
+    }
+
     static int count() {
-        return allResources.size();
+        return state.byIdent().size();
     }
 
-    static void clear() {
-        index = new ByteBuffersDirectory();
-        allResources.clear();
-        allResourcesByMail.clear();
+    /**
+     * @return highest offset put per partition
+     */
+    static Map<Integer, Long> getOffsets() {
+        return state.offsets();
     }
 
+    /**
+     * Searches already running keep reading the old index, its files are only unlinked.
+     * An index kept between runs is deleted as well, and replaced by a temporary one until opened again.
+     */
     @SneakyThrows
-    static IndexReader createReader() {
-        return DirectoryReader.open(index);
+    static void clear() {
+        synchronized (writeLock) {
+            var old = index;
+            index = createIndex();
+            publish(Snapshot.EMPTY);
+            old.delete();
+        }
     }
 
+    /**
+     * Close the index kept between runs without deleting it, the state is emptied and a temporary index used until opened again
+     */
     @SneakyThrows
-    static IndexWriter createWriter() {
-        IndexWriterConfig writerConfig = new IndexWriterConfig(getAnalyzer());
-        return new IndexWriter(index, writerConfig);
+    static void close() {
+        synchronized (writeLock) {
+            var old = index;
+            index = createIndex();
+            publish(Snapshot.EMPTY);
+            if (old.kept()) {
+                old.close();
+            } else {
+                old.delete();
+            }
+        }
+    }
+
+    /**
+     * Replace the index with the one kept in the directory, created if missing.
+     * Membership counts of its documents are brought up to date, as they may have changed since it was committed.
+     *
+     * @return offsets indexed per partition at the last commit, empty if never committed
+     */
+    static Map<Integer, Long> open(Path dir) throws IOException {
+        synchronized (writeLock) {
+            var current = index;
+            if (!dir.equals(current.path())) {
+                Files.createDirectories(dir);
+                var directory = new MMapDirectory(dir);
+                IndexWriter writer;
+                try {
+                    writer = new IndexWriter(directory, new IndexWriterConfig(NameSearch.getAnalyzer()));
+                } catch (IOException e) {
+                    directory.close();
+                    throw e;
+                }
+                index = new Index(dir, directory, writer, new SearcherManager(writer, null), true);
+                if (current.kept()) {
+                    current.close();
+                } else {
+                    current.delete();
+                }
+                updateMemberships();
+            }
+            var offsets = new HashMap<Integer, Long>();
+            var commitData = index.writer().getLiveCommitData();
+            if (commitData != null) {
+                for (Entry<String, String> data : commitData) {
+                    if (COMMIT_OFFSETS.equals(data.getKey()) && !data.getValue().isEmpty()) {
+                        for (String offset : data.getValue().split(",")) {
+                            var partitionOffset = offset.split(":");
+                            offsets.put(Integer.valueOf(partitionOffset[0]), Long.valueOf(partitionOffset[1]));
+                        }
+                    }
+                }
+            }
+            return offsets;
+        }
     }
 
-    static Analyzer getAnalyzer() {
-        return analyzer;
+    /**
+     * Commit the index with the offsets it has indexed per partition, every record up to the offsets must have been indexed
+     */
+    static void commit(Map<Integer, Long> offsets) throws IOException {
+        var writer = index.writer();
+        var encoded = offsets.entrySet().stream().map(e -> e.getKey() + ":" + e.getValue()).collect(Collectors.joining(","));
+        writer.setLiveCommitData(Map.of(COMMIT_OFFSETS, encoded).entrySet());
+        writer.commit();
     }
 
-    @SneakyThrows
-    private static Analyzer createNGramAnalyzer(){
-        return new Analyzer() {
-            @Override
-            protected TokenStreamComponents createComponents(String fieldName) {
-                Tokenizer source = new StandardTokenizer();
-                TokenStream result = new LowerCaseFilter(source);
-                result = new EdgeNGramTokenFilter(result ,3,40,false);
-                return new TokenStreamComponents(source, result);
+    /**
+     * The one writer of the index, changes are visible to searches after {@link #refresh()}
+     */
+    static IndexWriter getWriter() {
+        return index.writer();
+    }
+
+    /**
+     * Add or replace the document of a resource, with the membership count of the ident as doc values
+     */
+    static void updateDocument(String ident, Document doc) throws IOException {
+        var lock = membershipLock.readLock();
+        lock.lock();
+        try {
+            doc.add(new NumericDocValuesField(FIELD_MEMBERSHIPS, memberships.getOrDefault(ident.toUpperCase(), 0)));
+            index.writer().updateDocument(NameSearch.idTerm(ident.toLowerCase()), doc);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Replace the membership counts by upper case ident. Documents of idents with a changed count are updated in place, not reindexed.
+     * Kept when the state is cleared, they come from the catalog and not from NOM.
+     *
+     * @return if an indexed document got a new count
+     */
+    static boolean putMemberships(Map<String, Integer> counts) throws IOException {
+        var lock = membershipLock.writeLock();
+        lock.lock();
+        try {
+            var previous = memberships;
+            memberships = counts;
+            var writer = index.writer();
+            if (!writer.getFieldNames().contains(FIELD_MEMBERSHIPS)) {
+                // nothing indexed yet, and only existing doc values fields can be updated
+                return false;
+            }
+            var idents = new HashSet<>(previous.keySet());
+            idents.addAll(counts.keySet());
+            boolean changed = false;
+            for (String ident : idents) {
+                int count = counts.getOrDefault(ident, 0);
+                if (count != previous.getOrDefault(ident, 0)) {
+                    writer.updateNumericDocValue(NameSearch.idTerm(ident.toLowerCase()), FIELD_MEMBERSHIPS, count);
+                    changed = true;
+                }
             }
-        };
+            return changed;
+        } finally {
+            lock.unlock();
+        }
     }
 
-    @SneakyThrows
-    private static Analyzer createMetaphoneAnalyzer(){
-        return new Analyzer() {
-            @Override
-            protected TokenStreamComponents createComponents(String fieldName) {
-                Tokenizer source = new StandardTokenizer();
-                TokenStream result = new LowerCaseFilter(source);
-                result = new DoubleMetaphoneFilter(result ,10,false);
-                return new TokenStreamComponents(source, result);
+    /**
+     * Set the membership counts of documents already in the index to the counts held, for an index committed by an earlier run
+     */
+    private static void updateMemberships() throws IOException {
+        var lock = membershipLock.writeLock();
+        lock.lock();
+        try {
+            var writer = index.writer();
+            if (!writer.getFieldNames().contains(FIELD_MEMBERSHIPS)) {
+                return;
+            }
+            var changed = new HashMap<String, Integer>();
+            try (var reader = DirectoryReader.open(writer)) {
+                for (LeafReaderContext leaf : reader.leaves()) {
+                    var ids = leaf.reader().getSortedDocValues(NameSearch.FIELD_ID);
+                    var counts = leaf.reader().getNumericDocValues(FIELD_MEMBERSHIPS);
+                    var liveDocs = leaf.reader().getLiveDocs();
+                    if (ids == null || counts == null) {
+                        continue;
+                    }
+                    for (int doc = counts.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = counts.nextDoc()) {
+                        if ((liveDocs == null || liveDocs.get(doc)) && ids.advanceExact(doc)) {
+                            var ident = ids.lookupOrd(ids.ordValue()).utf8ToString();
+                            int count = memberships.getOrDefault(ident.toUpperCase(), 0);
+                            if (count != counts.longValue()) {
+                                changed.put(ident, count);
+                            }
+                        }
+                    }
+                }
             }
-        };
+            for (Entry<String, Integer> count : changed.entrySet()) {
+                writer.updateNumericDocValue(NameSearch.idTerm(count.getKey()), FIELD_MEMBERSHIPS, count.getValue());
+            }
+        } finally {
+            lock.unlock();
+        }
     }
 
+    /**
+     * Make changes from the writer visible to new searches, without committing
+     */
     @SneakyThrows
-    private static Analyzer createSimpleIgnoreCaseAnalyzer(){
-        return new Analyzer() {
-            @Override
-            protected TokenStreamComponents createComponents(String fieldName) {
-                Tokenizer source = new WhitespaceTokenizer();
-                TokenStream result = new LowerCaseFilter(source);
-                result = new ASCIIFoldingFilter(result);
-                return new TokenStreamComponents(source, result);
-            }
-        };
+    static void refresh() {
+        index.searchers().maybeRefreshBlocking();
+    }
+
+    static <T> T search(SearchFunction<T> search) throws IOException {
+        var searchers = index.searchers();
+        IndexSearcher searcher = searchers.acquire();
+        try {
+            return search.apply(searcher);
+        } finally {
+            searchers.release(searcher);
+        }
+    }
+
+    @SneakyThrows
+    private static Index createIndex() {
+        var path = Files.createTempDirectory("nom-index");
+        var directory = new MMapDirectory(path);
+        var writer = new IndexWriter(directory, new IndexWriterConfig(NameSearch.getAnalyzer()));
+        return new Index(path, directory, writer, new SearcherManager(writer, null), false);
+    }
+
+    @FunctionalInterface
+    interface SearchFunction<T> {
+
+        T apply(IndexSearcher searcher) throws IOException;
+    }
+
+    /**
+     * @param kept true if the directory is kept between runs
+     */
+    private record Index(Path path, Directory directory, IndexWriter writer, SearcherManager searchers, boolean kept) {
+
+        void close() throws IOException {
+            searchers.close();
+            writer.close();
+            directory.close();
+        }
+
+        void delete() throws IOException {
+            close();
+            FileSystemUtils.deleteRecursively(path);
+        }
+    }
+
+    private record Snapshot(Map<String, Resource> byIdent, Map<String, Resource> byMail, Map<Integer, Long> offsets) {
+
+        private static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), Map.of());
     }
 }
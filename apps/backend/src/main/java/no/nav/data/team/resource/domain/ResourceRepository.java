@@ -1,52 +1,137 @@
 package no.nav.data.team.resource.domain;
 
 import io.micrometer.core.annotation.Timed;
+import lombok.RequiredArgsConstructor;
 import no.nav.data.common.storage.domain.GenericStorage;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.team.domain.Team;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
+import static no.nav.data.common.storage.domain.GenericStorage.getOfType;
 import static no.nav.data.common.utils.MetricUtils.DB_QUERY_TIMED;
 import static no.nav.data.common.utils.MetricUtils.QUERY;
 
-public interface ResourceRepository extends JpaRepository<GenericStorage, UUID>, ResourceRepositoryCustom {
+/**
+ * Resources from NOM, one row per ident holding the newest version read from the topic.
+ * Rows are only replaced by a higher offset, so replayed or reordered records never overwrite newer data.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ResourceRepository {
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * One batched upsert for a whole poll, only the highest offset per ident in the batch is written
+     */
+    @Transactional
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.upsertAll"}, percentiles = {.99, .75, .50})
+    public void upsertAll(Collection<Resource> resources) {
+        var newest = new HashMap<String, Resource>(resources.size() * 2);
+        for (Resource resource : resources) {
+            newest.merge(resource.getNavIdent().toUpperCase(), resource, (a, b) -> a.getOffset() >= b.getOffset() ? a : b);
+        }
+        if (newest.isEmpty()) {
+            return;
+        }
+        var params = newest.entrySet().stream()
+                .map(e -> new MapSqlParameterSource()
+                        .addValue("ident", e.getKey())
+                        .addValue("partition", e.getValue().getPartition())
+                        .addValue("offset", e.getValue().getOffset())
+                        .addValue("data", JsonUtils.toJson(e.getValue())))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate("""
+                insert into resource (nav_ident, kafka_partition, kafka_offset, data, last_modified_date)
+                values (:ident, :partition, :offset, cast(:data as jsonb), now())
+                on conflict (nav_ident) do update
+                  set kafka_partition = excluded.kafka_partition,
+                      kafka_offset = excluded.kafka_offset,
+                      data = excluded.data,
+                      last_modified_date = excluded.last_modified_date
+                  where resource.kafka_offset < excluded.kafka_offset
+                """, params);
+    }
 
     @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.findByIdent"}, percentiles = {.99, .75, .50})
-    @Query(value = "select * from generic_storage "
-            + "where type = 'Resource' and data ->> 'navIdent' = ?1 "
-            + "order by created_date desc limit 1", nativeQuery = true)
-    Optional<GenericStorage> findByIdent(String navIdent);
+    public Optional<Resource> findByIdent(String navIdent) {
+        return jdbcTemplate.query("select data from resource where nav_ident = :ident",
+                Map.of("ident", navIdent.toUpperCase()), (rs, rowNum) -> toResource(rs)).stream().findFirst();
+    }
 
     @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.findByIdents"}, percentiles = {.99, .75, .50})
-    @Query(value = "select * from generic_storage where type = 'Resource' and data ->> 'navIdent' in (?1)", nativeQuery = true)
-    List<GenericStorage> findByIdents(List<String> navIdents);
+    public List<Resource> findByIdents(List<String> navIdents) {
+        if (navIdents.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query("select data from resource where nav_ident in (:idents)",
+                Map.of("idents", navIdents.stream().map(String::toUpperCase).toList()), (rs, rowNum) -> toResource(rs));
+    }
+
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.findAll"}, percentiles = {.99, .75, .50})
+    public List<Resource> findAll() {
+        return jdbcTemplate.query("select data from resource", Map.of(), (rs, rowNum) -> toResource(rs));
+    }
 
-    @Override
     @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.count"}, percentiles = {.99, .75, .50})
-    @Query(value = "select count(distinct data->> 'navIdent') from generic_storage where type = 'Resource'", nativeQuery = true)
-    long count();
+    public long count() {
+        Long count = jdbcTemplate.queryForObject("select count(*) from resource", Map.of(), Long.class);
+        return count == null ? 0 : count;
+    }
 
-    @Transactional
-    @Modifying
-    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.cleanup"}, percentiles = {.99, .75, .50})
-    @Query(value = """
-             delete
-             from generic_storage gs
-                using generic_storage gs2
-             where gs.type = 'Resource'
-              and gs2.type = 'Resource'
-              and gs.id <> gs2.id
-              and gs.data ->> 'navIdent' = gs2.data ->> 'navIdent'
-              and (
-                    gs.data -> 'offset' < gs2.data -> 'offset' 
-                    or (gs.data -> 'offset' = gs2.data -> 'offset' and gs.created_date < gs2.created_date)
-                  )
-            """, nativeQuery = true)
-    void cleanup();
+    public void deleteAll() {
+        jdbcTemplate.update("delete from resource", Map.of());
+    }
+
+    /**
+     * Single probe on the gs_members_idx gin index, the expression must match the index
+     */
+    @Timed(value = DB_QUERY_TIMED, extraTags = {QUERY, "ResourceRepository.findByMemberIdent"}, percentiles = {.99, .75, .50})
+    public Membership findByMemberIdent(String memberIdent) {
+        var storages = jdbcTemplate.query(
+                "select * from generic_storage where data -> 'members' @> cast(:member as jsonb) and type in ('Team', 'ProductArea', 'Cluster')",
+                new MapSqlParameterSource().addValue("member", JsonUtils.toJson(List.of(Map.of("navIdent", memberIdent)))),
+                (rs, rowNum) -> toStorage(rs)
+        );
+        return new Membership(getOfType(storages, Team.class), getOfType(storages, ProductArea.class), getOfType(storages, Cluster.class));
+    }
+
+    private static Resource toResource(ResultSet rs) throws SQLException {
+        return JsonUtils.toObject(rs.getString("data"), Resource.class);
+    }
+
+    private static GenericStorage toStorage(ResultSet rs) throws SQLException {
+        var storage = new GenericStorage(rs.getObject("id", UUID.class), rs.getString("type"), JsonUtils.toJsonNode(rs.getString("data")));
+        storage.setCreatedBy(rs.getString("created_by"));
+        storage.setCreatedDate(toLocalDateTime(rs.getTimestamp("created_date")));
+        storage.setLastModifiedBy(rs.getString("last_modified_by"));
+        storage.setLastModifiedDate(toLocalDateTime(rs.getTimestamp("last_modified_date")));
+        return storage;
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp == null ? null : timestamp.toLocalDateTime();
+    }
+
+    public record Membership(List<Team> teams, List<ProductArea> productAreas, List<Cluster> clusters) {
+
+    }
 
 }
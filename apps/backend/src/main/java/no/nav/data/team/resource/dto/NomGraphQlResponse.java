@@ -49,6 +49,17 @@ public class NomGraphQlResponse {
 
     }
 
+    /**
+     * Orgs by the alias they were asked for under
+     */
+    @Data
+    public static class MultiOrg {
+
+        private Map<String, OrganisasjonsenhetDto> data;
+        private ArrayNode errors;
+
+    }
+
     @Data
     public static class MultiRessurs {
 
@@ -0,0 +1,52 @@
+package no.nav.data.team.search;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.team.search.dto.SearchHitResponse;
+import no.nav.data.team.search.dto.SearchType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.EnumSet;
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/search")
+@Tag(name = "Search")
+public class SearchController {
+
+    private final SearchService service;
+
+    public SearchController(SearchService service) {
+        this.service = service;
+    }
+
+    @Operation(summary = "Search teams, product areas, clusters, tags and resources by name")
+    @ApiResponse(description = "Hits fetched, best match first")
+    @GetMapping
+    public ResponseEntity<RestResponsePage<SearchHitResponse>> search(
+            @RequestParam("q") String query,
+            @Parameter(description = "Types to search, all if not set") @RequestParam(value = "types", required = false) List<SearchType> types
+    ) {
+        String trimmedQuery = query.trim();
+        log.info("Search '{}' types {}", trimmedQuery, types);
+        if (trimmedQuery.length() < 3) {
+            throw new ValidationException("Search must be at least 3 characters");
+        }
+        var searchTypes = types == null || types.isEmpty() ? EnumSet.allOf(SearchType.class) : EnumSet.copyOf(types);
+        return ResponseEntity.ok(service.search(trimmedQuery, searchTypes));
+    }
+
+    static class SearchHitPageResponse extends RestResponsePage<SearchHitResponse> {
+
+    }
+}
@@ -0,0 +1,230 @@
+package no.nav.data.team.search;
+
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.exceptions.TechnicalException;
+import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.search.NameSearch;
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.NomClient;
+import no.nav.data.team.resource.domain.Resource;
+import no.nav.data.team.search.dto.SearchHitResponse;
+import no.nav.data.team.search.dto.SearchType;
+import no.nav.data.team.shared.CatalogSnapshotService;
+import no.nav.data.team.shared.domain.CatalogSnapshot;
+import no.nav.data.team.team.domain.Team;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermInSetQuery;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static no.nav.data.common.utils.StreamUtils.convert;
+import static no.nav.data.common.utils.StreamUtils.nullToEmptyList;
+
+/**
+ * Search across teams, product areas, clusters, tags and resources with one query.
+ * <p>
+ * Teams, product areas, clusters and tags are indexed on the heap with the same fields as the resource index of {@link NomClient}.
+ * On the first search after the catalog has changed the documents of the objects and tags that changed in the {@link CatalogSnapshot} are replaced,
+ * and the index is searched together with the resource index through a {@link MultiReader}, so hits of all types are ranked against each other.
+ */
+@Slf4j
+@Service
+public class SearchService {
+
+    private static final int MAX_HITS = 100;
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final NomClient nomClient;
+    private final IndexWriter writer;
+    private final SearcherManager searchers;
+    private volatile CatalogSnapshot indexed;
+    /**
+     * Names of the documents in the index, replaced with the snapshot they were indexed from
+     */
+    private Map<DocumentKey, String> documents = Map.of();
+
+    public SearchService(CatalogSnapshotService catalogSnapshotService, NomClient nomClient) throws IOException {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.nomClient = nomClient;
+        this.writer = new IndexWriter(new ByteBuffersDirectory(), new IndexWriterConfig(NameSearch.getAnalyzer()));
+        this.searchers = new SearcherManager(writer, null);
+    }
+
+    public RestResponsePage<SearchHitResponse> search(String searchString, Set<SearchType> types) {
+        try {
+            var catalog = refresh();
+            var catalogSearcher = searchers.acquire();
+            try {
+                if (!types.contains(SearchType.RESOURCE)) {
+                    return search(catalogSearcher.getIndexReader(), searchString, types, catalog);
+                }
+                return nomClient.readIndex(resourceReader -> {
+                    try (var reader = new MultiReader(new IndexReader[]{catalogSearcher.getIndexReader(), resourceReader}, false)) {
+                        return search(reader, searchString, types, catalog);
+                    }
+                });
+            } finally {
+                searchers.release(catalogSearcher);
+            }
+        } catch (IOException e) {
+            log.error("Failed to read lucene index", e);
+            throw new TechnicalException("Failed to read lucene index", e);
+        }
+    }
+
+    private RestResponsePage<SearchHitResponse> search(IndexReader reader, String searchString, Set<SearchType> types, CatalogSnapshot catalog) throws IOException {
+        var query = new BooleanQuery.Builder()
+                .add(NameSearch.createQuery(searchString), Occur.MUST)
+                .add(new TermInSetQuery(NameSearch.FIELD_TYPE, convert(types, t -> new BytesRef(t.getType()))), Occur.FILTER)
+                .build();
+        var top = new IndexSearcher(reader).search(query, MAX_HITS);
+        var leaves = reader.leaves();
+        var found = new ArrayList<Found>(top.scoreDocs.length);
+        for (ScoreDoc sd : top.scoreDocs) {
+            var leaf = leaves.get(ReaderUtil.subIndex(sd.doc, leaves));
+            var type = readValue(leaf, NameSearch.FIELD_TYPE, sd.doc);
+            var id = readValue(leaf, NameSearch.FIELD_ID, sd.doc);
+            if (type != null && id != null) {
+                found.add(new Found(SearchType.fromType(type), id, sd.score));
+            }
+        }
+        // resources not held in memory are read in one query for all hits
+        var resourceIdents = found.stream().filter(hit -> hit.type() == SearchType.RESOURCE).map(Found::id).toList();
+        var resources = resourceIdents.isEmpty() ? Map.<String, Resource>of() : nomClient.getByNavIdents(resourceIdents).stream()
+                .collect(Collectors.toMap(r -> r.getNavIdent().toUpperCase(), Function.identity(), (a, b) -> a));
+        var hits = new ArrayList<SearchHitResponse>(found.size());
+        for (Found hit : found) {
+            toHit(hit.type(), hit.id(), hit.score(), catalog, resources).ifPresent(hits::add);
+        }
+        log.debug("search '{}' types {} hits {} returned {}", searchString, types, top.totalHits.value, hits.size());
+        return new RestResponsePage<>(hits, top.totalHits.value);
+    }
+
+    /**
+     * Objects removed since the index was read and resources filtered by settings are left out
+     */
+    private static Optional<SearchHitResponse> toHit(SearchType type, String id, float score, CatalogSnapshot catalog, Map<String, Resource> resources) {
+        return switch (type) {
+            case TEAM -> catalog.team(UUID.fromString(id)).map(t -> new SearchHitResponse(type, id, t.getName(), score));
+            case PRODUCT_AREA -> catalog.productArea(UUID.fromString(id)).map(pa -> new SearchHitResponse(type, id, pa.getName(), score));
+            case CLUSTER -> catalog.cluster(UUID.fromString(id)).map(c -> new SearchHitResponse(type, id, c.getName(), score));
+            case TAG -> Optional.of(new SearchHitResponse(type, id, id, score));
+            case RESOURCE -> Optional.ofNullable(resources.get(id.toUpperCase())).map(r -> new SearchHitResponse(type, r.getNavIdent(), r.getFullName(), score));
+        };
+    }
+
+    private CatalogSnapshot refresh() throws IOException {
+        var catalog = catalogSnapshotService.get();
+        if (catalog == indexed) {
+            return catalog;
+        }
+        synchronized (this) {
+            catalog = catalogSnapshotService.get();
+            if (catalog != indexed) {
+                var current = documents(catalog);
+                int changed = apply(current);
+                if (changed > 0) {
+                    searchers.maybeRefreshBlocking();
+                }
+                documents = current;
+                indexed = catalog;
+                log.debug("indexed catalog for search, {} documents changed of {}", changed, current.size());
+            }
+            return catalog;
+        }
+    }
+
+    private static Map<DocumentKey, String> documents(CatalogSnapshot catalog) {
+        var documents = new HashMap<DocumentKey, String>();
+        putAll(documents, SearchType.TEAM, catalog.teams(), Team::getName);
+        putAll(documents, SearchType.PRODUCT_AREA, catalog.productAreas(), ProductArea::getName);
+        putAll(documents, SearchType.CLUSTER, catalog.clusters(), Cluster::getName);
+        // tags of teams and product areas, as the tag endpoints
+        catalog.teams().forEach(t -> nullToEmptyList(t.getTags()).forEach(tag -> documents.put(new DocumentKey(SearchType.TAG, tag), tag)));
+        catalog.productAreas().forEach(pa -> nullToEmptyList(pa.getTags()).forEach(tag -> documents.put(new DocumentKey(SearchType.TAG, tag), tag)));
+        return documents;
+    }
+
+    private static <T extends DomainObject> void putAll(Map<DocumentKey, String> documents, SearchType type, Collection<T> objects, Function<T, String> name) {
+        for (T object : objects) {
+            var objectName = name.apply(object);
+            if (objectName != null) {
+                documents.put(new DocumentKey(type, object.getId().toString()), objectName);
+            }
+        }
+    }
+
+    /**
+     * Delete the documents no longer in the catalog and replace the documents with a new name
+     *
+     * @return number of documents changed
+     */
+    private int apply(Map<DocumentKey, String> current) throws IOException {
+        int changed = 0;
+        for (DocumentKey key : documents.keySet()) {
+            if (!current.containsKey(key)) {
+                writer.deleteDocuments(key.query());
+                changed++;
+            }
+        }
+        for (Entry<DocumentKey, String> document : current.entrySet()) {
+            var key = document.getKey();
+            var name = documents.get(key);
+            if (!document.getValue().equals(name)) {
+                if (name != null) {
+                    writer.deleteDocuments(key.query());
+                }
+                writer.addDocument(NameSearch.createDocument(key.type().getType(), key.id(), document.getValue()));
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    private static String readValue(LeafReaderContext leaf, String field, int doc) throws IOException {
+        var values = leaf.reader().getSortedDocValues(field);
+        return values != null && values.advanceExact(doc - leaf.docBase) ? values.lookupOrd(values.ordValue()).utf8ToString() : null;
+    }
+
+    private record Found(SearchType type, String id, float score) {
+
+    }
+
+    private record DocumentKey(SearchType type, String id) {
+
+        Query query() {
+            return new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(NameSearch.FIELD_TYPE, type.getType())), Occur.FILTER)
+                    .add(new TermQuery(NameSearch.idTerm(id)), Occur.FILTER)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package no.nav.data.team.search.dto;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@JsonPropertyOrder({"type", "id", "name", "score"})
+public class SearchHitResponse {
+
+    private SearchType type;
+    @Parameter(description = "Uuid of teams, product areas and clusters, navIdent of resources and the tag itself for tags")
+    private String id;
+    private String name;
+    private float score;
+}
@@ -0,0 +1,27 @@
+package no.nav.data.team.search.dto;
+
+import lombok.Getter;
+
+import java.util.Arrays;
+
+public enum SearchType {
+    TEAM("Team"),
+    PRODUCT_AREA("ProductArea"),
+    CLUSTER("Cluster"),
+    TAG("Tag"),
+    RESOURCE("Resource");
+
+    /**
+     * Value of the type field in the search indexes
+     */
+    @Getter
+    private final String type;
+
+    SearchType(String type) {
+        this.type = type;
+    }
+
+    public static SearchType fromType(String type) {
+        return Arrays.stream(values()).filter(t -> t.type.equals(type)).findFirst().orElseThrow();
+    }
+}
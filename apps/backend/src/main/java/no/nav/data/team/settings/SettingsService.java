@@ -3,7 +3,7 @@ package no.nav.data.team.settings;
 import com.fasterxml.jackson.databind.node.JsonNodeFactory;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.github.benmanes.caffeine.cache.LoadingCache;
-import lombok.RequiredArgsConstructor;
+import no.nav.data.common.storage.InvalidationBus;
 import no.nav.data.common.storage.domain.GenericStorage;
 import no.nav.data.common.storage.domain.GenericStorageRepository;
 import no.nav.data.common.storage.domain.TypeRegistration;
@@ -16,16 +16,20 @@ import java.time.Duration;
 import java.util.UUID;
 
 @Service
-@RequiredArgsConstructor
 public class SettingsService {
 
     private static final String SETTINGS = TypeRegistration.typeOf(Settings.class);
     private final GenericStorageRepository repository;
 
     private final LoadingCache<String, Settings> cache = Caffeine.newBuilder()
-            .expireAfterWrite(Duration.ofMinutes(1))
+            .expireAfterWrite(Duration.ofHours(6))
             .build(k -> getSettings());
 
+    public SettingsService(GenericStorageRepository repository, InvalidationBus invalidationBus) {
+        this.repository = repository;
+        invalidationBus.evictAllOnChange(Settings.class, cache);
+    }
+
     public Settings getSettings() {
         return findSettings().getDomainObjectData(Settings.class);
     }
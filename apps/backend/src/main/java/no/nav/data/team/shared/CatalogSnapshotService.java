@@ -0,0 +1,113 @@
+package no.nav.data.team.shared;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import no.nav.data.common.storage.CatalogVersion;
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.common.storage.domain.GenericStorage;
+import no.nav.data.common.storage.domain.GenericStorageRepository;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.common.storage.domain.StorageEvent;
+import no.nav.data.common.storage.domain.TypeRegistration;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.NomClient;
+import no.nav.data.team.settings.dto.Settings;
+import no.nav.data.team.shared.domain.CatalogSnapshot;
+import no.nav.data.team.team.domain.Team;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.List;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
+
+/**
+ * Holds a {@link CatalogSnapshot}, loaded on first use and patched from committed writes on this node and on the other nodes.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CatalogSnapshotService {
+
+    /**
+     * Types responses of teams, product areas and clusters are read from, members are responded with their resource unless hidden by the settings
+     */
+    public static final List<String> RESPONSE_VERSION_TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class),
+            typeOf(Settings.class), CatalogVersion.RESOURCE);
+
+    private static final List<String> TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class));
+
+    private final GenericStorageRepository repository;
+    private final CatalogVersion catalogVersion;
+    private final NomClient nomClient;
+
+    private volatile CatalogSnapshot snapshot;
+
+    public CatalogSnapshot get() {
+        var current = snapshot;
+        return current != null ? current : load();
+    }
+
+    /**
+     * Version of responses read from the types as held on this node, in the snapshot, the caches and the resources from NOM.
+     * The catalog version counts changes this node may not have applied yet, the changes applied are added,
+     * so a response read before a change is applied is not kept after. Only comparable on this node, read it before the data.
+     */
+    public long getVersion(Collection<String> types) {
+        long version = catalogVersion.get(types) + catalogVersion.getApplied(types);
+        return types.contains(CatalogVersion.RESOURCE) ? version + nomClient.getGeneration() : version;
+    }
+
+    /**
+     * Runs before other listeners, so they read the changed object from the catalog
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onStorageEvent(StorageEvent event) {
+        if (snapshot == null || !TYPES.contains(event.type())) {
+            return;
+        }
+        snapshot = event.isDelete() ? snapshot.without(event.id()) : snapshot.with(event.getDomainObject(TypeRegistration.<DomainObject>classFrom(event.type())));
+    }
+
+    /**
+     * Runs before other listeners, so they read the changed object from the catalog
+     */
+    @EventListener
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onStorageChange(StorageChange change) {
+        if (snapshot == null) {
+            return;
+        }
+        if (change.isReset()) {
+            log.info("catalog snapshot reset");
+            snapshot = null;
+        } else if (TYPES.contains(change.type())) {
+            snapshot = repository.findById(change.id())
+                    .map(storage -> snapshot.with(toDomainObject(storage)))
+                    .orElseGet(() -> snapshot.without(change.id()));
+        }
+    }
+
+    private synchronized CatalogSnapshot load() {
+        if (snapshot == null) {
+            snapshot = CatalogSnapshot.of(
+                    GenericStorage.to(repository.findAllByType(typeOf(Team.class)), Team.class),
+                    GenericStorage.to(repository.findAllByType(typeOf(ProductArea.class)), ProductArea.class),
+                    GenericStorage.to(repository.findAllByType(typeOf(Cluster.class)), Cluster.class)
+            );
+            log.info("loaded catalog snapshot, {} teams {} product areas {} clusters",
+                    snapshot.teams().size(), snapshot.productAreas().size(), snapshot.clusters().size());
+        }
+        return snapshot;
+    }
+
+    private static DomainObject toDomainObject(GenericStorage storage) {
+        return storage.getDomainObjectData(TypeRegistration.<DomainObject>classFrom(storage.getType()));
+    }
+}
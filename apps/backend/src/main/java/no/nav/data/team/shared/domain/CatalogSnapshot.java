@@ -0,0 +1,168 @@
+package no.nav.data.team.shared.domain;
+
+import no.nav.data.common.storage.domain.DomainObject;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.team.domain.Team;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+
+import static no.nav.data.common.utils.StreamUtils.nullToEmptyList;
+
+/**
+ * Immutable view of all teams, product areas and clusters, with the relations between them indexed.
+ * <p>
+ * Changes produce a new snapshot. The domain objects are shared by every reader and must not be modified, get them from storage to make changes.
+ */
+public class CatalogSnapshot {
+
+    private final Map<UUID, Team> teams;
+    private final Map<UUID, ProductArea> productAreas;
+    private final Map<UUID, Cluster> clusters;
+    private final List<Team> teamList;
+    private final List<ProductArea> productAreaList;
+    private final List<Cluster> clusterList;
+    private final RelationIndex relations;
+    private volatile Map<String, Integer> membershipCounts;
+
+    private CatalogSnapshot(Map<UUID, Team> teams, Map<UUID, ProductArea> productAreas, Map<UUID, Cluster> clusters) {
+        this.teams = teams;
+        this.productAreas = productAreas;
+        this.clusters = clusters;
+        this.teamList = List.copyOf(teams.values());
+        this.productAreaList = List.copyOf(productAreas.values());
+        this.clusterList = List.copyOf(clusters.values());
+        this.relations = RelationIndex.of(teamList, clusterList);
+    }
+
+    public static CatalogSnapshot of(Collection<Team> teams, Collection<ProductArea> productAreas, Collection<Cluster> clusters) {
+        return new CatalogSnapshot(byId(teams), byId(productAreas), byId(clusters));
+    }
+
+    public List<Team> teams() {
+        return teamList;
+    }
+
+    public List<ProductArea> productAreas() {
+        return productAreaList;
+    }
+
+    public List<Cluster> clusters() {
+        return clusterList;
+    }
+
+    public Optional<Team> team(UUID id) {
+        return Optional.ofNullable(teams.get(id));
+    }
+
+    public Optional<ProductArea> productArea(UUID id) {
+        return Optional.ofNullable(productAreas.get(id));
+    }
+
+    public Optional<Cluster> cluster(UUID id) {
+        return Optional.ofNullable(clusters.get(id));
+    }
+
+    /**
+     * Teams with the product area set directly, any status
+     */
+    public List<Team> teamsInProductArea(UUID productAreaId) {
+        return relations.teamsInProductArea(productAreaId);
+    }
+
+    public List<Team> teamsInCluster(UUID clusterId) {
+        return relations.teamsInCluster(clusterId);
+    }
+
+    public List<Cluster> clustersInProductArea(UUID productAreaId) {
+        return relations.clustersInProductArea(productAreaId);
+    }
+
+    public List<Team> teamsWithStatus(DomainObjectStatus status) {
+        return relations.teamsWithStatus(status);
+    }
+
+    /**
+     * Teams with office hours at the location itself, not at locations under it
+     */
+    public List<Team> teamsInLocation(String locationCode) {
+        return relations.teamsInLocation(locationCode);
+    }
+
+    /**
+     * Number of teams, product areas and clusters that are not inactive each ident is a member of, by upper case ident.
+     * Counted on first use.
+     */
+    public Map<String, Integer> membershipCounts() {
+        var counts = membershipCounts;
+        if (counts == null) {
+            var counting = new HashMap<String, Integer>();
+            teamList.stream().filter(t -> t.getStatus() != DomainObjectStatus.INACTIVE).forEach(t -> count(counting, t));
+            productAreaList.stream().filter(pa -> pa.getStatus() != DomainObjectStatus.INACTIVE).forEach(pa -> count(counting, pa));
+            clusterList.stream().filter(c -> c.getStatus() != DomainObjectStatus.INACTIVE).forEach(c -> count(counting, c));
+            counts = Collections.unmodifiableMap(counting);
+            membershipCounts = counts;
+        }
+        return counts;
+    }
+
+    /**
+     * @return snapshot with the object added or replaced, objects of other types are ignored
+     */
+    public CatalogSnapshot with(DomainObject object) {
+        if (object instanceof Team team) {
+            return new CatalogSnapshot(put(teams, team), productAreas, clusters);
+        } else if (object instanceof ProductArea productArea) {
+            return new CatalogSnapshot(teams, put(productAreas, productArea), clusters);
+        } else if (object instanceof Cluster cluster) {
+            return new CatalogSnapshot(teams, productAreas, put(clusters, cluster));
+        }
+        return this;
+    }
+
+    public CatalogSnapshot without(UUID id) {
+        if (teams.containsKey(id)) {
+            return new CatalogSnapshot(remove(teams, id), productAreas, clusters);
+        } else if (productAreas.containsKey(id)) {
+            return new CatalogSnapshot(teams, remove(productAreas, id), clusters);
+        } else if (clusters.containsKey(id)) {
+            return new CatalogSnapshot(teams, productAreas, remove(clusters, id));
+        }
+        return this;
+    }
+
+    private static void count(Map<String, Integer> counts, Membered membered) {
+        nullToEmptyList(membered.getMembers()).stream()
+                .map(Member::getNavIdent)
+                .filter(Objects::nonNull)
+                .map(String::toUpperCase)
+                .distinct()
+                .forEach(ident -> counts.merge(ident, 1, Integer::sum));
+    }
+
+    private static <T extends DomainObject> Map<UUID, T> byId(Collection<T> objects) {
+        var map = new LinkedHashMap<UUID, T>(objects.size() * 2);
+        objects.forEach(o -> map.put(o.getId(), o));
+        return map;
+    }
+
+    private static <T extends DomainObject> Map<UUID, T> put(Map<UUID, T> map, T object) {
+        var copy = new LinkedHashMap<>(map);
+        copy.put(object.getId(), object);
+        return copy;
+    }
+
+    private static <T> Map<UUID, T> remove(Map<UUID, T> map, UUID id) {
+        var copy = new LinkedHashMap<>(map);
+        copy.remove(id);
+        return copy;
+    }
+}
@@ -0,0 +1,93 @@
+package no.nav.data.team.shared.domain;
+
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.team.domain.Team;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static no.nav.data.common.utils.StreamUtils.copyOf;
+
+/**
+ * Which teams and clusters belong to which product area or cluster, and which teams have which status and office location,
+ * built in one pass over a set of teams and clusters. Teams are listed in the order they were given.
+ * <p>
+ * Only reflects the objects it was built from, build a new one when they change.
+ */
+public class RelationIndex {
+
+    private final Map<UUID, List<Team>> teamsByProductArea = new HashMap<>();
+    private final Map<UUID, List<Team>> teamsByCluster = new HashMap<>();
+    private final Map<UUID, List<Cluster>> clustersByProductArea = new HashMap<>();
+    private final Map<DomainObjectStatus, List<Team>> teamsByStatus = new EnumMap<>(DomainObjectStatus.class);
+    private final Map<String, List<Team>> teamsByLocation = new HashMap<>();
+
+    private RelationIndex() {
+    }
+
+    public static RelationIndex of(Collection<Team> teams, Collection<Cluster> clusters) {
+        var index = new RelationIndex();
+        for (Team team : teams) {
+            if (team.getProductAreaId() != null) {
+                index.teamsByProductArea.computeIfAbsent(team.getProductAreaId(), id -> new ArrayList<>()).add(team);
+            }
+            for (UUID clusterId : copyOf(team.getClusterIds())) {
+                index.teamsByCluster.computeIfAbsent(clusterId, id -> new ArrayList<>()).add(team);
+            }
+            if (team.getStatus() != null) {
+                index.teamsByStatus.computeIfAbsent(team.getStatus(), status -> new ArrayList<>()).add(team);
+            }
+            if (team.getOfficeHours() != null && team.getOfficeHours().getLocationCode() != null) {
+                index.teamsByLocation.computeIfAbsent(team.getOfficeHours().getLocationCode(), code -> new ArrayList<>()).add(team);
+            }
+        }
+        for (Cluster cluster : clusters) {
+            if (cluster.getProductAreaId() != null) {
+                index.clustersByProductArea.computeIfAbsent(cluster.getProductAreaId(), id -> new ArrayList<>()).add(cluster);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Teams with the product area set directly
+     */
+    public List<Team> teamsInProductArea(UUID productAreaId) {
+        return teamsByProductArea.getOrDefault(productAreaId, List.of());
+    }
+
+    /**
+     * Teams in the product area directly or through one of its clusters, each team once
+     */
+    public List<Team> allTeamsInProductArea(UUID productAreaId) {
+        var teams = new LinkedHashMap<UUID, Team>();
+        teamsInProductArea(productAreaId).forEach(team -> teams.put(team.getId(), team));
+        clustersInProductArea(productAreaId).forEach(cluster -> teamsInCluster(cluster.getId()).forEach(team -> teams.putIfAbsent(team.getId(), team)));
+        return List.copyOf(teams.values());
+    }
+
+    public List<Team> teamsInCluster(UUID clusterId) {
+        return teamsByCluster.getOrDefault(clusterId, List.of());
+    }
+
+    public List<Cluster> clustersInProductArea(UUID productAreaId) {
+        return clustersByProductArea.getOrDefault(productAreaId, List.of());
+    }
+
+    public List<Team> teamsWithStatus(DomainObjectStatus status) {
+        return teamsByStatus.getOrDefault(status, List.of());
+    }
+
+    /**
+     * Teams with office hours at the location itself, not at locations under it
+     */
+    public List<Team> teamsInLocation(String locationCode) {
+        return teamsByLocation.getOrDefault(locationCode, List.of());
+    }
+}
@@ -1,18 +1,28 @@
 package no.nav.data.team.tag;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
 import no.nav.data.common.exceptions.ValidationException;
 import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.rest.VersionedResponses;
+import no.nav.data.common.storage.CatalogVersion;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.team.domain.Team;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import java.util.List;
+
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
 import static no.nav.data.common.utils.StartsWithComparator.startsWith;
 import static no.nav.data.common.utils.StreamUtils.filter;
 import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
@@ -23,18 +33,24 @@ import static org.apache.commons.lang3.StringUtils.containsIgnoreCase;
 @Tag(name = "Tag")
 public class TagController {
 
+    private static final List<String> VERSION_TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class));
+
     private final TagRepository tagRepository;
+    private final CatalogVersion catalogVersion;
+    private final VersionedResponses versionedResponses;
 
-    public TagController(TagRepository tagRepository) {
+    public TagController(TagRepository tagRepository, CatalogVersion catalogVersion, VersionedResponses versionedResponses) {
         this.tagRepository = tagRepository;
+        this.catalogVersion = catalogVersion;
+        this.versionedResponses = versionedResponses;
     }
 
     @Operation(summary = "Get tags")
-    @ApiResponse(description = "Tags fetched")
+    @ApiResponse(description = "Tags fetched", content = @Content(schema = @Schema(implementation = TagPageResponse.class)))
     @GetMapping
-    public ResponseEntity<RestResponsePage<String>> getTags() {
-        var tags = tagRepository.getTags();
-        return new ResponseEntity<>(new RestResponsePage<>(tags), HttpStatus.OK);
+    public ResponseEntity<byte[]> getTags(WebRequest request) {
+        var version = catalogVersion.get(VERSION_TYPES);
+        return versionedResponses.respond(request, version, () -> new RestResponsePage<>(tagRepository.getTags()));
     }
 
     @Operation(summary = "Search tags")
@@ -1,19 +1,23 @@
 package no.nav.data.team.team;
 
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.extern.slf4j.Slf4j;
-import lombok.val;
-import no.nav.data.common.exceptions.TechnicalException;
 import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.export.ExportCache;
+import no.nav.data.common.export.ExportFormat;
+import no.nav.data.common.rest.CursorPage;
 import no.nav.data.common.rest.RestResponsePage;
+import no.nav.data.common.rest.VersionedResponses;
 import no.nav.data.team.location.LocationRepository;
-import no.nav.data.team.location.domain.Location;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import no.nav.data.team.team.TeamExportService.SpreadsheetType;
+import no.nav.data.team.team.TeamService.TeamFilter;
 import no.nav.data.team.team.domain.Team;
 import no.nav.data.team.team.domain.TeamOwnershipType;
 import no.nav.data.team.team.dto.TeamRequest;
@@ -22,7 +26,6 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -30,18 +33,23 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
-import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static no.nav.data.common.export.ExcelBuilder.SPREADSHEETML_SHEET_MIME;
+import static no.nav.data.common.export.ExportFormat.CSV_MIME;
+import static no.nav.data.common.export.ExportFormat.NDJSON_MIME;
 import static no.nav.data.common.utils.StreamUtils.convert;
 
 
@@ -54,44 +62,57 @@ public class TeamController {
     private final TeamService service;
     private final TeamExportService teamExportService;
     private final LocationRepository locationRepository;
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final ExportCache exportCache;
+    private final VersionedResponses versionedResponses;
 
-    public TeamController(TeamService service, TeamExportService teamExportService, LocationRepository locationRepository) {
+    public TeamController(TeamService service, TeamExportService teamExportService, LocationRepository locationRepository,
+            CatalogSnapshotService catalogSnapshotService, ExportCache exportCache, VersionedResponses versionedResponses) {
         this.service = service;
         this.teamExportService = teamExportService;
         this.locationRepository = locationRepository;
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.exportCache = exportCache;
+        this.versionedResponses = versionedResponses;
     }
 
-    @Operation(summary = "Get All Teams")
-    @ApiResponse(description = "ok")
+    @Operation(summary = "Get All Teams",
+            description = "All fields of all teams, or with fields, expand, cursor or limit a page of teams ordered by id with the fields asked for. "
+                    + "Members are only included in pages with expand=members.")
+    @ApiResponse(description = "ok", content = @Content(schema = @Schema(oneOf = {TeamPageResponse.class, TeamCursorPageResponse.class})))
     @GetMapping()
-    public ResponseEntity<RestResponsePage<TeamResponse>> getAll(
+    public ResponseEntity<byte[]> getAll(
+            WebRequest request,
             @RequestParam(name = "productAreaId", required = false) UUID productAreaId,
             @RequestParam(name = "clusterId", required = false) UUID clusterId,
             @RequestParam(name = "locationCode", required = false) String locationCode,
-            @RequestParam(name = "status", required = false, defaultValue = "ACTIVE,PLANNED,INACTIVE") String stringStatus
+            @RequestParam(name = "status", required = false, defaultValue = "ACTIVE,PLANNED,INACTIVE") String stringStatus,
+            @Parameter(description = "Comma separated fields of the teams, such as id,name,productAreaId")
+            @RequestParam(name = "fields", required = false) String fields,
+            @Parameter(description = "members to include the members of the teams")
+            @RequestParam(name = "expand", required = false) String expand,
+            @Parameter(description = "nextCursor of the previous page")
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @Parameter(description = "Max teams on the page, default " + CursorPage.DEFAULT_LIMIT + ", max " + CursorPage.MAX_LIMIT)
+            @RequestParam(name = "limit", required = false) Integer limit
     ) {
         log.info("Get all Teams");
-
-        var queryStatusList = DomainObjectStatus.fromQueryParameter(stringStatus);
-
-        List<Team> teams;
-        if (productAreaId != null) {
-            teams = service.findByProductArea(productAreaId);
-        } else if (clusterId != null) {
-            teams = service.findByCluster(clusterId);
-        } else {
-            teams = service.getAll();
+        var version = catalogSnapshotService.getVersion(CatalogSnapshotService.RESPONSE_VERSION_TYPES);
+        if (fields == null && expand == null && cursor == null && limit == null) {
+            return versionedResponses.respond(request, version,
+                    () -> new RestResponsePage<>(convert(service.find(filter(productAreaId, clusterId, locationCode, stringStatus)), Team::convertToResponse)));
         }
+        var teamFields = TeamFields.of(fields, expand);
+        return versionedResponses.respond(request, version,
+                () -> CursorPage.of(service.find(filter(productAreaId, clusterId, locationCode, stringStatus)), Team::getId, cursor, limit, teamFields::project));
+    }
 
-        if(locationCode != null){
-            val location = locationRepository.getLocationByCode(locationCode);
-            val locations = location.isPresent() ? location.get().flatMap() : new HashMap<String, Location>();
-            teams = teams.stream().filter(t -> locations.containsKey(t.getOfficeHours() != null ? t.getOfficeHours().getLocationCode() : null)).toList();
-        }
-
-        teams = teams.stream().filter(t -> queryStatusList.contains(t.getStatus())).toList();
-
-        return ResponseEntity.ok(new RestResponsePage<>(convert(teams, Team::convertToResponse)));
+    private TeamFilter filter(UUID productAreaId, UUID clusterId, String locationCode, String stringStatus) {
+        var statuses = Set.copyOf(DomainObjectStatus.fromQueryParameter(stringStatus));
+        var locationCodes = locationCode == null ? null : locationRepository.getLocationByCode(locationCode)
+                .map(location -> location.flatMap().keySet())
+                .orElse(Set.of());
+        return new TeamFilter(productAreaId, clusterId, locationCodes, statuses);
     }
 
     @Operation(summary = "Get Team")
@@ -173,35 +194,30 @@ public class TeamController {
         return ResponseEntity.ok(team.convertToResponse());
     }
 
-    @Operation(summary = "Get export for teams")
+    @Operation(summary = "Get export for teams, as xlsx, csv or ndjson by the Accept header, with an ETag of the catalog version")
     @ApiResponse(description = "Doc fetched", content = @Content(schema = @Schema(implementation = byte[].class)))
     @Transactional(readOnly = true)
-    @GetMapping(value = "/export/{type}", produces = SPREADSHEETML_SHEET_MIME)
-    public void getExport(
-            HttpServletResponse response,
+    @GetMapping(value = "/export/{type}", produces = {SPREADSHEETML_SHEET_MIME, CSV_MIME, NDJSON_MIME})
+    public ResponseEntity<StreamingResponseBody> getExport(
+            WebRequest request,
+            @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
             @PathVariable("type") SpreadsheetType type,
             @RequestParam(name = "id", required = false) String id
     ) {
         if (type != SpreadsheetType.ALL && id == null) {
             throw new ValidationException("missing id for spreadsheet type " + type);
         }
-        byte[] doc = teamExportService.generate(type, id);
-        String filename = "teams_" + type + Optional.ofNullable(id).map(s -> "-" + s).orElse("") + ".xlsx";
-        response.setContentType(SPREADSHEETML_SHEET_MIME);
-        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=" + filename);
-        writeDoc(response, doc);
+        var format = ExportFormat.fromAccept(accept);
+        String filename = "teams_" + type + Optional.ofNullable(id).map(s -> "-" + s).orElse("") + "." + format.getExtension();
+        var version = catalogSnapshotService.getVersion(TeamExportService.VERSION_TYPES);
+        return exportCache.respond(request, filename, format, version, () -> teamExportService.export(type, id, format));
     }
 
-    private void writeDoc(HttpServletResponse response, byte[] doc) {
-        try {
-            StreamUtils.copy(doc, response.getOutputStream());
-            response.flushBuffer();
-        } catch (Exception e) {
-            throw new TechnicalException("io error", e);
-        }
+    static class TeamPageResponse extends RestResponsePage<TeamResponse> {
+
     }
 
-    static class TeamPageResponse extends RestResponsePage<TeamResponse> {
+    static class TeamCursorPageResponse extends CursorPage<Map<String, Object>> {
 
     }
 
@@ -1,6 +1,10 @@
 package no.nav.data.team.team;
 
-import no.nav.data.common.export.ExcelBuilder;
+import no.nav.data.common.export.ExportFormat;
+import no.nav.data.common.export.TableExport;
+import no.nav.data.common.export.TableWriter;
+import no.nav.data.common.export.TableWriter.Column;
+import no.nav.data.common.storage.CatalogVersion;
 import no.nav.data.common.utils.DateUtil;
 import no.nav.data.team.cluster.ClusterService;
 import no.nav.data.team.cluster.domain.Cluster;
@@ -16,6 +20,7 @@ import no.nav.data.team.team.domain.TeamMember;
 import no.nav.data.team.team.domain.TeamRole;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayOutputStream;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
@@ -25,6 +30,7 @@ import java.util.stream.Collectors;
 
 import static java.lang.String.join;
 import static java.util.Optional.ofNullable;
+import static no.nav.data.common.storage.domain.TypeRegistration.typeOf;
 import static no.nav.data.common.utils.StreamUtils.convert;
 import static no.nav.data.common.utils.StreamUtils.filter;
 import static no.nav.data.common.utils.StreamUtils.nullToEmptyList;
@@ -39,6 +45,11 @@ public class TeamExportService {
         AREA
     }
 
+    /**
+     * Types the exports are read from, exports change with the catalog version of these
+     */
+    public static final List<String> VERSION_TYPES = List.of(typeOf(Team.class), typeOf(ProductArea.class), typeOf(Cluster.class), CatalogVersion.RESOURCE);
+
     private final TeamService teamService;
     private final ProductAreaService productAreaService;
     private final ClusterService clusterService;
@@ -51,6 +62,15 @@ public class TeamExportService {
     }
 
     public byte[] generate(SpreadsheetType type, String filter) {
+        var out = new ByteArrayOutputStream();
+        export(type, filter, ExportFormat.XLSX).writeTo(out);
+        return out.toByteArray();
+    }
+
+    /**
+     * Teams are collected and sorted when called, rows are written from them one by one when the export is written
+     */
+    public TableExport export(SpreadsheetType type, String filter, ExportFormat format) {
         UUID filterUuid = toUUID(filter);
         var domainPaMap = productAreaService.getAll().stream().collect(Collectors.toMap(ProductArea::getId, Function.identity()));
         var domainClusterMap = clusterService.getAll().stream().collect(Collectors.toMap(Cluster::getId, Function.identity()));
@@ -62,45 +82,44 @@ public class TeamExportService {
 
         var teams = convert(domainTeams, t -> new TeamInfo(t, domainPaMap.get(t.getProductAreaId()), convert(t.getClusterIds(), domainClusterMap::get)));
 
-        return generate(teams);
+        teams.sort(Comparator.comparing(t -> t.team().getName()));
+        return out -> write(teams, format.createWriter("Teams", out));
     }
 
-    private byte[] generate(List<TeamInfo> teams) {
-        var doc = new ExcelBuilder("Teams");
+    private void write(List<TeamInfo> teams, TableWriter doc) {
+
+        doc.addHeader(List.of(
+                new Column("id", Lang.TEAM_ID),
+                new Column("name", Lang.NAME),
+                new Column("teamLeads", Lang.TEAM_LEADS),
+                new Column("productOwners", Lang.PRODUCT_OWNERS),
+                new Column("teamOwnershipType", Lang.OWNERSHIP_TYPE),
+                new Column("teamType", Lang.TEAM_TYPE),
+                new Column("productAreaId", Lang.AREA_ID),
+                new Column("productArea", Lang.AREA),
+                new Column("clusters", Lang.CLUSTER),
+                new Column("status", Lang.STATUS),
+                new Column("qaTime", Lang.QA_DONE),
+                new Column("naisTeams", Lang.NAIS_TEAMS),
+                new Column("tags", Lang.TAGS),
+                new Column("members", Lang.MEMBERS),
+                new Column("internalMembers", Lang.INTERNAL),
+                new Column("externalMembers", Lang.EXTERNAL),
+                new Column("slackChannel", Lang.SLACK),
+
+                new Column("contactPerson", Lang.CONTACT_PERSON),
+                new Column("locationCode", Lang.LOCATION),
+                new Column("officeHoursDays", Lang.OFFICE_HOURS),
+
+                new Column("description", Lang.DESCRIPTION)
+        ));
 
-        doc.addRow()
-                .addCell(Lang.TEAM_ID)
-                .addCell(Lang.NAME)
-                .addCell(Lang.TEAM_LEADS)
-                .addCell(Lang.PRODUCT_OWNERS)
-                .addCell(Lang.OWNERSHIP_TYPE)
-                .addCell(Lang.TEAM_TYPE)
-                .addCell(Lang.AREA_ID)
-                .addCell(Lang.AREA)
-                .addCell(Lang.CLUSTER)
-                .addCell(Lang.STATUS)
-                .addCell(Lang.QA_DONE)
-                .addCell(Lang.NAIS_TEAMS)
-                .addCell(Lang.TAGS)
-                .addCell(Lang.MEMBERS)
-                .addCell(Lang.INTERNAL)
-                .addCell(Lang.EXTERNAL)
-                .addCell(Lang.SLACK)
-
-                .addCell((Lang.CONTACT_PERSON))
-                .addCell(Lang.LOCATION)
-                .addCell(Lang.OFFICE_HOURS)
-
-                .addCell(Lang.DESCRIPTION)
-        ;
-
-        teams.sort(Comparator.comparing(t -> t.team().getName()));
         teams.forEach(t -> add(doc, t));
 
-        return doc.build();
+        doc.finish();
     }
 
-    private void add(ExcelBuilder doc, TeamInfo teamInfo) {
+    private void add(TableWriter doc, TeamInfo teamInfo) {
         var team = teamInfo.team();
         var members = convert(team.getMembers(), TeamMember::convertToResponse);
 
@@ -0,0 +1,88 @@
+package no.nav.data.team.team;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.introspect.BeanPropertyDefinition;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import no.nav.data.common.exceptions.TechnicalException;
+import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.dto.TeamResponse;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The fields of {@link TeamResponse} a client asked for, the team converted by {@link Team#convertToResponse(boolean)}
+ * and serialized with only those fields.
+ * <p>
+ * Members are left out unless expanded, and only converted when expanded, as each member is responded with its resource.
+ */
+final class TeamFields {
+
+    static final String MEMBERS = "members";
+
+    private static final String FILTER = "teamFields";
+    private static final ObjectMapper mapper = JsonUtils.createObjectMapper().addMixIn(TeamResponse.class, Filtered.class);
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+    private static final List<String> FIELDS = mapper.getSerializationConfig().introspect(mapper.constructType(TeamResponse.class))
+            .findProperties().stream().map(BeanPropertyDefinition::getName).toList();
+
+    private final ObjectWriter writer;
+    private final boolean withMembers;
+
+    private TeamFields(ObjectWriter writer, boolean withMembers) {
+        this.writer = writer;
+        this.withMembers = withMembers;
+    }
+
+    /**
+     * @param fields comma separated, null for all fields
+     * @param expand comma separated, members is the only field that can be expanded
+     */
+    static TeamFields of(String fields, String expand) {
+        var names = fields == null ? FIELDS.stream().filter(name -> !MEMBERS.equals(name)).toList() : split(fields);
+        var expanded = expand == null ? List.<String>of() : split(expand);
+        for (String name : names) {
+            if (!FIELDS.contains(name) || MEMBERS.equals(name)) {
+                throw new ValidationException("invalid field " + name + ", fields are " + String.join(",", FIELDS) + " and members by expand=members");
+            }
+        }
+        for (String name : expanded) {
+            if (!MEMBERS.equals(name)) {
+                throw new ValidationException("invalid expand " + name + ", only members can be expanded");
+            }
+        }
+        var selected = new HashSet<>(names);
+        selected.addAll(expanded);
+        var filters = new SimpleFilterProvider().addFilter(FILTER, SimpleBeanPropertyFilter.filterOutAllExcept(selected));
+        return new TeamFields(mapper.writer(filters), selected.contains(MEMBERS));
+    }
+
+    Map<String, Object> project(Team team) {
+        try (var buffer = new TokenBuffer(mapper, false)) {
+            writer.writeValue(buffer, team.convertToResponse(withMembers));
+            return mapper.readValue(buffer.asParser(), MAP_TYPE);
+        } catch (IOException e) {
+            throw new TechnicalException("failed to project team " + team.getId(), e);
+        }
+    }
+
+    private static List<String> split(String names) {
+        return Arrays.stream(names.split(",")).map(String::trim).filter(name -> !name.isEmpty()).distinct().toList();
+    }
+
+    @JsonFilter(FILTER)
+    private interface Filtered {
+
+    }
+}
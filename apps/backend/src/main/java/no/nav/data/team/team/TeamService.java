@@ -3,6 +3,7 @@ package no.nav.data.team.team;
 import lombok.extern.slf4j.Slf4j;
 import lombok.val;
 import no.nav.data.common.TeamCatalogProps;
+import no.nav.data.common.exceptions.NotFoundException;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.GenericStorage;
 import no.nav.data.common.validator.Validator;
@@ -12,6 +13,7 @@ import no.nav.data.team.location.domain.LocationType;
 import no.nav.data.team.naisteam.NaisTeamService;
 import no.nav.data.team.po.domain.ProductArea;
 import no.nav.data.team.resource.NomClient;
+import no.nav.data.team.shared.CatalogSnapshotService;
 import no.nav.data.team.shared.domain.DomainObjectStatus;
 import no.nav.data.team.team.domain.Team;
 import no.nav.data.team.team.domain.TeamMember;
@@ -22,11 +24,15 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static no.nav.data.common.utils.StreamUtils.convert;
+import static no.nav.data.common.utils.StreamUtils.copyOf;
 import static no.nav.data.common.validator.Validator.*;
 
 @Slf4j
@@ -38,16 +44,19 @@ public class TeamService {
     private final NomClient nomClient;
     private final TeamRepository teamRepository;
     private final LocationRepository locationRepository;
+    private final CatalogSnapshotService catalog;
 
     @Autowired
     private TeamCatalogProps teamCatalogProps;
 
-    public TeamService(StorageService storage, NaisTeamService naisTeamService, NomClient nomClient, TeamRepository teamRepository, LocationRepository locationRepository) {
+    public TeamService(StorageService storage, NaisTeamService naisTeamService, NomClient nomClient, TeamRepository teamRepository, LocationRepository locationRepository,
+            CatalogSnapshotService catalog) {
         this.storage = storage;
         this.naisTeamService = naisTeamService;
         this.nomClient = nomClient;
         this.teamRepository = teamRepository;
         this.locationRepository = locationRepository;
+        this.catalog = catalog;
     }
 
     public Team save(TeamRequest request) {
@@ -79,7 +88,7 @@ public class TeamService {
     }
 
     public Team get(UUID id) {
-        return storage.get(id, Team.class);
+        return catalog.get().team(id).orElseThrow(() -> new NotFoundException("Couldn't find Team with id " + id));
     }
 
     public Team delete(UUID id) {
@@ -89,7 +98,7 @@ public class TeamService {
     }
 
     public List<Team> getAll() {
-        return storage.getAll(Team.class);
+        return catalog.get().teams();
     }
 
     public List<Team> getAllActive() {
@@ -98,11 +107,33 @@ public class TeamService {
     }
 
     public List<Team> findByProductArea(UUID productAreaId) {
-        return convert(teamRepository.findByProductArea(productAreaId), GenericStorage::toTeam);
+        return catalog.get().teamsInProductArea(productAreaId);
     }
 
     public List<Team> findByCluster(UUID clusterId) {
-        return teamRepository.findByCluster(clusterId);
+        return catalog.get().teamsInCluster(clusterId);
+    }
+
+    /**
+     * Teams matching every part of the filter that is set, read from the catalog index of the most selective part
+     */
+    public List<Team> find(TeamFilter filter) {
+        var snapshot = catalog.get();
+        var candidates = new ArrayList<List<Team>>();
+        if (filter.productAreaId() != null) {
+            candidates.add(snapshot.teamsInProductArea(filter.productAreaId()));
+        }
+        if (filter.clusterId() != null) {
+            candidates.add(snapshot.teamsInCluster(filter.clusterId()));
+        }
+        if (filter.locationCodes() != null) {
+            candidates.add(filter.locationCodes().stream().flatMap(code -> snapshot.teamsInLocation(code).stream()).toList());
+        }
+        if (filter.statuses() != null && filter.statuses().size() < DomainObjectStatus.values().length) {
+            candidates.add(filter.statuses().stream().flatMap(status -> snapshot.teamsWithStatus(status).stream()).toList());
+        }
+        var smallest = candidates.stream().min(Comparator.comparingInt(List::size)).orElse(snapshot.teams());
+        return smallest.stream().filter(filter::matches).toList();
     }
 
     public List<Team> search(String name) {
@@ -182,4 +213,19 @@ public class TeamService {
             }
         }
     }
+
+    /**
+     * Parts left null match any team
+     *
+     * @param locationCodes office locations, a location does not include the locations under it
+     */
+    public record TeamFilter(UUID productAreaId, UUID clusterId, Set<String> locationCodes, Set<DomainObjectStatus> statuses) {
+
+        boolean matches(Team team) {
+            return (productAreaId == null || productAreaId.equals(team.getProductAreaId()))
+                    && (clusterId == null || copyOf(team.getClusterIds()).contains(clusterId))
+                    && (locationCodes == null || team.getOfficeHours() != null && locationCodes.contains(team.getOfficeHours().getLocationCode()))
+                    && (statuses == null || statuses.contains(team.getStatus()));
+        }
+    }
 }
@@ -86,6 +86,13 @@ public class Team implements DomainObject, Membered, HistorizedDomainObject {
     }
 
     public TeamResponse convertToResponse() {
+        return convertToResponse(true);
+    }
+
+    /**
+     * @param withMembers false to leave out the members, each member is converted with its resource
+     */
+    public TeamResponse convertToResponse(boolean withMembers) {
         return TeamResponse.builder()
                 .id(id)
                 .name(name)
@@ -101,7 +108,7 @@ public class Team implements DomainObject, Membered, HistorizedDomainObject {
                 .qaTime(qaTime)
                 .naisTeams(copyOf(naisTeams))
                 .tags(copyOf(tags))
-                .members(StreamUtils.convert(members, TeamMember::convertToResponse))
+                .members(withMembers ? StreamUtils.convert(members, TeamMember::convertToResponse) : null)
                 .changeStamp(convertChangeStampResponse())
                 .links(Links.getFor(this))
                 .officeHours(officeHours != null ? OfficeHoursResponse.builder()
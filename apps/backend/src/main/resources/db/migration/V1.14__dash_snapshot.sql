@@ -0,0 +1,18 @@
+CREATE TABLE IF NOT EXISTS DASH_SNAPSHOT
+(
+    TIME                          TIMESTAMP PRIMARY KEY,
+    TEAMS_COUNT                   INT       NOT NULL,
+    TEAMS_COUNT_PLANNED           INT       NOT NULL,
+    TEAMS_COUNT_INACTIVE          INT       NOT NULL,
+    PRODUCT_AREAS_COUNT           INT       NOT NULL,
+    PRODUCT_AREAS_COUNT_PLANNED   INT       NOT NULL,
+    PRODUCT_AREAS_COUNT_INACTIVE  INT       NOT NULL,
+    CLUSTER_COUNT                 INT       NOT NULL,
+    CLUSTER_COUNT_PLANNED         INT       NOT NULL,
+    CLUSTER_COUNT_INACTIVE        INT       NOT NULL,
+    RESOURCES                     INT       NOT NULL,
+    UNIQUE_RESOURCES              INT       NOT NULL,
+    UNIQUE_RESOURCES_EXTERNAL     INT       NOT NULL,
+    TOTAL_RESOURCES               INT       NOT NULL,
+    DATA                          BYTEA
+);
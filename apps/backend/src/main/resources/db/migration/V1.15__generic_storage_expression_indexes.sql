@@ -0,0 +1,12 @@
+-- Partial expression indexes for the jsonb paths the repositories filter on.
+-- Expressions and predicates must match the queries exactly for the planner to use them.
+
+create index if not exists gs_team_product_area_idx on generic_storage ((data ->> 'productAreaId')) where type = 'Team';
+create index if not exists gs_cluster_product_area_idx on generic_storage ((data ->> 'productAreaId')) where type = 'Cluster';
+create index if not exists gs_team_cluster_ids_idx on generic_storage using gin ((data -> 'clusterIds')) where type = 'Team';
+create index if not exists gs_team_update_unsent_idx on generic_storage (last_modified_date) where type = 'Team' and cast(data -> 'updateSent' as boolean) = false;
+
+create index if not exists gs_resource_photo_ident_idx on generic_storage ((data ->> 'ident')) where type = 'ResourcePhoto';
+create index if not exists gs_notification_ident_idx on generic_storage ((data ->> 'ident')) where type = 'Notification';
+create index if not exists gs_mail_log_to_idx on generic_storage ((data ->> 'to'), created_date desc) where type = 'MailLog';
+create index if not exists gs_mail_log_created_idx on generic_storage (created_date desc) where type = 'MailLog';
@@ -0,0 +1 @@
+create index if not exists gs_members_idx on generic_storage using gin ((data -> 'members') jsonb_path_ops) where type in ('Team', 'ProductArea', 'Cluster');
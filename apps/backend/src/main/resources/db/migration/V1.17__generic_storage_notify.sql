@@ -0,0 +1,38 @@
+-- Notify the other nodes of writes to types they hold in memory, see StorageChangeChannel.
+-- application_name identifies the writing node, so it can skip its own notifications.
+
+create or replace function generic_storage_notify() returns trigger as
+$$
+declare
+    changed generic_storage;
+    action  text;
+begin
+    if TG_OP = 'DELETE' then
+        changed := OLD;
+        action := 'DELETE';
+    elsif TG_OP = 'INSERT' then
+        changed := NEW;
+        action := 'CREATE';
+    else
+        changed := NEW;
+        action := 'UPDATE';
+    end if;
+
+    if changed.type in ('Team', 'ProductArea', 'Cluster', 'Settings', 'ResourcePhoto') then
+        perform pg_notify('storage_change', json_build_object(
+                'node', current_setting('application_name'),
+                'type', changed.type,
+                'id', changed.id,
+                'action', action,
+                'ident', changed.data ->> 'ident'
+            )::text);
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger generic_storage_notify
+    after insert or update or delete
+    on generic_storage
+    for each row
+execute procedure generic_storage_notify();
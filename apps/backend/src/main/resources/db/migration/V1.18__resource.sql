@@ -0,0 +1,23 @@
+CREATE TABLE IF NOT EXISTS RESOURCE
+(
+    NAV_IDENT          TEXT PRIMARY KEY,
+    KAFKA_PARTITION    INT       NOT NULL,
+    KAFKA_OFFSET       BIGINT    NOT NULL,
+    DATA               JSONB     NOT NULL,
+    LAST_MODIFIED_DATE TIMESTAMP NOT NULL DEFAULT now()
+);
+
+-- Keep only the newest version of each resource, as the cleanup job did
+INSERT INTO RESOURCE (NAV_IDENT, KAFKA_PARTITION, KAFKA_OFFSET, DATA, LAST_MODIFIED_DATE)
+SELECT DISTINCT ON (upper(data ->> 'navIdent')) upper(data ->> 'navIdent'),
+                                                coalesce(cast(data ->> 'partition' AS INT), 0),
+                                                coalesce(cast(data ->> 'offset' AS BIGINT), 0),
+                                                data - 'id' - 'changeStamp',
+                                                coalesce(last_modified_date, created_date, now())
+FROM generic_storage
+WHERE type = 'Resource'
+  AND data ->> 'navIdent' IS NOT NULL
+ORDER BY upper(data ->> 'navIdent'), cast(data ->> 'offset' AS BIGINT) DESC, created_date DESC
+ON CONFLICT DO NOTHING;
+
+DELETE FROM generic_storage WHERE type = 'Resource';
@@ -0,0 +1,84 @@
+-- Version of each type in the catalog, see CatalogVersion.
+-- Every transaction writing a type adds one row for the type, and the version of a type is the number of committed transactions
+-- that wrote it, the sum of its rows. A commit only adds to the sum, so the version a reader sees grows with every commit that becomes
+-- visible, in whatever order transactions commit, and the same committed writes give the same version on all nodes.
+-- The rows are only inserted, so writers never wait on each other for a version. CatalogVersion compacts the rows of a type into one.
+
+create table if not exists catalog_version
+(
+    type    text   not null,
+    version bigint not null
+);
+
+create index if not exists catalog_version_type_idx on catalog_version (type);
+
+-- Once per transaction and type, the types already counted are kept in a transaction local setting such as |Team|Cluster|
+create or replace function catalog_version_bump(changed_types text[]) returns void as
+$$
+declare
+    bumped       text := coalesce(current_setting('team_catalog.catalog_version', true), '');
+    changed_type text;
+begin
+    foreach changed_type in array changed_types
+        loop
+            if position('|' || changed_type || '|' in bumped) = 0 then
+                insert into catalog_version (type, version) values (changed_type, 1);
+                bumped := coalesce(nullif(bumped, ''), '|') || changed_type || '|';
+            end if;
+        end loop;
+    perform set_config('team_catalog.catalog_version', bumped, true);
+end;
+$$ language plpgsql;
+
+-- One call per statement, with the types of the rows it wrote
+create or replace function generic_storage_version() returns trigger as
+$$
+begin
+    if TG_OP = 'DELETE' then
+        perform catalog_version_bump(array(select distinct type from old_rows));
+    else
+        perform catalog_version_bump(array(select distinct type from new_rows));
+    end if;
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger generic_storage_version_insert
+    after insert
+    on generic_storage
+    referencing new table as new_rows
+    for each statement
+execute procedure generic_storage_version();
+
+create trigger generic_storage_version_update
+    after update
+    on generic_storage
+    referencing new table as new_rows
+    for each statement
+execute procedure generic_storage_version();
+
+create trigger generic_storage_version_delete
+    after delete
+    on generic_storage
+    referencing old table as old_rows
+    for each statement
+execute procedure generic_storage_version();
+
+-- Resources are written in batches from the NOM topic, one call per statement
+create or replace function resource_version() returns trigger as
+$$
+begin
+    perform catalog_version_bump(array ['Resource']);
+    return null;
+end;
+$$ language plpgsql;
+
+create trigger resource_version
+    after insert or update or delete or truncate
+    on resource
+    for each statement
+execute procedure resource_version();
+
+insert into catalog_version (type, version)
+select type, 1
+from (select distinct type from generic_storage union select 'Resource') types;
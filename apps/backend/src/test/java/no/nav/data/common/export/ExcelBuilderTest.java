@@ -0,0 +1,60 @@
+package no.nav.data.common.export;
+
+import org.docx4j.openpackaging.packages.SpreadsheetMLPackage;
+import org.junit.jupiter.api.Test;
+import org.xlsx4j.sml.Cell;
+import org.xlsx4j.sml.STCellType;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ExcelBuilderTest {
+
+    @Test
+    void columnNames() {
+        assertThat(ExcelBuilder.columnName(0)).isEqualTo("A");
+        assertThat(ExcelBuilder.columnName(25)).isEqualTo("Z");
+        assertThat(ExcelBuilder.columnName(26)).isEqualTo("AA");
+        assertThat(ExcelBuilder.columnName(51)).isEqualTo("AZ");
+        assertThat(ExcelBuilder.columnName(52)).isEqualTo("BA");
+        assertThat(ExcelBuilder.columnName(701)).isEqualTo("ZZ");
+        assertThat(ExcelBuilder.columnName(702)).isEqualTo("AAA");
+    }
+
+    @Test
+    void readWorkbook() throws Exception {
+        var doc = new ExcelBuilder("Medlemmer");
+        var header = doc.addRow();
+        for (int i = 0; i < 30; i++) {
+            header.addCell("col " + i);
+        }
+        doc.addRow().addCell("Team <A> & \"B\"").addCell(42).addCell((String) null).addCell(" padded ");
+        doc.addRow().addCell("Team <A> & \"B\"").addCell("x".repeat(300));
+
+        var pack = SpreadsheetMLPackage.load(new ByteArrayInputStream(doc.build()));
+        var workbook = pack.getWorkbookPart();
+        assertThat(workbook.getContents().getSheets().getSheet().get(0).getName()).isEqualTo("Medlemmer");
+        var rows = workbook.getWorksheet(0).getContents().getSheetData().getRow();
+        var strings = workbook.getSharedStrings().getContents().getSi();
+
+        assertThat(rows).hasSize(3);
+        List<Cell> headerCells = rows.get(0).getC();
+        assertThat(headerCells).hasSize(30);
+        assertThat(headerCells.get(29).getR()).isEqualTo("AD1");
+        assertThat(strings.get(Integer.parseInt(headerCells.get(29).getV())).getT().getValue()).isEqualTo("col 29");
+
+        var second = rows.get(1).getC();
+        assertThat(second).extracting(Cell::getR).containsExactly("A2", "B2", "D2");
+        assertThat(strings.get(Integer.parseInt(second.get(0).getV())).getT().getValue()).isEqualTo("Team <A> & \"B\"");
+        assertThat(second.get(1).getV()).isEqualTo("42");
+        assertThat(strings.get(Integer.parseInt(second.get(2).getV())).getT().getValue()).isEqualTo(" padded ");
+
+        var third = rows.get(2).getC();
+        assertThat(third.get(0).getV()).isEqualTo(second.get(0).getV());
+        assertThat(third.get(1).getT()).isEqualTo(STCellType.INLINE_STR);
+        assertThat(third.get(1).getIs().getT().getValue()).hasSize(300);
+        assertThat(strings).hasSize(32);
+    }
+}
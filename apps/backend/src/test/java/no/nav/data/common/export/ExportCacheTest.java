@@ -0,0 +1,216 @@
+package no.nav.data.common.export;
+
+import no.nav.data.common.export.ExportCache.Key;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ExportCacheTest {
+
+    @TempDir
+    Path dir;
+
+    private final AtomicInteger generated = new AtomicInteger();
+
+    @Test
+    void generateOncePerVersion() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofKilobytes(1));
+
+        assertThat(read(cache.body(new Key("teams.csv", 1), export("v1")))).isEqualTo("v1");
+        assertThat(read(cache.body(new Key("teams.csv", 1), export("other")))).isEqualTo("v1");
+        assertThat(generated).hasValue(1);
+
+        assertThat(read(cache.body(new Key("teams.csv", 2), export("v2")))).isEqualTo("v2");
+        assertThat(generated).hasValue(2);
+        // an older version is answered with the newer export
+        assertThat(read(cache.body(new Key("teams.csv", 1), export("v1")))).isEqualTo("v2");
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(files()).isEqualTo(1);
+    }
+
+    @Test
+    void evictLeastRecentlyUsed() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofBytes(250));
+        var content = "x".repeat(100);
+
+        read(cache.body(new Key("a", 1), export(content)));
+        read(cache.body(new Key("b", 1), export(content)));
+        read(cache.body(new Key("a", 1), export(content)));
+        read(cache.body(new Key("c", 1), export(content)));
+        assertThat(generated).hasValue(3);
+        assertThat(cache.size()).isEqualTo(200);
+
+        read(cache.body(new Key("a", 1), export(content)));
+        assertThat(generated).hasValue(3);
+        read(cache.body(new Key("b", 1), export(content)));
+        assertThat(generated).hasValue(4);
+        assertThat(files()).isEqualTo(2);
+    }
+
+    @Test
+    void tooLargeIsNotKept() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofBytes(10));
+
+        assertThat(read(cache.body(new Key("a", 1), export("x".repeat(100))))).hasSize(100);
+        assertThat(files()).isZero();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void concurrentRequestsWaitForOneExport() throws Exception {
+        var cache = new ExportCache(dir, DataSize.ofKilobytes(1));
+        var started = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(2);
+        try {
+            var first = executor.submit(() -> read(cache.body(new Key("a", 1), () -> {
+                started.countDown();
+                await(release);
+                return export("first").get();
+            })));
+            started.await(5, TimeUnit.SECONDS);
+            var second = executor.submit(() -> read(cache.body(new Key("a", 1), export("second"))));
+            Thread.sleep(50);
+            release.countDown();
+
+            assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+            assertThat(generated).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void writtenToClientWhileGenerated() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofKilobytes(1));
+        var client = new ByteArrayOutputStream();
+        var sentBeforeDone = new AtomicReference<String>();
+
+        cache.body(new Key("a", 1), () -> out -> {
+            write(out, "first");
+            sentBeforeDone.set(client.toString(StandardCharsets.UTF_8));
+            write(out, " second");
+        }).writeTo(client);
+
+        assertThat(sentBeforeDone).hasValue("first");
+        assertThat(client.toString(StandardCharsets.UTF_8)).isEqualTo("first second");
+        assertThat(read(cache.body(new Key("a", 1), export("other")))).isEqualTo("first second");
+    }
+
+    @Test
+    void cachedWhenClientGoesAway() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofKilobytes(1));
+        var gone = new OutputStream() {
+            @Override
+            public void write(int b) throws IOException {
+                throw new IOException("broken pipe");
+            }
+        };
+
+        assertThatThrownBy(() -> cache.body(new Key("a", 1), export("v1")).writeTo(gone)).isInstanceOf(IOException.class);
+
+        assertThat(read(cache.body(new Key("a", 1), export("other")))).isEqualTo("v1");
+        assertThat(generated).hasValue(1);
+    }
+
+    @Test
+    void etagOfCachedExport() throws IOException {
+        var cache = new ExportCache(dir, DataSize.ofKilobytes(1));
+        var generatedResponse = cache.respond(request(null, new MockHttpServletResponse()), "teams.csv", ExportFormat.CSV, 1, export("v1"));
+        assertThat(generatedResponse.getHeaders().getETag()).isNull();
+        assertThat(read(generatedResponse.getBody())).isEqualTo("v1");
+
+        var cached = cache.respond(request(null, new MockHttpServletResponse()), "teams.csv", ExportFormat.CSV, 1, export("other"));
+        var etag = cached.getHeaders().getETag();
+        assertThat(etag).isNotNull();
+        assertThat(read(cached.getBody())).isEqualTo("v1");
+
+        var response = new MockHttpServletResponse();
+        assertThat(cache.respond(request(etag, response), "teams.csv", ExportFormat.CSV, 1, export("other"))).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+
+        // the same ETag is not modified in a newer version only when the export has the same bytes
+        read(cache.respond(request(etag, new MockHttpServletResponse()), "teams.csv", ExportFormat.CSV, 2, export("v2")).getBody());
+        var changed = cache.respond(request(etag, new MockHttpServletResponse()), "teams.csv", ExportFormat.CSV, 2, export("other"));
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(etag);
+        assertThat(read(changed.getBody())).isEqualTo("v2");
+        assertThat(generated).hasValue(2);
+    }
+
+    @Test
+    void leftoverExportsDeletedOnStart() throws IOException {
+        Files.writeString(dir.resolve("export-1"), "old");
+        Files.writeString(dir.resolve("other"), "kept");
+
+        new ExportCache(dir, DataSize.ofKilobytes(1));
+
+        assertThat(dir.resolve("export-1")).doesNotExist();
+        assertThat(dir.resolve("other")).exists();
+    }
+
+    private Supplier<TableExport> export(String content) {
+        return () -> {
+            generated.incrementAndGet();
+            return out -> write(out, content);
+        };
+    }
+
+    private long files() throws IOException {
+        try (var files = Files.list(dir)) {
+            return files.count();
+        }
+    }
+
+    private static void write(OutputStream out, String content) {
+        try {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String read(StreamingResponseBody body) throws IOException {
+        var out = new ByteArrayOutputStream();
+        body.writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static ServletWebRequest request(String ifNoneMatch, MockHttpServletResponse response) {
+        var request = new MockHttpServletRequest("GET", "/export");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return new ServletWebRequest(request, response);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package no.nav.data.common.export;
+
+import no.nav.data.common.export.TableWriter.Column;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TableWriterTest {
+
+    @Test
+    void csv() {
+        var out = new ByteArrayOutputStream();
+        write(new CsvWriter(out));
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                name,count,description\r
+                "Team, A",3,"Sier ""hei""
+                på to linjer"\r
+                Æøå,,\r
+                """);
+    }
+
+    @Test
+    void ndjson() {
+        var out = new ByteArrayOutputStream();
+        write(new NdjsonWriter(out));
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"name":"Team, A","count":3,"description":"Sier \\"hei\\"\\npå to linjer"}
+                {"name":"Æøå","count":null,"description":null}
+                """);
+    }
+
+    @Test
+    void csvFormulasAreNotEvaluated() {
+        var out = new ByteArrayOutputStream();
+        var writer = new CsvWriter(out);
+        writer.addRow().addCell("=HYPERLINK(\"http://x\")").addCell("+1").addCell("-1").addCell("@SUM(A1)").addCell("a=b").addCell(-1);
+        writer.finish();
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("\"'=HYPERLINK(\"\"http://x\"\")\",'+1,'-1,'@SUM(A1),a=b,-1\r\n");
+    }
+
+    @Test
+    void formatFromAccept() {
+        assertThat(ExportFormat.fromAccept(null)).isEqualTo(ExportFormat.XLSX);
+        assertThat(ExportFormat.fromAccept("*/*")).isEqualTo(ExportFormat.XLSX);
+        assertThat(ExportFormat.fromAccept("text/csv")).isEqualTo(ExportFormat.CSV);
+        assertThat(ExportFormat.fromAccept("text/*")).isEqualTo(ExportFormat.CSV);
+        assertThat(ExportFormat.fromAccept("application/x-ndjson, text/csv;q=0.5")).isEqualTo(ExportFormat.NDJSON);
+        assertThat(ExportFormat.fromAccept("text/csv;q=0.5, application/x-ndjson")).isEqualTo(ExportFormat.NDJSON);
+        assertThat(ExportFormat.fromAccept("text/html, */*;q=0.1")).isEqualTo(ExportFormat.XLSX);
+        assertThat(ExportFormat.fromAccept("not a media type")).isEqualTo(ExportFormat.XLSX);
+    }
+
+    private static void write(TableWriter writer) {
+        writer.addHeader(List.of(new Column("name", "Navn"), new Column("count", "Antall"), new Column("description", "Beskrivelse")));
+        writer.addRow().addCell("Team, A").addCell(3).addCell("Sier \"hei\"\npå to linjer");
+        writer.addRow().addCell("Æøå").addCell((Number) null).addCell((String) null);
+        writer.finish();
+    }
+}
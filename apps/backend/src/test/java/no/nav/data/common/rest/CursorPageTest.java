@@ -0,0 +1,62 @@
+package no.nav.data.common.rest;
+
+import no.nav.data.common.exceptions.ValidationException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CursorPageTest {
+
+    private final List<UUID> ids = IntStream.range(0, 5).mapToObj(i -> UUID.randomUUID()).toList();
+    private final List<UUID> sorted = ids.stream().sorted().toList();
+
+    @Test
+    void pages() {
+        var first = CursorPage.of(ids, Function.identity(), null, 2, UUID::toString);
+        assertThat(first.getTotalElements()).isEqualTo(5);
+        assertThat(first.getNumberOfElements()).isEqualTo(2);
+        assertThat(first.getContent()).containsExactly(sorted.get(0).toString(), sorted.get(1).toString());
+
+        var second = CursorPage.of(ids, Function.identity(), first.getNextCursor(), 2, UUID::toString);
+        assertThat(second.getContent()).containsExactly(sorted.get(2).toString(), sorted.get(3).toString());
+
+        var last = CursorPage.of(ids, Function.identity(), second.getNextCursor(), 2, UUID::toString);
+        assertThat(last.getContent()).containsExactly(sorted.get(4).toString());
+        assertThat(last.getNextCursor()).isNull();
+    }
+
+    @Test
+    void cursorAfterRemovedItem() {
+        var first = CursorPage.of(ids, Function.identity(), null, 2, Function.identity());
+        var remaining = new ArrayList<>(ids);
+        remaining.remove(sorted.get(1));
+
+        var second = CursorPage.of(remaining, Function.identity(), first.getNextCursor(), 2, Function.identity());
+
+        assertThat(second.getContent()).containsExactly(sorted.get(2), sorted.get(3));
+    }
+
+    @Test
+    void convertOnlyPage() {
+        var converted = new ArrayList<UUID>();
+        CursorPage.of(ids, Function.identity(), null, 1, id -> converted.add(id));
+
+        assertThat(converted).containsExactly(ids.stream().min(Comparator.naturalOrder()).orElseThrow());
+    }
+
+    @Test
+    void invalid() {
+        assertThatThrownBy(() -> CursorPage.of(ids, Function.identity(), null, 0, Function.identity())).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> CursorPage.of(ids, Function.identity(), null, CursorPage.MAX_LIMIT + 1, Function.identity())).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> CursorPage.of(ids, Function.identity(), "not-a-cursor", null, Function.identity())).isInstanceOf(ValidationException.class);
+        assertThat(CursorPage.decode(CursorPage.encode(sorted.get(0)))).isEqualTo(sorted.get(0));
+    }
+}
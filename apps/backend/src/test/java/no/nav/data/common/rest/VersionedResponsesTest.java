@@ -0,0 +1,92 @@
+package no.nav.data.common.rest;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VersionedResponsesTest {
+
+    private final VersionedResponses responses = new VersionedResponses();
+    private final AtomicInteger reads = new AtomicInteger();
+
+    @Test
+    void serializeOncePerVersion() {
+        var first = responses.respond(request("/team", null, null), 1L, body("a"));
+        var second = responses.respond(request("/team", null, null), 1L, body("b"));
+
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(new String(first.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"a\"]");
+        assertThat(second.getBody()).isSameAs(first.getBody());
+        assertThat(second.getHeaders().getETag()).isEqualTo(first.getHeaders().getETag());
+        assertThat(reads).hasValue(1);
+
+        var changed = responses.respond(request("/team", null, null), 2L, body("b"));
+        assertThat(new String(changed.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"b\"]");
+        assertThat(changed.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void notModifiedWithoutReading() {
+        var etag = responses.respond(request("/team", null, null), 1L, body("a")).getHeaders().getETag();
+
+        var response = new MockHttpServletResponse();
+        var notModified = responses.respond(new ServletWebRequest(servletRequest("/team", null, etag), response), 1L, body("a"));
+
+        assertThat(notModified).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(etag);
+        assertThat(reads).hasValue(1);
+    }
+
+    @Test
+    void sameBytesSameEtagAfterNewVersion() {
+        var etag = responses.respond(request("/team", null, null), 1L, body("a")).getHeaders().getETag();
+
+        var response = new MockHttpServletResponse();
+        var notModified = responses.respond(new ServletWebRequest(servletRequest("/team", null, etag), response), 2L, body("a"));
+
+        assertThat(notModified).isNull();
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(reads).hasValue(2);
+    }
+
+    @Test
+    void keyedByPathAndQuery() {
+        responses.respond(request("/team", null, null), 1L, body("all"));
+        var filtered = responses.respond(request("/team", "status=ACTIVE", null), 1L, body("active"));
+
+        assertThat(new String(filtered.getBody(), StandardCharsets.UTF_8)).isEqualTo("[\"active\"]");
+        assertThat(reads).hasValue(2);
+    }
+
+    private Supplier<List<String>> body(String value) {
+        return () -> {
+            reads.incrementAndGet();
+            return List.of(value);
+        };
+    }
+
+    private static ServletWebRequest request(String path, String query, String ifNoneMatch) {
+        return new ServletWebRequest(servletRequest(path, query, ifNoneMatch), new MockHttpServletResponse());
+    }
+
+    private static MockHttpServletRequest servletRequest(String path, String query, String ifNoneMatch) {
+        var request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+}
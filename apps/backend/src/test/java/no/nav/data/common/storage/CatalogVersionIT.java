@@ -0,0 +1,71 @@
+package no.nav.data.common.storage;
+
+import no.nav.data.common.storage.domain.TypeRegistration;
+import no.nav.data.team.IntegrationTestBase;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.team.domain.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogVersionIT extends IntegrationTestBase {
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void oneVersionPerCommit() {
+        long teamBefore = catalogVersion.get(Team.class);
+        long clusterBefore = catalogVersion.get(Cluster.class);
+
+        transactionTemplate.executeWithoutResult(status -> storageService.saveAll(List.of(
+                Team.builder().name("a").build(), Team.builder().name("b").build(), Cluster.builder().name("c").build())));
+        catalogVersion.refresh();
+
+        // one commit writing two teams and a cluster
+        long team = catalogVersion.get(Team.class);
+        long cluster = catalogVersion.get(Cluster.class);
+        assertThat(team).isEqualTo(teamBefore + 1);
+        assertThat(cluster).isEqualTo(clusterBefore + 1);
+
+        storageService.save(Cluster.builder().name("d").build());
+        catalogVersion.refresh();
+
+        assertThat(catalogVersion.get(Team.class)).isEqualTo(team);
+        assertThat(catalogVersion.get(Cluster.class)).isEqualTo(cluster + 1);
+        assertThat(catalogVersion.get(Team.class, Cluster.class)).isEqualTo(team + cluster + 1);
+    }
+
+    @Test
+    void appliedCountedAfterCommit() {
+        var types = List.of(TypeRegistration.typeOf(Team.class));
+        long applied = catalogVersion.getApplied(types);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            storageService.save(Team.builder().name("a").build());
+            assertThat(catalogVersion.getApplied(types)).isEqualTo(applied);
+        });
+
+        assertThat(catalogVersion.getApplied(types)).isEqualTo(applied + 1);
+    }
+
+    @Test
+    void compactionKeepsVersions() {
+        for (int i = 0; i < 1001; i++) {
+            jdbcTemplate.update("insert into catalog_version (type, version) values ('Tag', 1)");
+        }
+        catalogVersion.refresh();
+        long version = catalogVersion.get();
+
+        catalogVersion.refresh();
+
+        assertThat(catalogVersion.get()).isEqualTo(version);
+        assertThat(jdbcTemplate.queryForObject("select count(*) from catalog_version where type = 'Tag'", Long.class)).isEqualTo(1);
+    }
+}
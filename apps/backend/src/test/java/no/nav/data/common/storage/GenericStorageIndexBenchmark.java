@@ -0,0 +1,116 @@
+package no.nav.data.common.storage;
+
+import org.flywaydb.core.Flyway;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Plans and latencies of the hot generic_storage queries before and after the expression indexes from V1.15 on,
+ * over a Postgres seeded with 100k Resource rows.
+ * <p>
+ * Not part of the test suite, run {@code main} with docker available.
+ */
+public class GenericStorageIndexBenchmark {
+
+    private static final String VERSION_BEFORE_INDEXES = "1.14";
+    // V1.18 moves resources out of generic_storage
+    private static final String VERSION_WITH_INDEXES = "1.17";
+    private static final int RESOURCES = 100_000;
+    private static final int TEAMS = 5_000;
+    private static final int MAIL_LOGS = 20_000;
+    private static final int RUNS = 50;
+
+    private static final Map<String, String> QUERIES = new LinkedHashMap<>();
+
+    static {
+        QUERIES.put("ResourceRepository.findByIdent",
+                "select * from generic_storage where type = 'Resource' and data ->> 'navIdent' = 'S050000' order by created_date desc limit 1");
+        QUERIES.put("ResourceRepository.findByIdents",
+                "select * from generic_storage where type = 'Resource' and data ->> 'navIdent' in ("
+                        + IntStream.range(0, 100).mapToObj(i -> "'S0" + (10000 + i * 700) + "'").collect(Collectors.joining(",")) + ")");
+        QUERIES.put("TeamRepository.findByProductArea",
+                "select * from generic_storage where data ->> 'productAreaId' = cast(cast(md5('pa7') as uuid) as text) and type = 'Team'");
+        QUERIES.put("TeamRepositoryCustom.findByCluster",
+                "select id from generic_storage where data -> 'clusterIds' ? cast(cast(md5('c7') as uuid) as text) and type = 'Team'");
+        QUERIES.put("TeamRepository.findUnsentUpdates",
+                "select * from generic_storage where cast(data -> 'updateSent' as boolean) = false "
+                        + "and last_modified_date < now() at time zone 'Europe/Oslo' - interval '5 minute' and type = 'Team'");
+        QUERIES.put("MailLogRepository.findByTo",
+                "select * from generic_storage where type = 'MailLog' and data ->> 'to' = 'user7@nav.no' order by created_date desc");
+        QUERIES.put("ResourceRepository.findByMemberIdent",
+                "select * from generic_storage where data -> 'members' @> '[{\"navIdent\": \"S000777\"}]' and type in ('Team', 'ProductArea', 'Cluster')");
+    }
+
+    public static void main(String[] args) {
+        try (var postgres = new PostgreSQLContainer<>("postgres:11")) {
+            postgres.start();
+            var dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+            var jdbc = new JdbcTemplate(dataSource);
+
+            Flyway.configure().dataSource(dataSource).target(VERSION_BEFORE_INDEXES).load().migrate();
+            seed(jdbc);
+            System.out.println("=== without expression indexes");
+            run(jdbc);
+
+            Flyway.configure().dataSource(dataSource).target(VERSION_WITH_INDEXES).load().migrate();
+            jdbc.execute("analyze generic_storage");
+            System.out.println("=== with expression indexes");
+            run(jdbc);
+        }
+    }
+
+    private static void seed(JdbcTemplate jdbc) {
+        jdbc.update("""
+                insert into generic_storage (id, type, data, created_by, created_date, last_modified_by, last_modified_date)
+                select cast(md5('r' || i) as uuid), 'Resource',
+                       jsonb_build_object('navIdent', 'S' || lpad(i::text, 6, '0'), 'givenName', 'Given' || i, 'familyName', 'Family' || i,
+                                          'email', 'given.family' || i || '@nav.no', 'resourceType', 'INTERNAL', 'offset', i),
+                       'bench', now() - interval '1 day', 'bench', now() - interval '1 day'
+                from generate_series(1, ?) i
+                """, RESOURCES);
+        jdbc.update("""
+                insert into generic_storage (id, type, data, created_by, created_date, last_modified_by, last_modified_date)
+                select cast(md5('t' || i) as uuid), 'Team',
+                       jsonb_build_object('name', 'Team ' || i, 'productAreaId', cast(md5('pa' || (i % 100)) as uuid)::text,
+                                          'clusterIds', jsonb_build_array(cast(md5('c' || (i % 300)) as uuid)::text),
+                                          'updateSent', i % 50 <> 0, 'status', 'ACTIVE',
+                                          'members', (select jsonb_agg(jsonb_build_object('navIdent', 'S' || lpad(((i * 7 + m) % ?)::text, 6, '0'), 'roles', '["DEVELOPER"]'::jsonb))
+                                                      from generate_series(1, 8) m)),
+                       'bench', now() - interval '1 day', 'bench', now() - interval '1 hour'
+                from generate_series(1, ?) i
+                """, RESOURCES, TEAMS);
+        jdbc.update("""
+                insert into generic_storage (id, type, data, created_by, created_date, last_modified_by, last_modified_date)
+                select cast(md5('m' || i) as uuid), 'MailLog',
+                       jsonb_build_object('to', 'user' || (i % 2000) || '@nav.no', 'subject', 'Teamkatalog oppdatering', 'body', repeat('x', 500)),
+                       'bench', now() - (i || ' minutes')::interval, 'bench', now() - (i || ' minutes')::interval
+                from generate_series(1, ?) i
+                """, MAIL_LOGS);
+        jdbc.execute("analyze generic_storage");
+    }
+
+    private static void run(JdbcTemplate jdbc) {
+        QUERIES.forEach((name, sql) -> {
+            var plan = jdbc.queryForList("explain (analyze, buffers) " + sql, String.class);
+            for (int i = 0; i < 5; i++) {
+                jdbc.queryForList(sql);
+            }
+            var times = new double[RUNS];
+            for (int i = 0; i < RUNS; i++) {
+                long start = System.nanoTime();
+                jdbc.queryForList(sql);
+                times[i] = (System.nanoTime() - start) / 1_000_000d;
+            }
+            Arrays.sort(times);
+            System.out.printf("%s: p50 %.2f ms, p90 %.2f ms%n", name, times[RUNS / 2], times[RUNS * 9 / 10]);
+            plan.forEach(line -> System.out.println("    " + line));
+        });
+    }
+}
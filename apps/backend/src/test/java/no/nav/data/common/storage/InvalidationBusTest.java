@@ -0,0 +1,75 @@
+package no.nav.data.common.storage;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import no.nav.data.common.auditing.domain.Action;
+import no.nav.data.common.storage.domain.StorageChange;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.domain.ResourcePhoto;
+import no.nav.data.team.settings.dto.Settings;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InvalidationBusTest {
+
+    private final InvalidationBus bus = new InvalidationBus();
+    private final Cache<UUID, String> byId = Caffeine.newBuilder().build();
+    private final Cache<String, String> byIdent = Caffeine.newBuilder().build();
+    private final Cache<String, String> all = Caffeine.newBuilder().build();
+
+    private final UUID id = UUID.randomUUID();
+    private final UUID otherId = UUID.randomUUID();
+
+    InvalidationBusTest() {
+        bus.evictOnChange(ProductArea.class, byId, StorageChange::id);
+        bus.evictOnChange(ResourcePhoto.class, byIdent, StorageChange::ident);
+        bus.evictAllOnChange(Settings.class, all);
+
+        byId.put(id, "pa");
+        byId.put(otherId, "other pa");
+        byIdent.put("S123456", "photo");
+        byIdent.put("S654321", "other photo");
+        all.put("singleton", "settings");
+    }
+
+    @Test
+    void evictChangedKey() {
+        bus.onStorageChange(new StorageChange("node", "ProductArea", id, Action.UPDATE, null));
+        bus.onStorageChange(new StorageChange("node", "ResourcePhoto", UUID.randomUUID(), Action.DELETE, "S123456"));
+
+        assertThat(byId.asMap()).containsOnlyKeys(otherId);
+        assertThat(byIdent.asMap()).containsOnlyKeys("S654321");
+        assertThat(all.asMap()).containsOnlyKeys("singleton");
+    }
+
+    @Test
+    void evictAllOnChangeWithoutKey() {
+        bus.onStorageChange(new StorageChange("node", "ResourcePhoto", UUID.randomUUID(), Action.CREATE, null));
+        bus.onStorageChange(new StorageChange("node", "Settings", UUID.randomUUID(), Action.UPDATE, null));
+
+        assertThat(byIdent.asMap()).isEmpty();
+        assertThat(all.asMap()).isEmpty();
+        assertThat(byId.asMap()).hasSize(2);
+    }
+
+    @Test
+    void ignoreOtherTypes() {
+        bus.onStorageChange(new StorageChange("node", "Team", id, Action.UPDATE, "S123456"));
+
+        assertThat(byId.asMap()).hasSize(2);
+        assertThat(byIdent.asMap()).hasSize(2);
+        assertThat(all.asMap()).hasSize(1);
+    }
+
+    @Test
+    void evictEverythingOnReset() {
+        bus.onStorageChange(StorageChange.reset());
+
+        assertThat(byId.asMap()).isEmpty();
+        assertThat(byIdent.asMap()).isEmpty();
+        assertThat(all.asMap()).isEmpty();
+    }
+}
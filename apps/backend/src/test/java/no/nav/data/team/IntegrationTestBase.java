@@ -7,10 +7,12 @@ import no.nav.data.common.auditing.domain.AuditVersionRepository;
 import no.nav.data.common.security.azure.AzureTokenProvider;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.GenericStorageRepository;
+import no.nav.data.common.storage.domain.StorageChange;
 import no.nav.data.team.IntegrationTestBase.Initializer;
 import no.nav.data.team.location.LocationRepository;
 import no.nav.data.team.resource.NomClient;
 import no.nav.data.team.resource.domain.Resource;
+import no.nav.data.team.resource.domain.ResourceRepository;
 import no.nav.data.team.resource.dto.NomRessurs;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -21,6 +23,7 @@ import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.util.TestPropertyValues;
 import org.springframework.boot.test.web.client.TestRestTemplate;
 import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ConfigurableApplicationContext;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
@@ -63,6 +66,10 @@ public abstract class IntegrationTestBase extends KafkaTestBase {
     protected JdbcTemplate jdbcTemplate;
     @Autowired
     protected LocationRepository locationRepository;
+    @Autowired
+    protected ResourceRepository resourceRepository;
+    @Autowired
+    protected ApplicationEventPublisher eventPublisher;
     @MockBean
     protected AzureTokenProvider tokenProvider;
     @MockBean
@@ -72,6 +79,9 @@ public abstract class IntegrationTestBase extends KafkaTestBase {
     void setUpBase() {
         repository.deleteAll();
         auditVersionRepository.deleteAll();
+        resourceRepository.deleteAll();
+        // storage is cleared behind the back of the in memory catalog
+        eventPublisher.publishEvent(StorageChange.reset());
         nomClient.clear();
         when(tokenProvider.getConsumerToken(anyString())).thenReturn("token");
     }
@@ -79,6 +89,7 @@ public abstract class IntegrationTestBase extends KafkaTestBase {
     @AfterEach
     void tearDownBase() {
         repository.deleteAll();
+        resourceRepository.deleteAll();
     }
 
     protected Resource addNomResource(NomRessurs resource) {
@@ -0,0 +1,114 @@
+package no.nav.data.team.dashboard;
+
+import no.nav.data.common.storage.domain.ChangeStamp;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.cluster.domain.ClusterMember;
+import no.nav.data.team.po.domain.PaMember;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.domain.ResourceType;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.domain.TeamMember;
+import no.nav.data.team.team.domain.TeamOwnershipType;
+import no.nav.data.team.team.domain.TeamRole;
+import no.nav.data.team.team.domain.TeamType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashTotalsTest {
+
+    private final Random random = new Random(42);
+    private final Map<String, ResourceType> types = new HashMap<>();
+    private final DashboardCalculator calculator = new DashboardCalculator(null);
+
+    @Test
+    void sameAsCalculatedAfterChanges() {
+        IntStream.range(0, 40).forEach(i -> types.put(ident(i), random.nextBoolean() ? ResourceType.EXTERNAL : ResourceType.INTERNAL));
+        var totals = new DashTotals(types);
+        var teams = new HashMap<UUID, Team>();
+        var productAreas = new HashMap<UUID, ProductArea>();
+        var clusters = new HashMap<UUID, Cluster>();
+
+        for (int i = 0; i < 500; i++) {
+            switch (random.nextInt(6)) {
+                case 0, 1 -> {
+                    var team = team(existingOrNew(teams));
+                    teams.put(team.getId(), team);
+                    assertThat(totals.put(team)).isNotSameAs(team);
+                }
+                case 2 -> {
+                    var id = existingOrNew(teams);
+                    assertThat(totals.removeTeam(id)).isSameAs(teams.remove(id));
+                }
+                case 3 -> {
+                    var productArea = ProductArea.builder().id(existingOrNew(productAreas))
+                            .members(members(n -> PaMember.builder().navIdent(ident(n)).roles(roles()).build())).build();
+                    productAreas.put(productArea.getId(), productArea);
+                    totals.put(productArea);
+                }
+                case 4 -> {
+                    var cluster = Cluster.builder().id(existingOrNew(clusters))
+                            .members(members(n -> ClusterMember.builder().navIdent(ident(n)).roles(roles()).build())).build();
+                    clusters.put(cluster.getId(), cluster);
+                    totals.put(cluster);
+                }
+                default -> {
+                    var id = existingOrNew(random.nextBoolean() ? productAreas : clusters);
+                    assertThat(totals.removeProductArea(id)).isSameAs(productAreas.remove(id));
+                    assertThat(totals.removeCluster(id)).isSameAs(clusters.remove(id));
+                }
+            }
+            assertThat(totals.summary()).isEqualTo(calculator.calcForTotal(List.copyOf(teams.values()), List.copyOf(productAreas.values()),
+                    List.copyOf(clusters.values()), types));
+        }
+        assertThat(totals.teamCount()).isEqualTo(teams.size());
+        assertThat(totals.productAreaCount()).isEqualTo(productAreas.size());
+        assertThat(totals.clusterCount()).isEqualTo(clusters.size());
+    }
+
+    private Team team(UUID id) {
+        return Team.builder().id(id)
+                .teamType(random.nextInt(4) == 0 ? null : TeamType.values()[random.nextInt(TeamType.values().length)])
+                .teamOwnershipType(random.nextInt(4) == 0 ? null : TeamOwnershipType.values()[random.nextInt(TeamOwnershipType.values().length)])
+                .members(members(n -> TeamMember.builder().navIdent(ident(n)).roles(roles()).build()))
+                .changeStamp(ChangeStamp.builder().lastModifiedDate(LocalDateTime.now().minusDays(random.nextInt(14))).build())
+                .build();
+    }
+
+    private <T> List<T> members(MemberFactory<T> factory) {
+        var members = new ArrayList<T>();
+        // up to more than 20 members, with an ident without a type
+        IntStream.range(0, random.nextInt(25)).forEach(i -> members.add(factory.create(random.nextInt(45))));
+        return members;
+    }
+
+    private List<TeamRole> roles() {
+        return List.of(TeamRole.values()[random.nextInt(TeamRole.values().length)]);
+    }
+
+    private UUID existingOrNew(Map<UUID, ?> objects) {
+        if (objects.isEmpty() || random.nextInt(3) == 0) {
+            return UUID.randomUUID();
+        }
+        return List.copyOf(objects.keySet()).get(random.nextInt(objects.size()));
+    }
+
+    private static String ident(int n) {
+        return "S%06d".formatted(n);
+    }
+
+    @FunctionalInterface
+    private interface MemberFactory<T> {
+
+        T create(int n);
+    }
+}
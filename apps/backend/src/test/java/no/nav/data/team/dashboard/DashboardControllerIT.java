@@ -1,10 +1,10 @@
 package no.nav.data.team.dashboard;
 
-import com.github.benmanes.caffeine.cache.LoadingCache;
 import lombok.val;
 import no.nav.data.team.IntegrationTestBase;
 import no.nav.data.team.cluster.domain.Cluster;
 import no.nav.data.team.cluster.domain.ClusterMember;
+import no.nav.data.team.dashboard.DashboardController.DashHistoryPageResponse;
 import no.nav.data.team.dashboard.dto.DashResponse;
 import no.nav.data.team.dashboard.dto.DashResponse.RoleCount;
 import no.nav.data.team.dashboard.dto.DashResponse.TeamOwnershipTypeCount;
@@ -32,7 +32,11 @@ import static org.assertj.core.api.Assertions.assertThat;
 class DashboardControllerIT extends IntegrationTestBase {
 
     @Autowired
-    private LoadingCache<String, DashResponse> getDashCache;
+    private DashboardAggregator dashboardAggregator;
+    @Autowired
+    private DashSnapshotScheduler snapshotScheduler;
+    @Autowired
+    private DashSnapshotRepository snapshotRepository;
 
     public static final String RESSURSTYPE_EKSTERN = "EKSTERN";
     public static final String RESSURSTYPE_INTERN = "INTERN";
@@ -40,7 +44,7 @@ class DashboardControllerIT extends IntegrationTestBase {
 
     @AfterEach
     private void clearCache(){
-        getDashCache.invalidateAll();
+        dashboardAggregator.invalidate();
     }
 
 
@@ -226,6 +230,52 @@ class DashboardControllerIT extends IntegrationTestBase {
     }
 
 
+    @Test
+    void dashboardFollowsWrites() {
+        var productArea = storageService.save(ProductArea.builder().status(DomainObjectStatus.ACTIVE).build());
+        var team = storageService.save(Team.builder().status(DomainObjectStatus.ACTIVE).productAreaId(productArea.getId()).members(members(2)).build());
+
+        DashResponse dash = restTemplate.getForEntity("/dash", DashResponse.class).getBody();
+        assertThat(dash).isNotNull();
+        assertThat(dash.getTeamsCount()).isEqualTo(1);
+        assertThat(dash.getAreaSummaryMap().get(productArea.getId()).getMembershipCount()).isEqualTo(2);
+
+        team.setMembers(members(4));
+        storageService.save(team);
+        storageService.save(Team.builder().status(DomainObjectStatus.PLANNED).productAreaId(productArea.getId()).build());
+
+        dash = restTemplate.getForEntity("/dash", DashResponse.class).getBody();
+        assertThat(dash).isNotNull();
+        assertThat(dash.getTeamsCount()).isEqualTo(1);
+        assertThat(dash.getTeamsCountPlanned()).isEqualTo(1);
+        assertThat(dash.getAreaSummaryMap().get(productArea.getId()).getMembershipCount()).isEqualTo(4);
+        assertThat(dash.getTeamSummaryMap().get(team.getId()).getMembershipCount()).isEqualTo(4);
+
+        storageService.delete(team);
+
+        dash = restTemplate.getForEntity("/dash", DashResponse.class).getBody();
+        assertThat(dash).isNotNull();
+        assertThat(dash.getTeamsCount()).isZero();
+        assertThat(dash.getTeamSummaryMap()).doesNotContainKey(team.getId());
+        assertThat(dash.getAreaSummaryMap().get(productArea.getId()).getMembershipCount()).isZero();
+    }
+
+    @Test
+    void dashboardHistory() {
+        jdbcTemplate.update("delete from dash_snapshot");
+        storageService.save(Team.builder().status(DomainObjectStatus.ACTIVE).members(members(3)).build());
+        snapshotScheduler.snapshot();
+
+        var resp = restTemplate.getForEntity("/dash/history?granularity=HOUR", DashHistoryPageResponse.class);
+        assertThat(resp.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(resp.getBody()).isNotNull();
+        assertThat(resp.getBody().getContent()).hasSize(1);
+        assertThat(resp.getBody().getContent().get(0).getTeamsCount()).isEqualTo(1);
+        assertThat(resp.getBody().getContent().get(0).getTotalResources()).isEqualTo(3);
+
+        assertThat(snapshotRepository.findLatest()).hasValueSatisfying(dash -> assertThat(dash.getTeamsCount()).isEqualTo(1));
+    }
+
         private List<TeamMember> members(int n) {
         return IntStream.range(1, n + 1)
                 .mapToObj(ident -> TeamMember.builder().navIdent("a" + ident).roles(List.of(TeamRole.DEVELOPER)).build())
@@ -406,7 +456,4 @@ class DashboardControllerIT extends IntegrationTestBase {
         assertThat(mondayBuilding.getTeamCount()).isEqualTo(2);
 
     }
-
-
-
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package no.nav.data.team.dashboard;
+
+import no.nav.data.team.location.LocationRepository;
+import no.nav.data.team.location.domain.Location;
+import no.nav.data.team.team.domain.OfficeHours;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.domain.TeamMember;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.DayOfWeek;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Location summaries for the dashboard, set based {@link LocationRollup} against the list based counting it replaced.
+ * <p>
+ * Not part of the test suite, run {@code main} to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class LocationRollupBenchmark {
+
+    @Param({"10000"})
+    private int teams;
+    @Param({"50000"})
+    private int resources;
+
+    private List<Location> locations;
+    private List<Team> teamList;
+
+    @Setup
+    public void setup() {
+        var random = new Random(1);
+        locations = new LocationRepository().getAll();
+        var floors = locations.stream().filter(l -> l.getSubLocations().isEmpty()).toList();
+        var days = DayOfWeek.values();
+
+        teamList = new ArrayList<>(teams);
+        for (int i = 0; i < teams; i++) {
+            var members = new ArrayList<TeamMember>();
+            for (int m = 0; m < 5 + random.nextInt(10); m++) {
+                members.add(TeamMember.builder().navIdent("S" + random.nextInt(resources)).build());
+            }
+            var officeDays = new ArrayList<DayOfWeek>();
+            for (int d = 0; d < 5; d++) {
+                if (random.nextBoolean()) {
+                    officeDays.add(days[d]);
+                }
+            }
+            teamList.add(Team.builder()
+                    .id(UUID.randomUUID())
+                    .members(members)
+                    .officeHours(OfficeHours.builder().locationCode(floors.get(random.nextInt(floors.size())).getCode()).days(officeDays).build())
+                    .build());
+        }
+    }
+
+    @Benchmark
+    public Object rollup() {
+        var rollup = new LocationRollup(locations);
+        teamList.forEach(team -> rollup.add(team, LocationRepository.getLocationFor(team.getOfficeHours().getLocationCode())));
+        return rollup.summaries();
+    }
+
+    @Benchmark
+    public Object listBased() {
+        var identsByKey = new HashMap<String, List<String>>();
+        var teamsByKey = new HashMap<String, List<UUID>>();
+        for (Team team : teamList) {
+            var idents = team.getMembers().stream().map(TeamMember::getNavIdent).toList();
+            for (var loc = LocationRepository.getLocationFor(team.getOfficeHours().getLocationCode()); loc != null; loc = loc.getParent()) {
+                identsByKey.computeIfAbsent(loc.getCode(), k -> new ArrayList<>()).addAll(idents);
+                teamsByKey.computeIfAbsent(loc.getCode(), k -> new ArrayList<>()).add(team.getId());
+                for (DayOfWeek day : team.getOfficeHours().getDays()) {
+                    identsByKey.computeIfAbsent(loc.getCode() + "/" + day.name(), k -> new ArrayList<>()).addAll(idents);
+                    teamsByKey.computeIfAbsent(loc.getCode() + "/" + day.name(), k -> new ArrayList<>()).add(team.getId());
+                }
+            }
+        }
+        Map<String, long[]> counts = new HashMap<>();
+        identsByKey.forEach((key, idents) -> counts.put(key, new long[]{countUnique(teamsByKey.get(key)), countUnique(idents)}));
+        return counts;
+    }
+
+    private static <T> long countUnique(List<T> listWithPossibleDuplicates) {
+        var acc = new ArrayList<T>();
+        for (T item : listWithPossibleDuplicates) {
+            if (!acc.contains(item)) {
+                acc.add(item);
+            }
+        }
+        return acc.size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(LocationRollupBenchmark.class.getSimpleName()).build()).run();
+    }
+}
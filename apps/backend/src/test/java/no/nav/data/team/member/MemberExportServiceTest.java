@@ -25,6 +25,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static no.nav.data.team.TestDataHelper.createNavIdent;
@@ -65,7 +66,7 @@ class MemberExportServiceTest {
                 createTeam(3, null, List.of(clusterOne.getId(), clusterTwo.getId())))
         );
         lenient().when(teamService.get(teamOne.getId())).thenReturn(teamOne);
-        lenient().when(nomGraphClient.getLeaderMembers("A123456")).thenReturn(List.of(createNavIdent(101), createNavIdent(102)));
+        lenient().when(nomGraphClient.getReports("A123456")).thenReturn(Set.of(createNavIdent(101), createNavIdent(102)));
         UrlGeneratorTestUtil.get();
     }
 
@@ -5,6 +5,7 @@ import no.nav.data.common.auditing.domain.Action;
 import no.nav.data.common.auditing.domain.AuditVersion;
 import no.nav.data.common.auditing.domain.AuditVersionRepository;
 import no.nav.data.common.security.SecurityProperties;
+import no.nav.data.common.storage.InvalidationBus;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.common.storage.domain.DomainObject;
 import no.nav.data.common.storage.domain.GenericStorage;
@@ -44,7 +45,7 @@ class NotificationMessageGeneratorTest {
     private final AuditVersionRepository auditVersionRepository = mock(AuditVersionRepository.class);
     private final SecurityProperties securityProperties = UrlGeneratorTestUtil.getSecurityProperties();
     private final StorageService storage = mock(StorageService.class);
-    private final NotificationMessageGenerator generator = new NotificationMessageGenerator(auditVersionRepository, storage, UrlGeneratorTestUtil.get(), NomClient.getInstance());
+    private final NotificationMessageGenerator generator = new NotificationMessageGenerator(auditVersionRepository, storage, UrlGeneratorTestUtil.get(), NomClient.getInstance(), new InvalidationBus());
 
     @Test
     void update() {
@@ -0,0 +1,136 @@
+package no.nav.data.team.resource;
+
+import org.junit.jupiter.api.Test;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BatchLoaderTest {
+
+    private final List<Set<String>> batches = new CopyOnWriteArrayList<>();
+
+    @Test
+    void coalesceConcurrentLoads() throws Exception {
+        var loader = new BatchLoader<>("ressurs", Duration.ofMillis(200), 100, upperCase());
+        var threads = 8;
+        var start = new CountDownLatch(1);
+        var executor = Executors.newFixedThreadPool(threads);
+        try {
+            var futures = new ArrayList<CompletableFuture<CompletableFuture<String>>>();
+            for (int i = 0; i < threads; i++) {
+                var key = "ident" + i % 4;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    await(start);
+                    return loader.load(key);
+                }, executor));
+            }
+            start.countDown();
+            for (int i = 0; i < threads; i++) {
+                assertThat(futures.get(i).join().join()).isEqualTo("IDENT" + i % 4);
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(batches).hasSize(1);
+        assertThat(batches.get(0)).containsExactlyInAnyOrder("ident0", "ident1", "ident2", "ident3");
+    }
+
+    @Test
+    void sendFullBatchWithoutWaiting() {
+        var loader = new BatchLoader<>("ressurs", Duration.ofHours(1), 2, upperCase());
+
+        var a = loader.load("a");
+        var b = loader.load("b");
+        var c = loader.load("c");
+
+        assertThat(a.join()).isEqualTo("A");
+        assertThat(b.join()).isEqualTo("B");
+        assertThat(c).isNotDone();
+        loader.flush();
+        assertThat(c.join()).isEqualTo("C");
+        assertThat(batches).containsExactly(Set.of("a", "b"), Set.of("c"));
+    }
+
+    @Test
+    void shareKeysInFlight() {
+        Sinks.One<Map<String, String>> response = Sinks.one();
+        var loader = new BatchLoader<String, String>("org", Duration.ofHours(1), 100, keys -> {
+            batches.add(keys);
+            return response.asMono();
+        });
+
+        var first = loader.load("a");
+        loader.flush();
+        var second = loader.load("a");
+        loader.flush();
+        response.tryEmitValue(Map.of("a", "A"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(first.join()).isEqualTo("A");
+        assertThat(batches).hasSize(1);
+
+        // answered keys are sent again
+        loader.load("a");
+        loader.flush();
+        assertThat(batches).hasSize(2);
+    }
+
+    @Test
+    void completeMissingKeysWithNullAndFailuresForAll() {
+        var loader = new BatchLoader<String, String>("org", Duration.ofHours(1), 100,
+                keys -> keys.contains("fail") ? Mono.error(new IllegalStateException("nom down")) : Mono.just(Map.of()));
+
+        var missing = loader.load("missing");
+        loader.flush();
+        assertThat(missing.join()).isNull();
+
+        var fail = loader.load("fail");
+        var other = loader.load("other");
+        loader.flush();
+        assertThatThrownBy(fail::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("nom down");
+        assertThatThrownBy(other::join).isInstanceOf(CompletionException.class).hasRootCauseMessage("nom down");
+    }
+
+    @Test
+    void multiOrgQuery() {
+        var query = NomGraphClient.createMultiOrgQuery(2);
+
+        assertThat(query).startsWith("query getOrgsWithOrganiseringer($agressoId0: String!, $orgNiv0: String!, $agressoId1: String!, $orgNiv1: String!) {");
+        assertThat(query).contains("org0: organisasjonsenhet(where: {agressoId: $agressoId0, orgNiv: $orgNiv0}) {");
+        assertThat(query).contains("org1: organisasjonsenhet(where: {agressoId: $agressoId1, orgNiv: $orgNiv1}) {");
+        assertThat(query.chars().filter(c -> c == '{').count()).isEqualTo(query.chars().filter(c -> c == '}').count());
+    }
+
+    private Function<Set<String>, Mono<Map<String, String>>> upperCase() {
+        return keys -> {
+            batches.add(keys);
+            var values = new HashMap<String, String>();
+            keys.forEach(k -> values.put(k, k.toUpperCase()));
+            return Mono.just(values);
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
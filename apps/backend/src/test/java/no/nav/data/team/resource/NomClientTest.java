@@ -3,16 +3,25 @@ package no.nav.data.team.resource;
 import no.nav.data.common.storage.StorageService;
 import no.nav.data.team.resource.domain.Resource;
 import no.nav.data.team.resource.domain.ResourceRepository;
+import no.nav.data.team.resource.domain.ResourceType;
 import no.nav.data.team.resource.dto.NomRessurs;
 import no.nav.data.team.settings.SettingsService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.Mock;
+import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.nio.file.Path;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.IntStream;
+import java.util.Map;
 
+import static no.nav.data.common.utils.StreamUtils.convert;
 import static no.nav.data.team.TestDataHelper.createResource;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.anyList;
@@ -44,7 +53,6 @@ class NomClientTest {
 
     @Test
     void searchByName() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         NomRessurs otherResourceType = createResource("Other", "Some", "S123401");
         client.add(List.of(
                 createResource("Family", "Given", "S123456"),
@@ -57,7 +65,8 @@ class NomClientTest {
                 otherResourceType
         ));
         otherResourceType.setRessurstype("ANNEN_STAT");
-        client.add(List.of(otherResourceType));
+        // a change is read from a later offset, a record at the same offset is a replay and not applied
+        client.add(List.of(otherResourceType.addKafkaData(0, 1)));
 
         verify("mart", "Mart", "Marty");
         verify("bob har", "Hart");
@@ -75,7 +84,6 @@ class NomClientTest {
 
     @Test
     void searchByNameSimple2() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Family", "Given", "S123456")
         ));
@@ -90,7 +98,6 @@ class NomClientTest {
 
     @Test
     void searchByNameSimple() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         NomRessurs otherResourceType = createResource("Other", "Some", "S123401");
         client.add(List.of(
                 createResource("Family", "Given", "S123456"),
@@ -112,20 +119,64 @@ class NomClientTest {
 
     @Test
     void annenStatNotSearchable() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         NomRessurs otherResourceType = createResource("Other", "Some", "S123401");
         client.add(List.of(otherResourceType));
 
         otherResourceType.setRessurstype("ANNEN_STAT");
-        client.add(List.of(otherResourceType));
+        // a change is read from a later offset, a record at the same offset is a replay and not applied
+        client.add(List.of(otherResourceType.addKafkaData(0, 1)));
 
         // ResourceType.OTHER shouldn't be searchable
         verify("Other");
     }
 
+    @Test
+    void olderOffsetDoesNotReplaceDocument() {
+        client.add(List.of(createResource("Newer", "Given", "S123456").addKafkaData(0, 2)));
+        client.add(List.of(createResource("Older", "Given", "S123456").addKafkaData(0, 1)));
+
+        verify("given", "Newer");
+        verify("older");
+        assertThat(client.getByNavIdent("S123456")).get().extracting(Resource::getFamilyName).isEqualTo("Newer");
+    }
+
+    @Test
+    void restoreIndexesOnlyAfterCommittedOffsets(@TempDir Path dir) {
+        var kept = new NomClient(storage, settingsService, resourceRepository, dir);
+        kept.restore();
+        kept.add(List.of(createResource("Indexed", "Given", "S123456").addKafkaData(0, 1)));
+        kept.close();
+
+        // a stored row at or before the committed offset is in the index already, and not reindexed
+        when(resourceRepository.findAll()).thenReturn(List.of(
+                new Resource(createResource("Stored", "Given", "S123456").addKafkaData(0, 1)),
+                new Resource(createResource("Later", "Other", "S123457").addKafkaData(0, 2))
+        ));
+        assertThat(kept.restore()).containsEntry(0, 2L);
+
+        assertThat(convert(kept.search("given").getContent(), Resource::getNavIdent)).containsExactly("S123456");
+        assertThat(convert(kept.search("indexed").getContent(), Resource::getFamilyName)).containsExactly("Stored");
+        assertThat(convert(kept.search("later").getContent(), Resource::getNavIdent)).containsExactly("S123457");
+        kept.close();
+    }
+
+    @Test
+    void rebuildIndexCommittedPastStoredOffsets(@TempDir Path dir) {
+        var kept = new NomClient(storage, settingsService, resourceRepository, dir);
+        kept.restore();
+        kept.add(List.of(createResource("Indexed", "Given", "S123456").addKafkaData(0, 5)));
+        kept.close();
+
+        when(resourceRepository.findAll()).thenReturn(List.of(new Resource(createResource("Stored", "Given", "S123456").addKafkaData(0, 1))));
+        kept.restore();
+
+        assertThat(kept.search("indexed").getContent()).isEmpty();
+        assertThat(convert(kept.search("stored").getContent(), Resource::getNavIdent)).containsExactly("S123456");
+        kept.close();
+    }
+
     @Test
     void searchByNamePhonetic() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Mart", "Gely", "S123457"),
                 createResource("Marty", "Gal", "S123458"),
@@ -143,7 +194,6 @@ class NomClientTest {
 
     @Test
     void makeSureSameIdentDoesNotCauseDuplicate() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Yes Sir", "Hehe", "S123460"),
                 createResource("Yes Sir", "Hehe", "S123460")
@@ -155,7 +205,6 @@ class NomClientTest {
 
     @Test
     void segmentSearchByName() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Mart", "Guy", "S123457"),
                 createResource("Marty", "Gal", "S123458"),
@@ -172,7 +221,6 @@ class NomClientTest {
 
     @Test
     void segmentSearchByName2() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Peterson", "Andrew", "S123457"),
                 createResource("Hannoverday", "Barbara", "S123458"),
@@ -191,7 +239,6 @@ class NomClientTest {
 
     @Test
     void fullNameSearch() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Peterson", "Andrew", "S123457"),
                 createResource("Hannoverday", "Barbara", "S123458"),
@@ -214,7 +261,6 @@ class NomClientTest {
 
     @Test
     void badInputHandledOk() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Peterson", "Andrew", "S123457")
         ));
@@ -226,7 +272,6 @@ class NomClientTest {
 
     @Test
     void orderingTest() {
-        when(storage.getAll(Resource.class)).thenReturn(List.of());
         client.add(List.of(
                 createResource("Peterson", "Andrew Bobby", "S123457"),
                 createResource("Hannoverday", "Barbara", "S123458"),
@@ -240,4 +285,85 @@ class NomClientTest {
         verify("bobby andrew", "Peterson", "Lumberhill", "Smarty", "Smartyer");
 
     }
-}
\ No newline at end of file
+
+    @Test
+    void resourceTypesInBulk() {
+        client.add(List.of(createResource("Family", "Given", "S123456")));
+        var stored = new Resource(createResource("Stored", "Given", "S123457").addKafkaData(0, 2));
+        when(resourceRepository.findByIdents(List.of("S123457", "S999999"))).thenReturn(List.of(stored));
+
+        var types = client.getResourceTypes(List.of("s123456", "S123457", "S999999"));
+
+        assertThat(types).containsExactlyInAnyOrderEntriesOf(Map.of("s123456", ResourceType.EXTERNAL, "S123457", ResourceType.EXTERNAL));
+    }
+
+    @Test
+    void restoreFromStorage() {
+        var newer = new Resource(createResource("Newer", "Given", "S123456").addKafkaData(0, 7));
+        var other = new Resource(createResource("Other", "Given", "S123457").addKafkaData(1, 5));
+        when(resourceRepository.findAll()).thenReturn(List.of(newer, other));
+
+        assertThat(client.restore()).containsExactlyInAnyOrderEntriesOf(Map.of(0, 7L, 1, 5L));
+        assertThat(client.count()).isEqualTo(2);
+        verify("Newer", "Newer");
+
+        // restore only reads storage once
+        assertThat(client.restore()).containsExactlyInAnyOrderEntriesOf(Map.of(0, 7L, 1, 5L));
+        Mockito.verify(resourceRepository).findAll();
+    }
+
+    @Test
+    void storesOnlyNewerOffsets() {
+        client.add(List.of(createResource("Family", "Given", "S123456").addKafkaData(0, 5)));
+        var stored = client.add(List.of(
+                createResource("Older", "Given", "S123456").addKafkaData(0, 4),
+                createResource("Other", "Given", "S123457").addKafkaData(0, 6)
+        ));
+
+        assertThat(stored).extracting(Resource::getNavIdent).containsExactly("S123457");
+        Mockito.verify(resourceRepository).upsertAll(List.of(stored.get(0)));
+    }
+
+    @Test
+    void membersRankFirst() {
+        var inactive = createResource("Marty", "Gal", "S123459");
+        inactive.setSluttdato(LocalDate.now().minusDays(1));
+        client.add(List.of(createResource("Marty", "Gal", "S123457"), createResource("Marty", "Gal", "S123458"), inactive));
+        assertThat(search("marty")).containsExactly("S123457", "S123458", "S123459");
+
+        // counts are updated in place for resources already indexed
+        client.setMemberships(Map.of("S123458", 1, "S123459", 3));
+        assertThat(search("marty")).containsExactly("S123458", "S123459", "S123457");
+
+        client.setMemberships(Map.of("S123459", 3));
+        assertThat(search("marty")).containsExactly("S123459", "S123457", "S123458");
+
+        // and read when a resource is indexed
+        client.setMemberships(Map.of("S123460", 1));
+        client.add(List.of(createResource("Marty", "Gal", "S123460")));
+        assertThat(search("marty")).containsExactly("S123460", "S123457", "S123458", "S123459");
+    }
+
+    private List<String> search(String searchString) {
+        return convert(client.search(searchString).getContent(), Resource::getNavIdent);
+    }
+
+    /**
+     * One thread per partition, each partition has its own idents as records are keyed by ident
+     */
+    @Test
+    void concurrentAdds() {
+        var threads = IntStream.range(0, 4).mapToObj(partition -> CompletableFuture.runAsync(() -> {
+            var idents = List.of("S12345" + partition, "S12346" + partition);
+            for (int offset = 0; offset < 25; offset++) {
+                int o = offset;
+                client.add(convert(idents, ident -> createResource("Family" + o, "Given", ident).addKafkaData(partition, o)));
+            }
+        })).toList();
+        threads.forEach(CompletableFuture::join);
+
+        assertThat(client.count()).isEqualTo(8);
+        assertThat(client.restore()).containsExactlyInAnyOrderEntriesOf(Map.of(0, 24L, 1, 24L, 2, 24L, 3, 24L));
+        verify("Family24", "Family24", "Family24", "Family24", "Family24", "Family24", "Family24", "Family24", "Family24");
+    }
+}
@@ -0,0 +1,56 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.resource.domain.Resource;
+import no.nav.data.team.resource.dto.NomRessurs;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static no.nav.data.team.TestDataHelper.createResource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+class NomListenerTest {
+
+    private final NomListener listener = new NomListener(mock(NomClient.class));
+
+    @BeforeEach
+    void setUp() {
+        ResourceState.clear();
+    }
+
+    @Test
+    void parseRecords() {
+        var parsed = listener.parse(List.of(
+                record(1, JsonUtils.toJson(createResource("Family", "Given", "S123456"))),
+                record(2, "{\"fornavn\": \"Given\", \"etternavn\": \"Missing\"}"),
+                record(3, "{\"extra\": {\"navident\": \"S999999\"}, \"tags\": [1, [2]], \"navident\": \"S123457\", \"etternavn\": \"Nested\"}"),
+                record(4, null)
+        ));
+
+        assertThat(parsed).extracting(NomRessurs::getNavident).containsExactly("S123456", "S123457");
+        assertThat(parsed).extracting(NomRessurs::getOffset).containsExactly(1L, 3L);
+        assertThat(parsed.get(1).getEtternavn()).isEqualTo("Nested");
+    }
+
+    @Test
+    void skipRecordsOlderThanState() {
+        ResourceState.put(new Resource(createResource("Family", "Given", "S123456").addKafkaData(0, 5)));
+
+        var parsed = listener.parse(List.of(
+                record(4, JsonUtils.toJson(createResource("Older", "Given", "s123456"))),
+                record(5, JsonUtils.toJson(createResource("Same", "Given", "S123456"))),
+                record(6, JsonUtils.toJson(createResource("Newer", "Given", "S123456")))
+        ));
+
+        assertThat(parsed).extracting(NomRessurs::getEtternavn).containsExactly("Newer");
+    }
+
+    private static ConsumerRecord<String, byte[]> record(long offset, String json) {
+        return new ConsumerRecord<>("topic", 0, offset, "key", json == null ? null : json.getBytes(StandardCharsets.UTF_8));
+    }
+}
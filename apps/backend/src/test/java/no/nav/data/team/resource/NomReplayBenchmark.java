@@ -0,0 +1,129 @@
+package no.nav.data.team.resource;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.resource.domain.Resource;
+import no.nav.data.team.resource.dto.NomRessurs;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static no.nav.data.team.TestDataHelper.createNavIdent;
+import static no.nav.data.team.TestDataHelper.createResource;
+
+/**
+ * The parse stage of {@link NomListener} over a replay of the NOM topic, binding every record from a String as before,
+ * against peeking the ident from the bytes and skipping records older than the state.
+ * The state is either empty, as on a first start, or holds the newest version of every ident, as after a restore.
+ * <p>
+ * The replay is read from the file in {@code -Dnom.replay}, one record value per line in topic order,
+ * without it a replay of 20k idents with 5 versions each is generated.
+ * Run with {@code -prof gc} to compare allocations.
+ * <p>
+ * Not part of the test suite, run {@code main} to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class NomReplayBenchmark {
+
+    private static final int POLL_SIZE = 100;
+
+    @Param({"false", "true"})
+    private boolean restored;
+
+    private List<List<ConsumerRecord<String, byte[]>>> polls;
+    private NomListener listener;
+
+    @Setup
+    public void setup() throws IOException {
+        var replay = System.getProperty("nom.replay");
+        var values = replay == null ? generate() : Files.readAllLines(Path.of(replay), StandardCharsets.UTF_8);
+        polls = new ArrayList<>();
+        var newest = new HashMap<String, Resource>();
+        List<ConsumerRecord<String, byte[]>> poll = new ArrayList<>(POLL_SIZE);
+        for (int offset = 0; offset < values.size(); offset++) {
+            var value = values.get(offset).getBytes(StandardCharsets.UTF_8);
+            poll.add(new ConsumerRecord<>("nom", 0, offset, null, value));
+            if (poll.size() == POLL_SIZE) {
+                polls.add(poll);
+                poll = new ArrayList<>(POLL_SIZE);
+            }
+            var nomRessurs = JsonUtils.toObject(values.get(offset), NomRessurs.class);
+            if (nomRessurs.getNavident() != null) {
+                newest.put(nomRessurs.getNavident().toUpperCase(), new Resource(nomRessurs.addKafkaData(0, offset)));
+            }
+        }
+        polls.add(poll);
+
+        ResourceState.clear();
+        if (restored) {
+            ResourceState.putAll(newest.values());
+        }
+        listener = new NomListener(Mockito.mock(NomClient.class));
+    }
+
+    @Benchmark
+    public void bindStrings(Blackhole blackhole) {
+        for (var records : polls) {
+            var resources = new ArrayList<NomRessurs>(records.size());
+            for (var record : records) {
+                var nomRessurs = JsonUtils.toObject(new String(record.value(), StandardCharsets.UTF_8), NomRessurs.class);
+                if (nomRessurs.getNavident() != null) {
+                    resources.add(nomRessurs.addKafkaData(record.partition(), record.offset()));
+                }
+            }
+            blackhole.consume(resources);
+        }
+    }
+
+    @Benchmark
+    public void peekAndSkip(Blackhole blackhole) {
+        for (var records : polls) {
+            blackhole.consume(listener.parse(records));
+        }
+    }
+
+    private static List<String> generate() {
+        var values = new ArrayList<String>();
+        for (int version = 0; version < 5; version++) {
+            for (int i = 0; i < 20_000; i++) {
+                var nomRessurs = createResource("Family" + i + "v" + version, "Given" + i, createNavIdent(i));
+                var json = (ObjectNode) JsonUtils.toJsonNode(nomRessurs);
+                json.remove(List.of("partition", "offset", "fullName"));
+                values.add(json.toString());
+            }
+        }
+        return values;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(NomReplayBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.team.org.OrgUrlId;
+import no.nav.nom.graphql.model.OrganisasjonsenhetDto;
+import no.nav.nom.graphql.model.OrganisasjonsenhetsKoblingDto;
+import no.nav.nom.graphql.model.OrganisasjonsenhetsLederDto;
+import no.nav.nom.graphql.model.OrganiseringDto;
+import no.nav.nom.graphql.model.RessursDto;
+import no.nav.nom.graphql.model.RetningDto;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class OrgTreeTest {
+
+    /**
+     * 0_NAV (A1) -> 1_11 (A2, members D1 D2) -> 1_12 (A3, member D3) -> back to 1_11, 1_13 (expired, A4)
+     */
+    private final Map<String, OrganisasjonsenhetDto> nom = Map.of(
+            "0_NAV", org("0_NAV", "A1", null, List.of(), "1_11"),
+            "1_11", org("1_11", "A2", null, List.of("D1", "D2", "A2"), "1_12", "0_NAV"),
+            "1_12", org("1_12", "A3", null, List.of("D3"), "1_11"),
+            "1_13", org("1_13", "A4", LocalDate.now().minusYears(1), List.of("D4"))
+    );
+
+    @Test
+    void loadLevelByLevel() {
+        var levels = new ArrayList<Set<String>>();
+        var tree = OrgTree.load("0_NAV", ids -> {
+            levels.add(ids);
+            var units = new HashMap<String, OrganisasjonsenhetDto>();
+            ids.forEach(id -> units.put(id, nom.get(id)));
+            return units;
+        });
+
+        assertThat(levels).containsExactly(Set.of("0_NAV"), Set.of("1_11"), Set.of("1_12"));
+        assertThat(tree.size()).isEqualTo(3);
+        assertThat(tree.get("1_12")).isPresent();
+        assertThat(tree.get("1_13")).isEmpty();
+    }
+
+    @Test
+    void leaderMembers() {
+        var tree = OrgTree.of(new HashMap<>(nom));
+
+        assertThat(tree.getLeaderMembers("A1")).containsExactly("A2");
+        assertThat(tree.getLeaderMembers("A2")).containsExactly("D1", "D2", "A3");
+        assertThat(tree.getLeaderMembers("A4")).isEmpty();
+        assertThat(tree.getLeaderMembers("D1")).isEmpty();
+    }
+
+    @Test
+    void reportsThroughAllLevels() {
+        var tree = OrgTree.of(new HashMap<>(nom));
+
+        assertThat(tree.getReports("A1")).containsExactlyInAnyOrder("A2", "D1", "D2", "A3", "D3");
+        assertThat(tree.getReports("A2")).containsExactlyInAnyOrder("D1", "D2", "A3", "D3");
+        // 1_12 reaches back to 1_11
+        assertThat(tree.getReports("A3")).containsExactlyInAnyOrder("D3", "A2", "D1", "D2");
+        assertThat(tree.getReports("A4")).isEmpty();
+    }
+
+    @Test
+    void cycleReportsDoNotDependOnVisitOrder() {
+        // the leaders are visited in hash order, swapping them visits either unit of the cycle first
+        for (var leaders : List.of(List.of("B1", "B2"), List.of("B2", "B1"))) {
+            var tree = OrgTree.of(new HashMap<>(Map.of(
+                    "0_NAV", org("0_NAV", "A1", null, List.of(), "1_11"),
+                    "1_11", org("1_11", leaders.get(0), null, List.of("D1"), "1_12"),
+                    "1_12", org("1_12", leaders.get(1), null, List.of("D2"), "1_11")
+            )));
+
+            assertThat(tree.getReports("A1")).containsExactlyInAnyOrder("B1", "B2", "D1", "D2");
+            assertThat(tree.getReports(leaders.get(0))).containsExactlyInAnyOrder(leaders.get(1), "D1", "D2");
+            assertThat(tree.getReports(leaders.get(1))).containsExactlyInAnyOrder(leaders.get(0), "D1", "D2");
+        }
+    }
+
+    private static OrganisasjonsenhetDto org(String id, String leader, LocalDate gyldigTom, List<String> members, String... children) {
+        var orgUrlId = new OrgUrlId(id);
+        var organiseringer = Arrays.stream(children)
+                .map(child -> {
+                    var childId = new OrgUrlId(child);
+                    return OrganiseringDto.builder()
+                            .setRetning(child.equals("0_NAV") ? RetningDto.over : RetningDto.under)
+                            .setOrganisasjonsenhet(OrganisasjonsenhetDto.builder().setAgressoId(childId.getAgressoId()).setOrgNiv(childId.getOrgNiv()).build())
+                            .build();
+                })
+                .toList();
+        return OrganisasjonsenhetDto.builder()
+                .setAgressoId(orgUrlId.getAgressoId())
+                .setOrgNiv(orgUrlId.getOrgNiv())
+                .setNavn(id + " navn")
+                .setGyldigTom(gyldigTom)
+                .setOrganiseringer(organiseringer)
+                .setLeder(List.of(OrganisasjonsenhetsLederDto.builder().setRessurs(ressurs(leader)).build()))
+                .setKoblinger(members.stream().map(m -> OrganisasjonsenhetsKoblingDto.builder().setRessurs(ressurs(m)).build()).toList())
+                .build();
+    }
+
+    private static RessursDto ressurs(String ident) {
+        return RessursDto.builder().setNavIdent(ident).build();
+    }
+}
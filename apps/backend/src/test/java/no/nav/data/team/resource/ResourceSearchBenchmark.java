@@ -0,0 +1,113 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.common.search.NameSearch;
+import no.nav.data.common.storage.StorageService;
+import no.nav.data.team.resource.domain.ResourceRepository;
+import no.nav.data.team.resource.dto.NomRessurs;
+import no.nav.data.team.settings.SettingsService;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Sort;
+import org.mockito.Mockito;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static no.nav.data.team.TestDataHelper.createNavIdent;
+import static no.nav.data.team.TestDataHelper.createResource;
+
+/**
+ * Typeahead searches from concurrent users, through the shared near real time searcher with and without the result cache,
+ * against opening a reader for every query as search did before.
+ * <p>
+ * Not part of the test suite, run {@code main} to compare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Threads(8)
+@Fork(1)
+public class ResourceSearchBenchmark {
+
+    private static final String[] GIVEN_NAMES = {"Anne", "Ola", "Kari", "Per", "Ingrid", "Lars", "Marte", "Jon", "Silje", "Andreas"};
+    private static final String[] FAMILY_NAMES = {"Hansen", "Johansen", "Olsen", "Larsen", "Andersen", "Pedersen", "Nilsen", "Kristiansen", "Jensen", "Karlsen"};
+
+    @Param({"50000"})
+    private int resources;
+
+    private NomClient client;
+    private List<String> typeahead;
+
+    @Setup
+    public void setup() {
+        ResourceState.clear();
+        client = new NomClient(Mockito.mock(StorageService.class), Mockito.mock(SettingsService.class), Mockito.mock(ResourceRepository.class));
+        var random = new Random(1);
+        var batch = new ArrayList<NomRessurs>();
+        for (int i = 0; i < resources; i++) {
+            var familyName = FAMILY_NAMES[random.nextInt(FAMILY_NAMES.length)] + (i % 500);
+            batch.add(createResource(familyName, GIVEN_NAMES[random.nextInt(GIVEN_NAMES.length)], createNavIdent(i)).addKafkaData(0, i));
+            if (batch.size() == 500) {
+                client.add(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        client.add(batch);
+
+        typeahead = new ArrayList<>();
+        for (String given : GIVEN_NAMES) {
+            for (String family : FAMILY_NAMES) {
+                typeahead.add(given.substring(0, 3));
+                typeahead.add(given + " " + family.substring(0, 4));
+                typeahead.add(given + " " + family);
+            }
+        }
+    }
+
+    @Benchmark
+    public Object search() {
+        return client.search(next());
+    }
+
+    @Benchmark
+    public Object searchUncached() {
+        return client.searchIndex(next());
+    }
+
+    @Benchmark
+    public Object readerPerQuery() throws IOException {
+        try (var reader = DirectoryReader.open(ResourceState.getWriter())) {
+            var searcher = new IndexSearcher(reader);
+            return searcher.search(NameSearch.createQuery(next()), 100, Sort.RELEVANCE);
+        }
+    }
+
+    private String next() {
+        return typeahead.get(ThreadLocalRandom.current().nextInt(typeahead.size()));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResourceSearchBenchmark.class.getSimpleName()).build()).run();
+    }
+}
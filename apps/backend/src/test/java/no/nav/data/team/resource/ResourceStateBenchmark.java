@@ -0,0 +1,108 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.team.resource.domain.Resource;
+import no.nav.data.team.resource.dto.NomRessurs;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static no.nav.data.team.TestDataHelper.createNavIdent;
+import static no.nav.data.team.TestDataHelper.createResource;
+
+/**
+ * {@link ResourceState} lookups, the hash based bulk lookup against the scan it replaced,
+ * and single reads while a writer ingests batches the size of a NOM poll.
+ * <p>
+ * Not part of the test suite, run {@code main} to compare.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class ResourceStateBenchmark {
+
+    @Param({"100000"})
+    private int resources;
+    @Param({"500"})
+    private int batchSize;
+
+    private List<String> idents;
+    private List<String> batchIdents;
+    private List<Resource> all;
+    private List<NomRessurs> batch;
+    private long offset;
+
+    @Setup
+    public void setup() {
+        ResourceState.clear();
+        idents = new ArrayList<>(resources);
+        all = new ArrayList<>(resources);
+        batch = new ArrayList<>(batchSize);
+        for (int i = 0; i < resources; i++) {
+            idents.add(createNavIdent(i));
+            var nomRessurs = createResource("Family" + i, "Given" + i, idents.get(i)).addKafkaData(0, i);
+            all.add(new Resource(nomRessurs));
+            if (i < batchSize) {
+                batch.add(nomRessurs);
+            }
+        }
+        ResourceState.putAll(all);
+        batchIdents = idents.subList(resources - batchSize, resources);
+        offset = resources;
+    }
+
+    @Benchmark
+    @Group("bulk")
+    public Object getAll() {
+        return ResourceState.getAll(batchIdents);
+    }
+
+    @Benchmark
+    @Group("scan")
+    public Object scan() {
+        return all.stream().filter(r -> batchIdents.contains(r.getNavIdent())).toList();
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(3)
+    public Object read() {
+        return ResourceState.get(idents.get(ThreadLocalRandom.current().nextInt(resources)));
+    }
+
+    @Benchmark
+    @Group("ingest")
+    @GroupThreads(1)
+    public void write() {
+        var next = new ArrayList<Resource>(batch.size());
+        offset++;
+        for (NomRessurs nomRessurs : batch) {
+            next.add(new Resource(nomRessurs.addKafkaData(0, offset)));
+        }
+        ResourceState.putAll(next);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(ResourceStateBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,106 @@
+package no.nav.data.team.resource;
+
+import no.nav.data.common.search.NameSearch;
+import no.nav.data.team.resource.domain.Resource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static no.nav.data.team.TestDataHelper.createNavIdent;
+import static no.nav.data.team.TestDataHelper.createResource;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResourceStateTest {
+
+    private static final int RESOURCES = 2000;
+    private static final int BATCHES = 200;
+    private static final int READERS = 4;
+
+    private final List<String> idents = IntStream.range(0, RESOURCES).mapToObj(i -> createNavIdent(i)).toList();
+
+    @BeforeEach
+    void setUp() {
+        ResourceState.clear();
+    }
+
+    @Test
+    void getAllByIdent() {
+        ResourceState.putAll(batch(1));
+
+        var resources = ResourceState.getAll(List.of(idents.get(0).toLowerCase(), idents.get(1), "S999999"));
+
+        assertThat(resources).containsOnlyKeys(idents.get(0), idents.get(1));
+        assertThat(ResourceState.getByEmail("Given0@nav.no")).isPresent();
+        assertThat(ResourceState.getOffsets()).containsEntry(0, 1L);
+    }
+
+    @Test
+    void putMembershipsReportsChangedCounts() throws IOException {
+        // counts are kept across clear
+        ResourceState.putMemberships(Map.of());
+        var ident = idents.get(0);
+        ResourceState.updateDocument(ident, NameSearch.createDocument(ResourceState.TYPE, ident.toLowerCase(), "Given Family"));
+
+        assertThat(ResourceState.putMemberships(Map.of(ident, 1))).isTrue();
+        assertThat(ResourceState.putMemberships(Map.of(ident, 1))).isFalse();
+        assertThat(ResourceState.putMemberships(Map.of())).isTrue();
+    }
+
+    /**
+     * Every batch rewrites all resources with the batch number as offset, a reader must never see resources from two batches at once
+     */
+    @Test
+    void readsAreNeverTornDuringBulkIngest() throws InterruptedException {
+        ResourceState.putAll(batch(0));
+        var done = new AtomicBoolean();
+        var started = new CountDownLatch(READERS);
+        var executor = Executors.newFixedThreadPool(READERS);
+        var readers = IntStream.range(0, READERS).mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+            long reads = 0;
+            long lastOffset = 0;
+            while (!done.get()) {
+                var resources = ResourceState.getAll(idents);
+                assertThat(resources).hasSize(RESOURCES);
+                var offsets = resources.values().stream().map(Resource::getOffset).distinct().toList();
+                assertThat(offsets).hasSize(1);
+                assertThat(offsets.get(0)).isGreaterThanOrEqualTo(lastOffset);
+                lastOffset = offsets.get(0);
+                if (reads++ == 0) {
+                    started.countDown();
+                }
+            }
+            return reads;
+        }, executor)).toList();
+
+        assertThat(started.await(10, TimeUnit.SECONDS)).isTrue();
+        for (int i = 1; i <= BATCHES; i++) {
+            ResourceState.putAll(batch(i));
+        }
+        done.set(true);
+
+        readers.forEach(reader -> assertThat(reader.join()).isPositive());
+        executor.shutdown();
+        assertThat(ResourceState.getAll(idents).values()).allMatch(r -> r.getOffset() == BATCHES);
+        assertThat(ResourceState.getOffsets()).containsEntry(0, (long) BATCHES);
+    }
+
+    private List<Resource> batch(long offset) {
+        var batch = new ArrayList<Resource>(RESOURCES);
+        for (int i = 0; i < RESOURCES; i++) {
+            var nomRessurs = createResource("Family" + i, "Given" + i, idents.get(i));
+            nomRessurs.setEpost("given" + i + "@nav.no");
+            batch.add(new Resource(nomRessurs.addKafkaData(0, offset)));
+        }
+        return batch;
+    }
+}
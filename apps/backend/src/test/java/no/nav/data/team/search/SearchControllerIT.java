@@ -0,0 +1,51 @@
+package no.nav.data.team.search;
+
+import no.nav.data.team.IntegrationTestBase;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.search.SearchController.SearchHitPageResponse;
+import no.nav.data.team.search.dto.SearchHitResponse;
+import no.nav.data.team.search.dto.SearchType;
+import no.nav.data.team.team.domain.Team;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+
+import java.util.List;
+
+import static no.nav.data.team.TestDataHelper.createResource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SearchControllerIT extends IntegrationTestBase {
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Test
+    void search() {
+        var team = storageService.save(Team.builder().name("Marty team").tags(List.of("martial")).build());
+        storageService.save(ProductArea.builder().name("Other area").build());
+        addNomResource(createResource("Mart", "Guy", "S123457"));
+
+        assertThat(get("/search?q=mart")).extracting(SearchHitResponse::getType, SearchHitResponse::getId).containsExactlyInAnyOrder(
+                tuple(SearchType.TEAM, team.getId().toString()),
+                tuple(SearchType.TAG, "martial"),
+                tuple(SearchType.RESOURCE, "S123457")
+        );
+        assertThat(get("/search?q=mart&types=TEAM,PRODUCT_AREA")).extracting(SearchHitResponse::getName).containsExactly("Marty team");
+    }
+
+    @Test
+    void searchTooShort() {
+        var res = restTemplate.getForEntity("/search?q=ma", String.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+    }
+
+    private List<SearchHitResponse> get(String url) {
+        var res = restTemplate.getForEntity(url, SearchHitPageResponse.class);
+        assertThat(res.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(res.getBody()).isNotNull();
+        return res.getBody().getContent();
+    }
+}
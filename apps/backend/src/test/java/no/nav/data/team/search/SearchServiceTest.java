@@ -0,0 +1,101 @@
+package no.nav.data.team.search;
+
+import no.nav.data.common.storage.StorageService;
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.resource.NomClient;
+import no.nav.data.team.resource.domain.ResourceRepository;
+import no.nav.data.team.search.dto.SearchHitResponse;
+import no.nav.data.team.search.dto.SearchType;
+import no.nav.data.team.settings.SettingsService;
+import no.nav.data.team.shared.CatalogSnapshotService;
+import no.nav.data.team.shared.domain.CatalogSnapshot;
+import no.nav.data.team.team.domain.Team;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.UUID;
+
+import static no.nav.data.team.TestDataHelper.createResource;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class SearchServiceTest {
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+    @Mock
+    private StorageService storage;
+    @Mock
+    private SettingsService settingsService;
+    @Mock
+    private ResourceRepository resourceRepository;
+
+    private SearchService service;
+    private final Team team = Team.builder().id(UUID.randomUUID()).name("Marty team").tags(List.of("martial")).build();
+    private final ProductArea productArea = ProductArea.builder().id(UUID.randomUUID()).name("Hart area").tags(List.of("tag")).build();
+    private final Cluster cluster = Cluster.builder().id(UUID.randomUUID()).name("Smart cluster").build();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        var nomClient = new NomClient(storage, settingsService, resourceRepository);
+        nomClient.clear();
+        nomClient.add(List.of(createResource("Mart", "Guy", "S123457"), createResource("Hart", "Bob", "S123459")));
+        service = new SearchService(catalogSnapshotService, nomClient);
+        when(catalogSnapshotService.get()).thenReturn(CatalogSnapshot.of(List.of(team), List.of(productArea), List.of(cluster)));
+    }
+
+    @Test
+    void searchAllTypes() {
+        var hits = service.search("mart", EnumSet.allOf(SearchType.class)).getContent();
+
+        assertThat(hits).extracting(SearchHitResponse::getType, SearchHitResponse::getId).containsExactlyInAnyOrder(
+                tuple(SearchType.TEAM, team.getId().toString()),
+                tuple(SearchType.TAG, "martial"),
+                tuple(SearchType.RESOURCE, "S123457")
+        );
+        assertThat(hits).isSortedAccordingTo((a, b) -> Float.compare(b.getScore(), a.getScore()));
+        assertThat(hits).filteredOn(h -> h.getType() == SearchType.RESOURCE).extracting(SearchHitResponse::getName).containsExactly("Guy Mart");
+    }
+
+    @Test
+    void searchTypes() {
+        assertThat(service.search("hart", EnumSet.of(SearchType.PRODUCT_AREA)).getContent())
+                .extracting(SearchHitResponse::getName).containsExactly("Hart area");
+        assertThat(service.search("hart", EnumSet.of(SearchType.RESOURCE)).getContent())
+                .extracting(SearchHitResponse::getId).containsExactly("S123459");
+    }
+
+    @Test
+    void reindexWhenCatalogChanges() {
+        assertThat(service.search("smart", EnumSet.of(SearchType.CLUSTER)).getContent()).hasSize(1);
+
+        var renamed = Cluster.builder().id(cluster.getId()).name("Clever cluster").build();
+        when(catalogSnapshotService.get()).thenReturn(CatalogSnapshot.of(List.of(team), List.of(productArea), List.of(renamed)));
+
+        assertThat(service.search("smart", EnumSet.of(SearchType.CLUSTER)).getContent()).isEmpty();
+        assertThat(service.search("clever", EnumSet.of(SearchType.CLUSTER)).getContent())
+                .extracting(SearchHitResponse::getName).containsExactly("Clever cluster");
+    }
+
+    @Test
+    void removedObjectsAndTagsLeaveIndex() {
+        assertThat(service.search("martial", EnumSet.of(SearchType.TAG)).getContent()).hasSize(1);
+
+        var untagged = Team.builder().id(team.getId()).name(team.getName()).build();
+        when(catalogSnapshotService.get()).thenReturn(CatalogSnapshot.of(List.of(untagged), List.of(productArea), List.of()));
+
+        assertThat(service.search("martial", EnumSet.of(SearchType.TAG)).getContent()).isEmpty();
+        assertThat(service.search("smart", EnumSet.of(SearchType.CLUSTER)).getContent()).isEmpty();
+        assertThat(service.search("marty", EnumSet.of(SearchType.TEAM)).getContent()).hasSize(1);
+        assertThat(service.search("tag", EnumSet.of(SearchType.TAG)).getContent()).extracting(SearchHitResponse::getId).containsExactly("tag");
+    }
+}
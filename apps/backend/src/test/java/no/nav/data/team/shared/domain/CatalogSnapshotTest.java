@@ -0,0 +1,59 @@
+package no.nav.data.team.shared.domain;
+
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.po.domain.PaMember;
+import no.nav.data.team.po.domain.ProductArea;
+import no.nav.data.team.team.domain.Team;
+import no.nav.data.team.team.domain.TeamMember;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogSnapshotTest {
+
+    @Test
+    void patch() {
+        var productArea = ProductArea.builder().id(UUID.randomUUID()).name("pa").build();
+        var cluster = Cluster.builder().id(UUID.randomUUID()).productAreaId(productArea.getId()).build();
+        var team = Team.builder().id(UUID.randomUUID()).name("team").productAreaId(productArea.getId()).build();
+
+        var snapshot = CatalogSnapshot.of(List.of(team), List.of(productArea), List.of(cluster));
+        assertThat(snapshot.teamsInProductArea(productArea.getId())).containsExactly(team);
+        assertThat(snapshot.clustersInProductArea(productArea.getId())).containsExactly(cluster);
+
+        var moved = Team.builder().id(team.getId()).name("team").clusterIds(List.of(cluster.getId())).build();
+        var newTeam = Team.builder().id(UUID.randomUUID()).name("new").productAreaId(productArea.getId()).build();
+        var patched = snapshot.with(moved).with(newTeam);
+
+        assertThat(patched.teams()).containsExactly(moved, newTeam);
+        assertThat(patched.team(team.getId())).containsSame(moved);
+        assertThat(patched.teamsInProductArea(productArea.getId())).containsExactly(newTeam);
+        assertThat(patched.teamsInCluster(cluster.getId())).containsExactly(moved);
+        assertThat(snapshot.team(team.getId())).containsSame(team);
+
+        var removed = patched.without(cluster.getId()).without(UUID.randomUUID());
+        assertThat(removed.clusters()).isEmpty();
+        assertThat(removed.cluster(cluster.getId())).isEmpty();
+        assertThat(removed.teams()).hasSize(2);
+        assertThat(removed.productArea(productArea.getId())).containsSame(productArea);
+    }
+
+    @Test
+    void membershipCounts() {
+        var team = Team.builder().id(UUID.randomUUID()).members(List.of(member("S123456"), member("s123457"))).build();
+        var inactive = Team.builder().id(UUID.randomUUID()).status(DomainObjectStatus.INACTIVE).members(List.of(member("S123456"))).build();
+        var productArea = ProductArea.builder().id(UUID.randomUUID()).members(List.of(PaMember.builder().navIdent("S123456").build())).build();
+
+        var snapshot = CatalogSnapshot.of(List.of(team, inactive), List.of(productArea), List.of());
+
+        assertThat(snapshot.membershipCounts()).containsExactlyInAnyOrderEntriesOf(Map.of("S123456", 2, "S123457", 1));
+    }
+
+    private static TeamMember member(String navIdent) {
+        return TeamMember.builder().navIdent(navIdent).build();
+    }
+}
@@ -0,0 +1,51 @@
+package no.nav.data.team.shared.domain;
+
+import no.nav.data.team.cluster.domain.Cluster;
+import no.nav.data.team.team.domain.OfficeHours;
+import no.nav.data.team.team.domain.Team;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RelationIndexTest {
+
+    @Test
+    void relations() {
+        var paId = UUID.randomUUID();
+        var cluster = Cluster.builder().id(UUID.randomUUID()).productAreaId(paId).build();
+        var otherCluster = Cluster.builder().id(UUID.randomUUID()).build();
+
+        var paTeam = Team.builder().id(UUID.randomUUID()).productAreaId(paId).build();
+        var paAndClusterTeam = Team.builder().id(UUID.randomUUID()).productAreaId(paId).clusterIds(List.of(cluster.getId())).build();
+        var clusterTeam = Team.builder().id(UUID.randomUUID()).clusterIds(List.of(cluster.getId(), otherCluster.getId())).build();
+        var looseTeam = Team.builder().id(UUID.randomUUID()).build();
+
+        var index = RelationIndex.of(List.of(paTeam, paAndClusterTeam, clusterTeam, looseTeam), List.of(cluster, otherCluster));
+
+        assertThat(index.teamsInProductArea(paId)).containsExactly(paTeam, paAndClusterTeam);
+        assertThat(index.allTeamsInProductArea(paId)).containsExactly(paTeam, paAndClusterTeam, clusterTeam);
+        assertThat(index.teamsInCluster(cluster.getId())).containsExactly(paAndClusterTeam, clusterTeam);
+        assertThat(index.teamsInCluster(otherCluster.getId())).containsExactly(clusterTeam);
+        assertThat(index.clustersInProductArea(paId)).containsExactly(cluster);
+        assertThat(index.teamsInProductArea(UUID.randomUUID())).isEmpty();
+    }
+
+    @Test
+    void statusAndLocation() {
+        var active = Team.builder().id(UUID.randomUUID()).status(DomainObjectStatus.ACTIVE)
+                .officeHours(OfficeHours.builder().locationCode("FA1-BA").build()).build();
+        var inactive = Team.builder().id(UUID.randomUUID()).status(DomainObjectStatus.INACTIVE).build();
+        var noStatus = Team.builder().id(UUID.randomUUID()).officeHours(OfficeHours.builder().build()).build();
+
+        var index = RelationIndex.of(List.of(active, inactive, noStatus), List.of());
+
+        assertThat(index.teamsWithStatus(DomainObjectStatus.ACTIVE)).containsExactly(active);
+        assertThat(index.teamsWithStatus(DomainObjectStatus.INACTIVE)).containsExactly(inactive);
+        assertThat(index.teamsWithStatus(DomainObjectStatus.PLANNED)).isEmpty();
+        assertThat(index.teamsInLocation("FA1-BA")).containsExactly(active);
+        assertThat(index.teamsInLocation("FA1")).isEmpty();
+    }
+}
@@ -0,0 +1,61 @@
+package no.nav.data.team.team;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import no.nav.data.common.exceptions.ValidationException;
+import no.nav.data.common.utils.JsonUtils;
+import no.nav.data.team.notify.UrlGeneratorTestUtil;
+import no.nav.data.team.shared.domain.DomainObjectStatus;
+import no.nav.data.team.team.domain.Team;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TeamFieldsTest {
+
+    private final Team team = Team.builder().id(UUID.randomUUID()).name("team").productAreaId(UUID.randomUUID())
+            .status(DomainObjectStatus.ACTIVE).tags(List.of("tag")).build();
+
+    @BeforeAll
+    static void beforeAll() {
+        UrlGeneratorTestUtil.get();
+    }
+
+    @Test
+    void selectedFields() {
+        var response = TeamFields.of("name, id,productAreaId", null).project(team);
+
+        assertThat(response).containsOnlyKeys("id", "name", "productAreaId");
+        assertThat(response.keySet()).containsExactly("id", "name", "productAreaId");
+        assertThat(response.get("id")).isEqualTo(team.getId().toString());
+        assertThat(response.get("productAreaId")).isEqualTo(team.getProductAreaId().toString());
+    }
+
+    @Test
+    void allFieldsWithoutMembers() {
+        var response = TeamFields.of(null, null).project(team);
+
+        assertThat(response).containsKeys("id", "name", "tags", "status", "officeHours").doesNotContainKey(TeamFields.MEMBERS);
+        assertThat(TeamFields.of("id", TeamFields.MEMBERS).project(team)).containsOnlyKeys("id", TeamFields.MEMBERS);
+    }
+
+    @Test
+    void sameFieldsAsResponse() {
+        var all = JsonUtils.getObjectMapper().convertValue(team.convertToResponse(), new TypeReference<Map<String, Object>>() {
+        });
+
+        assertThat(TeamFields.of(null, TeamFields.MEMBERS).project(team)).isEqualTo(all);
+    }
+
+    @Test
+    void invalid() {
+        assertThatThrownBy(() -> TeamFields.of("id,unknown", null)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> TeamFields.of("members", null)).isInstanceOf(ValidationException.class);
+        assertThatThrownBy(() -> TeamFields.of(null, "tags")).isInstanceOf(ValidationException.class);
+    }
+}